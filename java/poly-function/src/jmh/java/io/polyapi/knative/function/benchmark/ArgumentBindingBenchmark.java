@@ -0,0 +1,107 @@
+package io.polyapi.knative.function.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.polyapi.commons.internal.json.JacksonJsonParser;
+import io.polyapi.knative.function.controller.binding.ArgumentBinder;
+import io.polyapi.knative.function.model.InvocationPlan;
+import io.polyapi.knative.function.service.InvocationPlanFactory;
+import lombok.Getter;
+import lombok.Setter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original argument binding, which builds a {@link JsonNode} tree of the whole body and parses every
+ * argument again from its string form, against the streaming {@link ArgumentBinder}. The payload is an 'args' object
+ * whose single argument is a list of records of roughly {@code payloadKb} kilobytes.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ArgumentBindingBenchmark -prof gc"} to get the
+ * allocation rate per operation next to the latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ArgumentBindingBenchmark {
+
+    @Getter
+    @Setter
+    public static class Item {
+        private long id;
+        private String name;
+        private double price;
+        private List<String> tags;
+        private Map<String, Object> attributes;
+    }
+
+    public static class ItemsFunction {
+        public int apply(List<Item> items) {
+            return items.size();
+        }
+    }
+
+    @Param({"1024", "51200"})
+    private int payloadKb;
+
+    private byte[] body;
+    private InvocationPlan plan;
+    private ObjectMapper objectMapper;
+    private JacksonJsonParser jsonParser;
+    private ArgumentBinder argumentBinder;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = new ObjectMapper();
+        jsonParser = new JacksonJsonParser();
+        plan = new InvocationPlanFactory().create(ItemsFunction.class, ItemsFunction.class.getDeclaredMethod("apply", List.class));
+        argumentBinder = new ArgumentBinder(plan, objectMapper);
+        List<Map<String, Object>> items = new ArrayList<>();
+        long size = 0;
+        for (int i = 0; size < payloadKb * 1024L; i++) {
+            Map<String, Object> item = Map.of("id", i,
+                    "name", "Item number " + i,
+                    "price", i * 1.25,
+                    "tags", List.of("benchmark", "tag-" + (i % 10)),
+                    "attributes", Map.of("color", "blue", "weight", i % 100, "available", i % 2 == 0));
+            size += objectMapper.writeValueAsBytes(item).length + 1;
+            items.add(item);
+        }
+        body = objectMapper.writeValueAsBytes(Map.of("args", List.of(items)));
+    }
+
+    @Benchmark
+    public Object[] treeBinding() throws IOException {
+        JsonNode args = objectMapper.readTree(body).get("args");
+        List<JsonNode> arguments = new ArrayList<>(args.size());
+        args.forEach(arguments::add);
+        Object[] result = new Object[plan.getParameterCount()];
+        for (int i = 0; i < result.length && i < arguments.size(); i++) {
+            result[i] = jsonParser.parseString(arguments.get(i).toString(), plan.getParameterTypes().get(i));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object[] streamingBinding() {
+        return argumentBinder.bind(new ByteArrayInputStream(body));
+    }
+}
@@ -0,0 +1,111 @@
+package io.polyapi.knative.function.benchmark;
+
+import io.polyapi.knative.function.log.ExecutionContext;
+import io.polyapi.knative.function.service.execution.ExecutionEngine;
+import io.polyapi.knative.function.service.execution.ExecutionEngineConfiguration;
+import io.polyapi.knative.function.service.execution.ExecutionEngineType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures how each {@link ExecutionEngine} copes with a burst of concurrent in-flight executions. Every operation
+ * submits {@code inFlight} executions that park for {@code blockMillis}, simulating I/O bound functions, and waits for
+ * all of them. Besides the time per burst it reports the peak thread count and the resident set size of the fork.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ExecutionEngineBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xss512k")
+public class ExecutionEngineBenchmark {
+
+    @Param
+    private ExecutionEngineType engineType;
+
+    @Param({"1000", "5000", "10000"})
+    private int inFlight;
+
+    @Param({"1"})
+    private int blockMillis;
+
+    private ExecutionEngine engine;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long peakThreads;
+        public long rssKb;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+            peakThreads = 0;
+            rssKb = 0;
+        }
+
+        void record() {
+            peakThreads = Math.max(peakThreads, ManagementFactory.getThreadMXBean().getPeakThreadCount());
+            rssKb = Math.max(rssKb, readRssKb());
+        }
+
+        private static long readRssKb() {
+            try {
+                return Files.readAllLines(Path.of("/proc/self/status")).stream()
+                        .filter(line -> line.startsWith("VmRSS:"))
+                        .map(line -> line.replaceAll("\\D", ""))
+                        .mapToLong(Long::parseLong)
+                        .findFirst()
+                        .orElse(0);
+            } catch (IOException e) {
+                return (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / 1024;
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        engine = new ExecutionEngineConfiguration().executionEngine(engineType, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    public void burst(Footprint footprint) {
+        long blockNanos = TimeUnit.MILLISECONDS.toNanos(blockMillis);
+        CompletableFuture<?>[] executions = new CompletableFuture<?>[inFlight];
+        for (int i = 0; i < inFlight; i++) {
+            executions[i] = engine.execute(() -> {
+                LockSupport.parkNanos(blockNanos);
+                return null;
+            }, new ExecutionContext(String.valueOf(i), false));
+        }
+        CompletableFuture.allOf(executions).join();
+        footprint.record();
+    }
+}
@@ -0,0 +1,82 @@
+package io.polyapi.knative.function.benchmark;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.polyapi.knative.function.metrics.InvocationEndpoint;
+import io.polyapi.knative.function.metrics.InvocationMetrics;
+import io.polyapi.knative.function.metrics.InvocationPhase;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request overhead of the phase timers: taking the timings of every phase of an invocation, and
+ * recording them into a {@link PrometheusMeterRegistry} with percentile histograms, against a request that reads the
+ * clock as often without keeping the readings. The Prometheus scrape is measured too, as it grows with the histograms.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="InvocationMetricsBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvocationMetricsBenchmark {
+    private static final InvocationPhase[] TIMED_PHASES = {InvocationPhase.BIND, InvocationPhase.QUEUE, InvocationPhase.CONSTRUCT, InvocationPhase.INJECT, InvocationPhase.EXECUTE};
+
+    private PrometheusMeterRegistry meterRegistry;
+    private InvocationMetrics invocationMetrics;
+
+    @Setup
+    public void setup() {
+        meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        invocationMetrics = new InvocationMetrics(meterRegistry, "benchmark");
+        for (int i = 0; i < 1000; i++) {
+            invocationMetrics.record(timedInvocation(), 200);
+        }
+    }
+
+    private static InvocationTimings timedInvocation() {
+        InvocationTimings timings = new InvocationTimings(InvocationEndpoint.INVOKE);
+        for (InvocationPhase phase : TIMED_PHASES) {
+            timings.recordSince(phase, System.nanoTime());
+        }
+        timings.markHandled();
+        return timings;
+    }
+
+    @Benchmark
+    public long uninstrumented() {
+        long result = 0;
+        for (int i = 0; i < TIMED_PHASES.length; i++) {
+            result += System.nanoTime() - System.nanoTime();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public InvocationTimings timings() {
+        return timedInvocation();
+    }
+
+    @Benchmark
+    public void timingsRecorded() {
+        invocationMetrics.record(timedInvocation(), 200);
+    }
+
+    @Benchmark
+    public String scrape() {
+        return meterRegistry.scrape();
+    }
+}
@@ -0,0 +1,214 @@
+package io.polyapi.knative.function.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.commons.api.error.parse.JsonToObjectParsingException;
+import io.polyapi.knative.function.controller.InvocationController;
+import io.polyapi.knative.function.controller.binding.ArgumentBinder;
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import io.polyapi.knative.function.controller.streaming.StreamingResponseWriter;
+import io.polyapi.knative.function.error.PolyFunctionError;
+import io.polyapi.knative.function.error.PolyKNativeFunctionException;
+import io.polyapi.knative.function.log.LogCaptureBudget;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import io.polyapi.knative.function.mock.function.PolyCustomIntegerConsumer;
+import io.polyapi.knative.function.mock.function.PolyKNativeFunctionExceptionThrowingStringConsumer;
+import io.polyapi.knative.function.mock.function.RuntimeExceptionThrowingStringConsumer;
+import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import io.polyapi.knative.function.model.InvocationPlan;
+import io.polyapi.knative.function.service.InvocationPlanFactory;
+import io.polyapi.knative.function.service.InvocationServiceImpl;
+import io.polyapi.knative.function.service.admission.AdmissionGate;
+import io.polyapi.knative.function.service.execution.ExecutionEngine;
+import io.polyapi.knative.function.service.execution.ExecutionEngineConfiguration;
+import io.polyapi.knative.function.service.idempotency.IdempotencyCache;
+import io.polyapi.knative.function.service.instance.FunctionInstanceProvider;
+import io.polyapi.knative.function.service.instance.FunctionInstanceProviderRegistry;
+import io.polyapi.knative.function.service.instance.PrototypeFunctionInstanceProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Measures each step of the invocation hot path with the mock functions of the tests: binding the request body,
+ * {@link InvocationServiceImpl#invokeFunction}, the whole blocking {@link InvocationController#invoke}, the creation of a
+ * function instance with PolyCustom injection, the error paths and the serialization of the trigger response. The
+ * payload dependent steps run with a string argument of {@code payloadBytes}.
+ * <p>
+ * Both the throughput and the sampled latency are reported, the latter with its percentiles. Logging is turned off so
+ * the console doesn't dominate the results, as its cost is measured by {@link LogRoutingBenchmark}. Run with
+ * {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="InvocationPathBenchmark -prof gc"} to get the
+ * allocations per operation, and add {@code -tu s} to get the throughput in ops/s.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class InvocationPathBenchmark {
+    private static final String EXECUTION_ID = "benchmark";
+
+    @State(Scope.Benchmark)
+    public static class Payload {
+
+        @Param({"64", "16384", "1048576"})
+        private int payloadBytes;
+
+        private byte[] body;
+        private Object[] arguments;
+        private TriggerEventResult triggerResult;
+
+        @Setup
+        public void setup() {
+            String argument = "a".repeat(payloadBytes);
+            body = ("[\"" + argument + "\"]").getBytes(UTF_8);
+            arguments = new Object[]{argument};
+            triggerResult = new TriggerEventResult(200, EXECUTION_ID, "benchmark", "environment", APPLICATION_JSON_VALUE,
+                    null, argument, null);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Invocation {
+        private Level rootLevel;
+        private ObjectMapper objectMapper;
+        private ExecutionEngine executionEngine;
+        private AdmissionGate admissionGate;
+        private FunctionInstanceProviderRegistry instanceProviderRegistry;
+        private InvocationServiceImpl invocationService;
+        private InvocationController controller;
+        private ArgumentBinder argumentBinder;
+        private InvocationPlan plan;
+        private InvocationPlan runtimeExceptionPlan;
+        private InvocationPlan polyExceptionPlan;
+        private FunctionInstanceProvider polyCustomProvider;
+        private FunctionInstanceProvider plainProvider;
+        private byte[] malformedBody;
+
+        @Setup
+        public void setup() throws NoSuchMethodException {
+            Logger root = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+            rootLevel = root.getLevel();
+            root.setLevel(Level.OFF);
+            objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            executionEngine = new ExecutionEngineConfiguration().executionEngine(ExecutionEngineConfiguration.defaultEngineType(), 0);
+            admissionGate = new AdmissionGate(0, 0, Duration.ZERO, new SimpleMeterRegistry());
+            instanceProviderRegistry = new FunctionInstanceProviderRegistry();
+            instanceProviderRegistry.setPoolSize(2);
+            instanceProviderRegistry.setMeterRegistry(new SimpleMeterRegistry());
+            invocationService = new InvocationServiceImpl();
+            invocationService.setExecutionEngine(executionEngine);
+            invocationService.setAdmissionGate(admissionGate);
+            invocationService.setInstanceProviderRegistry(instanceProviderRegistry);
+            invocationService.setLogCaptureBudget(new LogCaptureBudget(false, 0, 0));
+            invocationService.setIdempotencyCache(new IdempotencyCache(0, Duration.ZERO, new SimpleMeterRegistry()));
+            InvocationPlanFactory planFactory = new InvocationPlanFactory();
+            plan = planFactory.create(StringToStringFunction.class, StringToStringFunction.class.getDeclaredMethod("apply", String.class));
+            runtimeExceptionPlan = planFactory.create(RuntimeExceptionThrowingStringConsumer.class, RuntimeExceptionThrowingStringConsumer.class.getDeclaredMethod("accept", String.class));
+            polyExceptionPlan = planFactory.create(PolyKNativeFunctionExceptionThrowingStringConsumer.class, PolyKNativeFunctionExceptionThrowingStringConsumer.class.getDeclaredMethod("accept", String.class));
+            argumentBinder = new ArgumentBinder(plan, objectMapper);
+            controller = new InvocationController();
+            controller.setInvocationPlan(plan);
+            controller.setInvocationService(invocationService);
+            controller.setArgumentBinder(argumentBinder);
+            controller.setStreamingResponseWriter(new StreamingResponseWriter(objectMapper));
+            polyCustomProvider = new PrototypeFunctionInstanceProvider(PolyCustomIntegerConsumer.class);
+            plainProvider = new PrototypeFunctionInstanceProvider(StringToStringFunction.class);
+            malformedBody = "[\"unterminated".getBytes(UTF_8);
+        }
+
+        @TearDown
+        public void tearDown() {
+            admissionGate.close();
+            ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(rootLevel);
+        }
+
+        private byte[] toErrorBody(PolyFunctionError error) throws IOException {
+            return objectMapper.writeValueAsBytes(error);
+        }
+    }
+
+    @Benchmark
+    public Object[] bindArguments(Payload payload, Invocation invocation) {
+        return invocation.argumentBinder.bind(new ByteArrayInputStream(payload.body));
+    }
+
+    @Benchmark
+    public Object invokeFunction(Payload payload, Invocation invocation) {
+        return invocation.invocationService.invokeFunction(invocation.plan, payload.arguments, false, EXECUTION_ID);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> invokeEndpoint(Payload payload, Invocation invocation) {
+        return invocation.controller.invoke(false, EXECUTION_ID, null, new ByteArrayInputStream(payload.body));
+    }
+
+    @Benchmark
+    public void serializeTriggerResponse(Payload payload, Invocation invocation) throws IOException {
+        invocation.objectMapper.writeValue(OutputStream.nullOutputStream(), payload.triggerResult);
+    }
+
+    @Benchmark
+    public Object instanceWithPolyCustom(Invocation invocation) {
+        return invocation.polyCustomProvider.getInstance(new PolyCustom(EXECUTION_ID, "", 200, APPLICATION_JSON_VALUE), new InvocationTimings());
+    }
+
+    @Benchmark
+    public Object instanceWithoutPolyCustom(Invocation invocation) {
+        return invocation.plainProvider.getInstance(new PolyCustom(EXECUTION_ID, "", 200, APPLICATION_JSON_VALUE), new InvocationTimings());
+    }
+
+    @Benchmark
+    public byte[] runtimeExceptionPath(Invocation invocation) throws IOException {
+        return invokeFailing(invocation, invocation.runtimeExceptionPlan);
+    }
+
+    @Benchmark
+    public byte[] polyExceptionPath(Invocation invocation) throws IOException {
+        return invokeFailing(invocation, invocation.polyExceptionPlan);
+    }
+
+    @Benchmark
+    public byte[] malformedPayloadPath(Invocation invocation) throws IOException {
+        try {
+            invocation.argumentBinder.bind(new ByteArrayInputStream(invocation.malformedBody));
+            throw new IllegalStateException("The malformed payload was bound.");
+        } catch (JsonToObjectParsingException e) {
+            return invocation.toErrorBody(new PolyFunctionError(BAD_REQUEST.value(), e.getMessage()));
+        }
+    }
+
+    private static byte[] invokeFailing(Invocation invocation, InvocationPlan plan) throws IOException {
+        try {
+            invocation.invocationService.invokeFunction(plan, new Object[]{"error"}, false, EXECUTION_ID);
+            throw new IllegalStateException("The function didn't fail.");
+        } catch (PolyKNativeFunctionException e) {
+            return invocation.toErrorBody(e.toErrorObject());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.polyapi.knative.function.benchmark;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.mock.function.BiPolyCustomIntegerBiConsumer;
+import io.polyapi.knative.function.mock.function.IntFunction;
+import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import io.polyapi.knative.function.service.invoker.FunctionInvoker;
+import io.polyapi.knative.function.service.invoker.MethodHandleFunctionInvoker;
+import io.polyapi.knative.function.service.invoker.ReflectionFunctionInvoker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Math.min;
+
+/**
+ * Compares the per-call cost of the {@link FunctionInvoker} implementations against the original
+ * {@link Method#invoke(Object, Object...)} call with its argument list copy.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="InvokerBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvokerBenchmark {
+
+    public enum MockFunction {
+        STRING_TO_STRING,
+        INT,
+        BI_POLY_CUSTOM
+    }
+
+    @Param
+    private MockFunction function;
+
+    private Object instance;
+    private Method method;
+    private Object[] arguments;
+    private FunctionInvoker reflectionInvoker;
+    private FunctionInvoker methodHandleInvoker;
+
+    @Setup
+    public void setup() throws Exception {
+        switch (function) {
+            case STRING_TO_STRING -> {
+                instance = new StringToStringFunction();
+                method = StringToStringFunction.class.getDeclaredMethod("apply", String.class);
+                arguments = new Object[]{"benchmark"};
+            }
+            case INT -> {
+                instance = new IntFunction();
+                method = IntFunction.class.getDeclaredMethod("apply", int.class);
+                arguments = new Object[]{42};
+            }
+            case BI_POLY_CUSTOM -> {
+                instance = new BiPolyCustomIntegerBiConsumer();
+                PolyCustom polyCustom = new PolyCustom("benchmark", "benchmark", 200, "application/json");
+                for (Field field : BiPolyCustomIntegerBiConsumer.class.getDeclaredFields()) {
+                    field.setAccessible(true);
+                    field.set(instance, polyCustom);
+                }
+                method = BiPolyCustomIntegerBiConsumer.class.getDeclaredMethod("accept", Integer.class, String.class);
+                arguments = new Object[]{200, "application/json"};
+            }
+        }
+        reflectionInvoker = new ReflectionFunctionInvoker(method);
+        methodHandleInvoker = new MethodHandleFunctionInvoker(method);
+    }
+
+    @Benchmark
+    public Object legacyReflection() throws Exception {
+        return method.invoke(instance, Arrays.stream(arguments).toList().subList(0, min(method.getParameters().length, arguments.length)).toArray());
+    }
+
+    @Benchmark
+    public Object reflectionInvoker() throws Exception {
+        return reflectionInvoker.invoke(instance, arguments);
+    }
+
+    @Benchmark
+    public Object methodHandleInvoker() throws Exception {
+        return methodHandleInvoker.invoke(instance, arguments);
+    }
+}
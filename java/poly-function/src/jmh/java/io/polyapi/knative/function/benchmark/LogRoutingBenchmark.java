@@ -0,0 +1,92 @@
+package io.polyapi.knative.function.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import io.polyapi.knative.function.log.ExecutionContext;
+import io.polyapi.knative.function.log.PolyAppender;
+import io.polyapi.knative.function.log.PolyDefaultAppender;
+import io.polyapi.knative.function.log.PolyReverseAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-event cost of deciding where a log event goes: the {@link ExecutionContext} lookup done by the
+ * {@link PolyAppender}s against the former thread name prefix check, and a full event going through both appenders
+ * into a discarding output stream.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="LogRoutingBenchmark"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogRoutingBenchmark {
+    private static final String LEGACY_THREAD_PREFIX = "Poly-log-";
+
+    @Param({"true", "false"})
+    private boolean logsEnabled;
+
+    private LoggerContext loggerContext;
+    private Logger logger;
+    private ExecutionContext.Scope scope;
+
+    @Setup
+    public void setup() {
+        loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logger = loggerContext.getLogger(LogRoutingBenchmark.class);
+        logger.setAdditive(false);
+        logger.addAppender(createAppender(new PolyDefaultAppender()));
+        logger.addAppender(createAppender(new PolyReverseAppender()));
+        scope = new ExecutionContext("benchmark", logsEnabled).open();
+    }
+
+    @TearDown
+    public void tearDown() {
+        scope.close();
+        logger.detachAndStopAllAppenders();
+    }
+
+    private PolyAppender createAppender(PolyAppender appender) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{HH:mm:ss.SSS} [%thread] [%level] %msg%n");
+        encoder.start();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.start();
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        return appender;
+    }
+
+    @Benchmark
+    public boolean legacyThreadNameRouting() {
+        return Thread.currentThread().getName().startsWith(LEGACY_THREAD_PREFIX);
+    }
+
+    @Benchmark
+    public boolean contextRouting() {
+        return ExecutionContext.isPolyLoggingEnabled();
+    }
+
+    @Benchmark
+    public void routedEvent() {
+        logger.info("Executing function '{}'.", "benchmark");
+    }
+}
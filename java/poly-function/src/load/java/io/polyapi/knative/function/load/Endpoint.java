@@ -0,0 +1,38 @@
+package io.polyapi.knative.function.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.UUID;
+
+import static java.net.http.HttpRequest.BodyPublishers.ofByteArray;
+
+/**
+ * Endpoints of the function driven by the {@link LoadHarness}.
+ */
+public enum Endpoint {
+    INVOKE {
+        @Override
+        HttpRequest.Builder request(URI uri, byte[] body) {
+            return HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(ofByteArray(body));
+        }
+    },
+    TRIGGER {
+        @Override
+        HttpRequest.Builder request(URI uri, byte[] body) {
+            String id = UUID.randomUUID().toString();
+            return HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .header("ce-id", id)
+                    .header("ce-specversion", "1.0")
+                    .header("ce-source", "load-harness")
+                    .header("ce-type", "trigger.request")
+                    .header("ce-executionid", id)
+                    .header("ce-environment", "load-harness")
+                    .POST(ofByteArray(body));
+        }
+    };
+
+    abstract HttpRequest.Builder request(URI uri, byte[] body);
+}
@@ -0,0 +1,143 @@
+package io.polyapi.knative.function.load;
+
+import io.polyapi.knative.function.KNativeFunction;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * The function application running on its own JVM, so its latency and memory aren't mixed with the ones of the load
+ * generator. It runs on the classpath of the harness, which includes the mock functions of the tests.
+ */
+public class FunctionProcess implements AutoCloseable {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Process process;
+
+    @Getter
+    private final URI uri;
+
+    @Getter
+    private long startupMillis;
+
+    /**
+     * {@link System#nanoTime()} when the process was started.
+     */
+    @Getter
+    private long startNanos;
+
+    private FunctionProcess(Process process, URI uri) {
+        this.process = process;
+        this.uri = uri;
+    }
+
+    public static FunctionProcess start(LoadOptions options) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(javaCommand());
+        command.addAll(options.getJvmArgs());
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), KNativeFunction.class.getName(),
+                "--server.port=" + port,
+                "--polyapi.function.class=" + options.getFunctionClass(),
+                "--polyapi.function.method=" + options.getFunctionMethod(),
+                "--polyapi.function.params=" + options.getFunctionParams()));
+        options.getProperties().forEach(property -> command.add("--" + property));
+        Files.createDirectories(options.getOutput());
+        return start(command, Path.of("."), options.getOutput().resolve("function.log"), port);
+    }
+
+    /**
+     * Starts the function with a given command line and waits until it's healthy.
+     *
+     * @param command   The command line, which must make the function listen on the port.
+     * @param directory The working directory of the function.
+     * @param log       The file the output of the function is written to.
+     * @param port      The port the function listens on.
+     * @return FunctionProcess The healthy function.
+     */
+    public static FunctionProcess start(List<String> command, Path directory, Path log, int port) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        FunctionProcess result = new FunctionProcess(process, URI.create("http://localhost:" + port + "/"));
+        try {
+            result.awaitHealthy(start);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            result.close();
+            throw e;
+        }
+        result.startupMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        result.startNanos = start;
+        return result;
+    }
+
+    public static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    public static String javaCommand() {
+        return ProcessHandle.current().info().command().orElse("java");
+    }
+
+    private void awaitHealthy(long start) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(uri.resolve("/actuator/health")).timeout(Duration.ofSeconds(1)).build();
+        while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The function exited with code " + process.exitValue() + " while starting.");
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(20);
+        }
+        throw new IllegalStateException("The function didn't become healthy in " + STARTUP_TIMEOUT + ".");
+    }
+
+    /**
+     * Retrieves the resident set size of the function process.
+     *
+     * @return long The size in bytes, or -1 when it can't be read, as on systems without '/proc'.
+     */
+    public long getRssBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(process.pid()), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not available on this system.
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(10, SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
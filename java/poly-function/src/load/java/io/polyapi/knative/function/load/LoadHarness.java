@@ -0,0 +1,112 @@
+package io.polyapi.knative.function.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Boots the function on its own JVM with a mock function and drives its endpoints at fixed arrival rates with an
+ * {@link OpenLoadGenerator}. For every endpoint and rate it reports the throughput, the latency percentiles and the
+ * peak RSS of the function, and writes the full latency distribution as an HdrHistogram '.hgrm' file.
+ * <p>
+ * The results are written to a baseline file and compared against the previous one: a run whose p99 latency grows, or
+ * whose throughput drops, by more than the tolerance exits with status 1. Run with
+ * {@code ./mvnw -Pload test-compile exec:exec -Dload.args="--rates=200,1000 --duration=60"}. See {@link LoadOptions}
+ * for the available arguments.
+ */
+public class LoadHarness {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Getter
+    @AllArgsConstructor
+    public static class Baseline {
+        private final String createdAt;
+        private final String function;
+        private final String javaVersion;
+        private final int availableProcessors;
+        private final long startupMillis;
+        private final List<LoadResult> results;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        List<LoadResult> results = new ArrayList<>();
+        long startupMillis;
+        try (FunctionProcess function = FunctionProcess.start(options);
+             OpenLoadGenerator generator = new OpenLoadGenerator(function, options)) {
+            startupMillis = function.getStartupMillis();
+            System.out.printf("Function %s started in %d ms at %s.%n", options.getFunctionClass(), startupMillis, function.getUri());
+            System.out.printf("%-8s %7s %9s %9s %7s %10s %9s %9s %9s %9s %9s %9s%n", "endpoint", "rate", "sent", "ok/s", "errors", "unanswered", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "rss MB");
+            for (Endpoint endpoint : options.getEndpoints()) {
+                for (int rate : options.getRates()) {
+                    LoadResult result = generator.run(endpoint, rate);
+                    results.add(result);
+                    Map<String, Double> latency = result.getLatencyMillis();
+                    System.out.printf("%-8s %7d %9d %9.1f %7d %10d %9.2f %9.2f %9.2f %9.2f %9.2f %9.1f%n", result.getEndpoint(), rate, result.getSent(),
+                            result.getThroughput(), result.getErrors(), result.getUnanswered(), latency.get("p50"), latency.get("p90"),
+                            latency.get("p99"), latency.get("p99.9"), latency.get("max"), result.getPeakRssBytes() / 1048576.0);
+                }
+            }
+        }
+        boolean regressed = compare(options, results);
+        write(options, new Baseline(Instant.now().toString(), options.getFunctionClass(), System.getProperty("java.version"),
+                Runtime.getRuntime().availableProcessors(), startupMillis, results));
+        System.exit(regressed ? 1 : 0);
+    }
+
+    private static boolean compare(LoadOptions options, List<LoadResult> results) throws IOException {
+        if (!Files.exists(options.getBaseline())) {
+            System.out.printf("No baseline found at %s. This run becomes the baseline.%n", options.getBaseline());
+            return false;
+        }
+        Map<String, JsonNode> previous = new HashMap<>();
+        OBJECT_MAPPER.readTree(options.getBaseline().toFile()).path("results")
+                .forEach(result -> previous.put(result.path("endpoint").asText() + "@" + result.path("rate").asInt(), result));
+        boolean regressed = false;
+        System.out.printf("Comparison against %s (tolerance %.0f%%):%n", options.getBaseline(), options.getTolerance() * 100);
+        for (LoadResult result : results) {
+            JsonNode before = previous.get(result.getKey());
+            if (before == null) {
+                System.out.printf("  %-14s new%n", result.getKey());
+                continue;
+            }
+            double p99Before = before.path("latencyMillis").path("p99").asDouble();
+            double p99 = result.getLatencyMillis().get("p99");
+            double throughputBefore = before.path("throughput").asDouble();
+            boolean latencyRegressed = p99 > p99Before * (1 + options.getTolerance());
+            boolean throughputRegressed = result.getThroughput() < throughputBefore * (1 - options.getTolerance());
+            regressed |= latencyRegressed || throughputRegressed;
+            System.out.printf("  %-14s p99 %.2f -> %.2f ms (%+.1f%%), throughput %.1f -> %.1f ok/s (%+.1f%%)%s%n", result.getKey(),
+                    p99Before, p99, change(p99Before, p99), throughputBefore, result.getThroughput(), change(throughputBefore, result.getThroughput()),
+                    latencyRegressed || throughputRegressed ? " REGRESSION" : "");
+        }
+        return regressed;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    private static void write(LoadOptions options, Baseline baseline) throws IOException {
+        Path file = options.getBaseline();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        if (Files.exists(file)) {
+            Files.copy(file, file.resolveSibling(file.getFileName().toString().replace(".json", ".previous.json")), REPLACE_EXISTING);
+        }
+        OBJECT_MAPPER.writeValue(file.toFile(), baseline);
+        System.out.printf("Results written to %s.%n", file);
+    }
+}
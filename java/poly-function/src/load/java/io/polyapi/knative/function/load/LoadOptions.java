@@ -0,0 +1,84 @@
+package io.polyapi.knative.function.load;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of the {@link LoadHarness}, given as '--name=value' arguments.
+ */
+@Getter
+public class LoadOptions {
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("function", "io.polyapi.knative.function.mock.function.StringToStringFunction"),
+            Map.entry("method", "apply"),
+            Map.entry("params", "java.lang.String"),
+            Map.entry("endpoints", "invoke,trigger"),
+            Map.entry("rates", "100,500,1000"),
+            Map.entry("warmup", "10"),
+            Map.entry("duration", "30"),
+            Map.entry("timeout", "10"),
+            Map.entry("payload-bytes", "64"),
+            Map.entry("body", ""),
+            Map.entry("jvm-args", "-Xmx512m"),
+            Map.entry("properties", ""),
+            Map.entry("output", "target/load"),
+            Map.entry("baseline", "target/load/baseline.json"),
+            Map.entry("tolerance", "10"));
+
+    private final String functionClass;
+    private final String functionMethod;
+    private final String functionParams;
+    private final List<Endpoint> endpoints;
+    private final List<Integer> rates;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration timeout;
+    private final String body;
+    private final List<String> jvmArgs;
+    private final List<String> properties;
+    private final Path output;
+    private final Path baseline;
+    private final double tolerance;
+
+    private LoadOptions(Map<String, String> values) {
+        this.functionClass = values.get("function");
+        this.functionMethod = values.get("method");
+        this.functionParams = values.get("params");
+        this.endpoints = split(values.get("endpoints")).stream().map(endpoint -> Endpoint.valueOf(endpoint.toUpperCase())).toList();
+        this.rates = split(values.get("rates")).stream().map(Integer::valueOf).toList();
+        this.warmup = Duration.ofSeconds(Long.parseLong(values.get("warmup")));
+        this.duration = Duration.ofSeconds(Long.parseLong(values.get("duration")));
+        this.timeout = Duration.ofSeconds(Long.parseLong(values.get("timeout")));
+        this.body = values.get("body").isEmpty() ? "[\"" + "a".repeat(Integer.parseInt(values.get("payload-bytes"))) + "\"]" : values.get("body");
+        this.jvmArgs = split(values.get("jvm-args"), " ");
+        this.properties = split(values.get("properties"));
+        this.output = Path.of(values.get("output"));
+        this.baseline = Path.of(values.get("baseline"));
+        this.tolerance = Double.parseDouble(values.get("tolerance")) / 100;
+    }
+
+    public static LoadOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=") || !DEFAULTS.containsKey(arg.substring(2, arg.indexOf('=')))) {
+                throw new IllegalArgumentException("Unknown argument '" + arg + "'. Arguments are --name=value, with name in " + DEFAULTS.keySet() + ".");
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return new LoadOptions(values);
+    }
+
+    private static List<String> split(String value) {
+        return split(value, ",");
+    }
+
+    private static List<String> split(String value, String separator) {
+        return Arrays.stream(value.split(separator)).map(String::trim).filter(item -> !item.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,31 @@
+package io.polyapi.knative.function.load;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Outcome of driving one endpoint at one arrival rate. Latencies are in milliseconds, measured from the moment each
+ * request was due to be sent. Errors are responses with an error status, and unanswered requests are those that timed
+ * out or couldn't connect.
+ */
+@Getter
+@AllArgsConstructor
+public class LoadResult {
+    private final String endpoint;
+    private final int rate;
+    private final long sent;
+    private final long completed;
+    private final long errors;
+    private final long unanswered;
+    private final double throughput;
+    private final Map<String, Double> latencyMillis;
+    private final long peakRssBytes;
+
+    @JsonIgnore
+    public String getKey() {
+        return endpoint + "@" + rate;
+    }
+}
@@ -0,0 +1,146 @@
+package io.polyapi.knative.function.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Sends requests at a fixed arrival rate whatever the response times are (open model). Each latency is measured from
+ * the moment its request was due, not from when it was actually sent, so a stall of the function or of the generator
+ * shows up in the percentiles instead of silently lowering the load (coordinated omission).
+ */
+public class OpenLoadGenerator implements AutoCloseable {
+    private final FunctionProcess function;
+    private final LoadOptions options;
+    private final byte[] body;
+    private final ExecutorService clientExecutor;
+    private final HttpClient client;
+    private final ScheduledExecutorService rssSampler;
+
+    public OpenLoadGenerator(FunctionProcess function, LoadOptions options) {
+        this.function = function;
+        this.options = options;
+        this.body = options.getBody().getBytes(UTF_8);
+        this.clientExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Poly-load-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.getTimeout())
+                .executor(clientExecutor)
+                .build();
+        this.rssSampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Poly-load-rss");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Drives an endpoint at a rate, first for the warm-up, whose results are discarded, and then for the measurement.
+     *
+     * @param endpoint The endpoint.
+     * @param rate     The requests per second.
+     * @return LoadResult The result of the measurement.
+     */
+    public LoadResult run(Endpoint endpoint, int rate) throws IOException, InterruptedException {
+        drive(endpoint, rate, options.getWarmup(), new ConcurrentHistogram(3), new AtomicLong(), new AtomicLong());
+        Histogram histogram = new ConcurrentHistogram(3);
+        AtomicLong errors = new AtomicLong();
+        AtomicLong peakRss = new AtomicLong(function.getRssBytes());
+        ScheduledFuture<?> sampling = rssSampler.scheduleAtFixedRate(() -> peakRss.accumulateAndGet(function.getRssBytes(), Math::max), 100, 100, MILLISECONDS);
+        long start = System.nanoTime();
+        AtomicLong lastCompletion = new AtomicLong(start);
+        long sent;
+        try {
+            sent = drive(endpoint, rate, options.getDuration(), histogram, errors, lastCompletion);
+        } finally {
+            sampling.cancel(false);
+        }
+        writeDistribution(endpoint, rate, histogram);
+        long completed = histogram.getTotalCount();
+        double elapsedSeconds = Math.max(lastCompletion.get() - start, 1) / 1e9;
+        return new LoadResult(endpoint.name().toLowerCase(), rate, sent, completed, errors.get(), sent - completed,
+                completed / elapsedSeconds, toLatencyMillis(histogram), peakRss.get());
+    }
+
+    private long drive(Endpoint endpoint, int rate, Duration duration, Histogram histogram, AtomicLong errors, AtomicLong lastCompletion) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        AtomicLong inFlight = new AtomicLong();
+        long sent = 0;
+        for (long due = start; due < end; due = start + ++sent * interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long dueTime = due;
+            HttpRequest request = endpoint.request(function.getUri(), body).timeout(options.getTimeout()).build();
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long now = System.nanoTime();
+                if (error == null) {
+                    histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(now - dueTime));
+                    lastCompletion.accumulateAndGet(now, Math::max);
+                    if (response.statusCode() >= 400) {
+                        errors.incrementAndGet();
+                    }
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+        // Requests failing with a timeout or a connection error are left out of the histogram and reported apart.
+        long drainDeadline = System.nanoTime() + options.getTimeout().toNanos() * 2;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        return sent;
+    }
+
+    private void writeDistribution(Endpoint endpoint, int rate, Histogram histogram) throws IOException {
+        Path file = options.getOutput().resolve(endpoint.name().toLowerCase() + "-" + rate + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, UTF_8)) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static Map<String, Double> toLatencyMillis(Histogram histogram) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        result.put("mean", histogram.getMean() / 1000);
+        for (double percentile : new double[]{50, 90, 99, 99.9, 99.99}) {
+            result.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        result.put("max", histogram.getMaxValue() / 1000.0);
+        return result;
+    }
+
+    @Override
+    public void close() {
+        rssSampler.shutdownNow();
+        clientExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,97 @@
+package io.polyapi.knative.function.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Compares the startup of the function laid out by the 'cds' profile with and without its class data sharing archive.
+ * Every run starts a new JVM and measures the time from the process start until the health endpoint answers, and
+ * until the first invoke request succeeds. The runs with and without the archive alternate so both see the same
+ * machine noise. Run with
+ * {@code ./mvnw -Pcds package -DskipTests && ./mvnw -Pload test-compile exec:exec -Dload.main=io.polyapi.knative.function.load.StartupBenchmark -Dload.args="--runs=10"}.
+ * <p>
+ * Arguments are '--name=value': 'runs' per mode, 'directory' with the 'cds' layout, 'archive' and 'args' file names in
+ * it, and the invoke request 'body', which must be valid arguments for the function in the layout.
+ */
+public class StartupBenchmark {
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "runs", "5",
+            "directory", "target",
+            "archive", "application.jsa",
+            "args", "knative.function.args",
+            "body", "[\"startup\"]");
+    private static final Duration FIRST_INVOKE_TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=") || !DEFAULTS.containsKey(arg.substring(2, arg.indexOf('=')))) {
+                throw new IllegalArgumentException("Unknown argument '" + arg + "'. Arguments are --name=value, with name in " + DEFAULTS.keySet() + ".");
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        Path directory = Path.of(options.get("directory")).toAbsolutePath();
+        if (!Files.exists(directory.resolve(options.get("archive"))) || !Files.exists(directory.resolve(options.get("args")))) {
+            throw new IllegalStateException("No class data sharing layout found in " + directory + ". Build it with './mvnw -Pcds package'.");
+        }
+        int runs = Integer.parseInt(options.get("runs"));
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("default CDS", List.of());
+        modes.put("AppCDS", List.of("-XX:SharedArchiveFile=" + options.get("archive")));
+        Map<String, List<long[]>> results = new LinkedHashMap<>();
+        for (int run = 0; run < runs; run++) {
+            for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                long[] times = measure(directory, mode.getValue(), options.get("args"), options.get("body"));
+                results.computeIfAbsent(mode.getKey(), key -> new ArrayList<>()).add(times);
+                System.out.printf("Run %d %-12s ready in %5d ms, first invoke in %5d ms.%n", run + 1, mode.getKey(), times[0], times[1]);
+            }
+        }
+        System.out.printf("%n%-12s %12s %12s %12s %18s %18s %18s%n", "mode", "ready p50", "ready min", "ready max", "first invoke p50", "first invoke min", "first invoke max");
+        results.forEach((mode, times) -> {
+            long[] ready = times.stream().mapToLong(time -> time[0]).sorted().toArray();
+            long[] firstInvoke = times.stream().mapToLong(time -> time[1]).sorted().toArray();
+            System.out.printf("%-12s %9d ms %9d ms %9d ms %15d ms %15d ms %15d ms%n", mode, ready[ready.length / 2], ready[0], ready[ready.length - 1],
+                    firstInvoke[firstInvoke.length / 2], firstInvoke[0], firstInvoke[firstInvoke.length - 1]);
+        });
+    }
+
+    /**
+     * @return long[] The milliseconds from the process start until the function is ready and until its first invoke
+     * succeeds.
+     */
+    private static long[] measure(Path directory, List<String> jvmArgs, String argsFile, String body) throws Exception {
+        int port = FunctionProcess.freePort();
+        List<String> command = new ArrayList<>();
+        command.add(FunctionProcess.javaCommand());
+        command.addAll(jvmArgs);
+        command.addAll(Arrays.asList("@" + argsFile, "--server.port=" + port));
+        try (FunctionProcess function = FunctionProcess.start(command, directory, directory.resolve("startup-benchmark.log"), port)) {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest invoke = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long deadline = System.nanoTime() + FIRST_INVOKE_TIMEOUT.toNanos();
+            int status;
+            while ((status = client.send(invoke, HttpResponse.BodyHandlers.discarding()).statusCode()) >= 300) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IllegalStateException("The invoke requests kept failing with status " + status + ". Check the body.");
+                }
+            }
+            return new long[]{function.getStartupMillis(), NANOSECONDS.toMillis(System.nanoTime() - function.getStartNanos())};
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package io.polyapi.knative.function;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.polyapi.commons.internal.json.JacksonJsonParser;
+import io.polyapi.knative.function.aot.PolyFunctionRuntimeHints;
+import io.polyapi.knative.function.controller.binding.ArgumentBinder;
+import io.polyapi.knative.function.controller.binding.CloudEventReader;
+import io.polyapi.knative.function.model.InvocationPlan;
+import io.polyapi.knative.function.service.InvocationPlanFactory;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(PolyFunctionRuntimeHints.class)
 @Setter
 @Slf4j
 public class KNativeFunction {
@@ -20,4 +28,23 @@ public class KNativeFunction {
     public JacksonJsonParser objectMapper() {
         return new JacksonJsonParser();
     }
+
+    @Bean
+    public InvocationPlan invocationPlan(InvocationPlanFactory invocationPlanFactory) {
+        return invocationPlanFactory.create();
+    }
+
+    /**
+     * The arguments are bound with a plain {@link ObjectMapper}, like the {@link JacksonJsonParser} binds them, rather
+     * than with the one of the application, so arguments with unknown properties are still rejected.
+     */
+    @Bean
+    public ArgumentBinder argumentBinder(InvocationPlan invocationPlan) {
+        return new ArgumentBinder(invocationPlan, new ObjectMapper());
+    }
+
+    @Bean
+    public CloudEventReader cloudEventReader(ArgumentBinder argumentBinder, ObjectMapper objectMapper) {
+        return new CloudEventReader(argumentBinder, objectMapper);
+    }
 }
@@ -0,0 +1,29 @@
+package io.polyapi.knative.function.aot;
+
+import io.polyapi.knative.function.model.InvocationPlan;
+import io.polyapi.knative.function.service.InvocationPlanFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * Resolves the function configured in the 'polyapi.function.*' properties during the AOT processing of the native
+ * build, and contributes its {@link FunctionRuntimeHints}. The properties must therefore be set at build time, and hold
+ * the same values at runtime. The build fails if the function can't be resolved.
+ */
+@Slf4j
+public class FunctionHintsAotProcessor implements BeanFactoryInitializationAotProcessor {
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        InvocationPlan plan;
+        try {
+            plan = beanFactory.getBean(InvocationPlanFactory.class).create();
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("The function couldn't be resolved at build time, so the native image wouldn't be able to run it. Please review the 'polyapi.function.*' properties.", e);
+        }
+        log.info("Registering native image hints for function {}.", plan);
+        return (generationContext, beanFactoryInitializationCode) -> FunctionRuntimeHints.registerHints(generationContext.getRuntimeHints(), plan);
+    }
+}
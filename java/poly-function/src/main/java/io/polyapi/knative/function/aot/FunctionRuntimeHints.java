@@ -0,0 +1,91 @@
+package io.polyapi.knative.function.aot;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.model.InvocationPlan;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Registers what a native image needs to run the function of an {@link InvocationPlan}, whose class, method and
+ * parameter types are only known as strings until the application starts: the function class and its constructors,
+ * the function method, the {@link PolyCustom} fields and setters of the class and its superclasses, and the Jackson
+ * binding of the parameter and return types with all the types reachable from them.
+ */
+public class FunctionRuntimeHints {
+    private static final BindingReflectionHintsRegistrar BINDING_REGISTRAR = new BindingReflectionHintsRegistrar();
+
+    private FunctionRuntimeHints() {
+        // Utility class.
+    }
+
+    /**
+     * Registers the hints of the function of a plan.
+     *
+     * @param hints The hints to register into.
+     * @param plan  The resolved plan of the function.
+     */
+    public static void registerHints(RuntimeHints hints, InvocationPlan plan) {
+        Class<?> functionClass = plan.getFunctionClass();
+        hints.reflection().registerType(functionClass, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INTROSPECT_PUBLIC_METHODS, MemberCategory.INTROSPECT_DECLARED_METHODS);
+        hints.reflection().registerMethod(plan.getMethod(), ExecutableMode.INVOKE);
+        for (Class<?> clazz = functionClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.getType().equals(PolyCustom.class)) {
+                    hints.reflection().registerField(field);
+                }
+            }
+        }
+        for (Method method : functionClass.getMethods()) {
+            if (method.getName().startsWith("set") && method.getParameterCount() == 1 && method.getParameterTypes()[0].equals(PolyCustom.class)) {
+                hints.reflection().registerMethod(method, ExecutableMode.INVOKE);
+            }
+        }
+        List<Type> boundTypes = new ArrayList<>(plan.getParameterTypes());
+        boundTypes.add(plan.getMethod().getGenericReturnType());
+        Set<Class<?>> seen = new HashSet<>();
+        boundTypes.forEach(type -> registerBinding(hints, type, seen));
+    }
+
+    /**
+     * Registers the Jackson binding of a type. Spring registers the bean properties and follows their types, and the
+     * fields are followed here too, as Jackson also binds public and annotated fields.
+     */
+    private static void registerBinding(RuntimeHints hints, Type type, Set<Class<?>> seen) {
+        if (type instanceof ParameterizedType parameterizedType) {
+            registerBinding(hints, parameterizedType.getRawType(), seen);
+            Arrays.stream(parameterizedType.getActualTypeArguments()).forEach(argument -> registerBinding(hints, argument, seen));
+        } else if (type instanceof GenericArrayType arrayType) {
+            registerBinding(hints, arrayType.getGenericComponentType(), seen);
+        } else if (type instanceof WildcardType wildcardType) {
+            Arrays.stream(wildcardType.getUpperBounds()).forEach(bound -> registerBinding(hints, bound, seen));
+        } else if (type instanceof Class<?> clazz && seen.add(clazz)) {
+            if (clazz.isArray()) {
+                registerBinding(hints, clazz.getComponentType(), seen);
+            } else if (!clazz.isPrimitive() && !clazz.getName().startsWith("java.")) {
+                BINDING_REGISTRAR.registerReflectionHints(hints.reflection(), clazz);
+                for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+                    for (Field field : current.getDeclaredFields()) {
+                        if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                            registerBinding(hints, field.getGenericType(), seen);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
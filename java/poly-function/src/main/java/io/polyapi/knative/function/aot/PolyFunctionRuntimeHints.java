@@ -0,0 +1,38 @@
+package io.polyapi.knative.function.aot;
+
+import io.polyapi.knative.function.controller.dto.BatchItemResult;
+import io.polyapi.knative.function.controller.dto.JvmMetrics;
+import io.polyapi.knative.function.controller.dto.Metrics;
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import io.polyapi.knative.function.error.PolyFunctionError;
+import io.polyapi.knative.function.log.AsyncPolyAppender;
+import io.polyapi.knative.function.log.LogCaptureAppender;
+import io.polyapi.knative.function.log.OverflowPolicy;
+import io.polyapi.knative.function.log.PolyDefaultAppender;
+import io.polyapi.knative.function.log.PolyReverseAppender;
+import io.polyapi.knative.function.model.CapturedLogs;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Hints for the parts of the function runtime that a native image can't discover on its own: the response bodies
+ * serialized by Jackson, the appenders instantiated by the logback configuration and the virtual thread executor looked
+ * up on Java 21.
+ */
+public class PolyFunctionRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                TriggerEventResult.class, Metrics.class, JvmMetrics.class, CapturedLogs.class, BatchItemResult.class, PolyFunctionError.class);
+        List.of(PolyDefaultAppender.class, PolyReverseAppender.class, AsyncPolyAppender.class, LogCaptureAppender.class, OverflowPolicy.class)
+                .forEach(type -> hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+        hints.reflection().registerType(Executors.class, builder -> builder.withMethod("newVirtualThreadPerTaskExecutor", List.of(), ExecutableMode.INVOKE));
+    }
+}
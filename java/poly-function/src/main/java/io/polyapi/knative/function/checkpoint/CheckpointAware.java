@@ -0,0 +1,19 @@
+package io.polyapi.knative.function.checkpoint;
+
+/**
+ * Component that owns threads which must not be part of a checkpoint of the JVM. The threads are released before the
+ * checkpoint and created again after the restore, so pools sized from the machine are sized from the one the function
+ * is restored on.
+ */
+public interface CheckpointAware {
+
+    /**
+     * Stops the threads of the component, waiting for the work in progress to finish.
+     */
+    void beforeCheckpoint();
+
+    /**
+     * Creates the threads of the component again.
+     */
+    void afterRestore();
+}
@@ -0,0 +1,73 @@
+package io.polyapi.knative.function.checkpoint;
+
+import io.polyapi.knative.function.controller.delivery.AsyncTriggerDelivery;
+import io.polyapi.knative.function.log.AsyncPolyAppender;
+import io.polyapi.knative.function.service.admission.AdmissionGate;
+import io.polyapi.knative.function.service.execution.ExecutionEngine;
+import io.polyapi.knative.function.service.instance.FunctionInstanceProviderRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Coordinated Restore at Checkpoint resource that releases the threads of the function before a checkpoint of the JVM
+ * and creates them again after the restore: the execution engine, the trigger result deliveries, the instance pools, the
+ * admission queue timeouts and the log writers.
+ * <p>
+ * The HTTP server is stopped and started again by Spring, which handles its lifecycle beans from a resource registered
+ * once the context is refreshed. As resources are notified in reverse order of registration before a checkpoint, and in
+ * order of registration after a restore, the server stops before this resource releases the threads and starts once
+ * they are available again.
+ */
+@Slf4j
+@Setter
+@Component
+public class CheckpointRestoreResource implements Resource {
+
+    @Autowired
+    private ExecutionEngine executionEngine;
+
+    @Autowired
+    private AsyncTriggerDelivery asyncTriggerDelivery;
+
+    @Autowired
+    private AdmissionGate admissionGate;
+
+    @Autowired
+    private FunctionInstanceProviderRegistry instanceProviderRegistry;
+
+    @PostConstruct
+    public void register() {
+        Core.getGlobalContext().register(this);
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        log.info("Releasing function threads before checkpoint.");
+        // Running executions are drained before the pools and the queue timeouts they may still need are stopped.
+        getComponents().forEach(CheckpointAware::beforeCheckpoint);
+        AsyncPolyAppender.suspendAll();
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        AsyncPolyAppender.resumeAll();
+        getComponents().forEach(CheckpointAware::afterRestore);
+        log.info("Function threads restarted after restore.");
+    }
+
+    private List<CheckpointAware> getComponents() {
+        return Stream.of(executionEngine, asyncTriggerDelivery, instanceProviderRegistry, admissionGate)
+                .filter(CheckpointAware.class::isInstance)
+                .map(CheckpointAware.class::cast)
+                .toList();
+    }
+}
@@ -0,0 +1,57 @@
+package io.polyapi.knative.function.checkpoint;
+
+import io.polyapi.knative.function.warmup.WarmUpClient;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.crac.CheckpointException;
+import org.crac.Core;
+import org.crac.RestoreException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Build mode that takes a checkpoint of a warmed up function. Once the application is ready, the sample body is sent
+ * through the {@link WarmUpClient} for the configured number of invocations, so the request handling path is loaded
+ * and compiled, and then a checkpoint of the JVM is requested. The JVM must run with '-XX:CRaCCheckpointTo'. When the
+ * function is restored from the checkpoint it resumes from here, already serving requests.
+ * <p>
+ * Enabled with 'polyapi.function.checkpoint.enabled'. The sample body is set with
+ * 'polyapi.function.checkpoint.warm-up.body' and must be valid arguments for the function, as its executions run for
+ * real. Without a body the checkpoint is taken right after startup.
+ */
+@Slf4j
+@Setter
+@Component
+public class WarmUpCheckpoint implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Value("${polyapi.function.checkpoint.enabled:false}")
+    private boolean enabled;
+
+    @Value("${polyapi.function.checkpoint.warm-up.invocations:1000}")
+    private int invocations;
+
+    @Value("${polyapi.function.checkpoint.warm-up.body:}")
+    private String body;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!body.isBlank() && event.getApplicationContext() instanceof WebServerApplicationContext context) {
+            new WarmUpClient(context.getWebServer().getPort()).warmUp(body, invocations);
+        }
+        log.info("Taking checkpoint.");
+        try {
+            Core.checkpointRestore();
+        } catch (CheckpointException | RestoreException e) {
+            throw new IllegalStateException("Couldn't checkpoint and restore the function.", e);
+        } catch (UnsupportedOperationException e) {
+            throw new IllegalStateException("Checkpoints are not supported by this JVM. A JDK with CRaC support is required.", e);
+        }
+        log.info("Function restored from checkpoint.");
+    }
+}
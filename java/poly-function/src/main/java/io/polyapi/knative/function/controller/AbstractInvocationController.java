@@ -0,0 +1,282 @@
+package io.polyapi.knative.function.controller;
+
+import io.polyapi.commons.api.error.parse.JsonToObjectParsingException;
+import io.polyapi.knative.function.controller.binding.ArgumentBinder;
+import io.polyapi.knative.function.controller.delivery.AsyncTriggerDelivery;
+import io.polyapi.knative.function.controller.dto.JvmMetrics;
+import io.polyapi.knative.function.controller.dto.Metrics;
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import io.polyapi.knative.function.controller.streaming.StreamingResponseWriter;
+import io.polyapi.knative.function.error.PolyFunctionError;
+import io.polyapi.knative.function.error.PolyKNativeFunctionException;
+import io.polyapi.knative.function.error.function.execution.UnexpectedFunctionExecutionException;
+import io.polyapi.knative.function.metrics.InvocationEndpoint;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import io.polyapi.knative.function.metrics.JvmActivity;
+import io.polyapi.knative.function.model.InvocationPlan;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.InvocationService;
+import io.polyapi.knative.function.service.StreamedResult;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static io.polyapi.knative.function.metrics.InvocationPhase.BIND;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.springframework.http.HttpHeaders.CONTENT_LENGTH;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+
+/**
+ * Common parts of the controllers that expose the function: the dependencies, the mapping of the
+ * {@link InvocationResult} into the HTTP response and the error handling.
+ */
+@Slf4j
+@Setter
+public abstract class AbstractInvocationController {
+    protected static final String TYPE_HEADER = "ce-type";
+
+    @Value("${polyapi.function.id:}")
+    protected String functionId;
+
+    @Autowired
+    protected ArgumentBinder argumentBinder;
+
+    @Autowired
+    protected InvocationService invocationService;
+
+    @Autowired
+    protected InvocationPlan invocationPlan;
+
+    @Autowired
+    protected StreamingResponseWriter streamingResponseWriter;
+
+    @Autowired
+    protected AsyncTriggerDelivery asyncTriggerDelivery;
+
+    /**
+     * Starts the timings of the request and leaves them in the request for the
+     * {@link io.polyapi.knative.function.metrics.InvocationMetricsFilter} to record once the response is written.
+     *
+     * @param endpoint The endpoint invoked.
+     * @return InvocationTimings The timings of the request.
+     */
+    protected InvocationTimings startTimings(InvocationEndpoint endpoint) {
+        InvocationTimings timings = new InvocationTimings(endpoint);
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(InvocationTimings.REQUEST_ATTRIBUTE, timings, SCOPE_REQUEST);
+        }
+        return timings;
+    }
+
+    protected Object[] bind(InputStream requestBody, InvocationTimings timings) {
+        long start = System.nanoTime();
+        try {
+            return argumentBinder.bind(requestBody);
+        } finally {
+            timings.recordSince(BIND, start);
+        }
+    }
+
+    /**
+     * Adds the timings of the execution to the ones of the request, which from then on measure the writing of the
+     * response.
+     */
+    protected InvocationResult handled(InvocationResult invocationResult, InvocationTimings timings) {
+        timings.merge(invocationResult.getTimings());
+        timings.markHandled();
+        return invocationResult;
+    }
+
+    protected ResponseEntity<?> toInvokeResponse(InvocationResult methodResult, String accept) {
+        Object data = methodResult.getData().orElse("");
+        if (data instanceof StreamedResult streamedResult) {
+            return streamingResponseWriter.toResponse(methodResult.getMetadata(), streamedResult, accept);
+        }
+        return ResponseEntity.status(methodResult.getMetadata().getResponseStatusCode())
+                .header(CONTENT_TYPE, methodResult.getMetadata().getResponseContentType())
+                .body(data);
+    }
+
+    /**
+     * Reads the items of a streamed result, so it can be embedded in a response other than the one of the invocation.
+     *
+     * @param invocationResult The result of the execution.
+     * @return InvocationResult The result holding the list of items, or the same result if it wasn't streamed.
+     */
+    protected InvocationResult collected(InvocationResult invocationResult) {
+        return await(StreamedResult.collected(invocationResult));
+    }
+
+    /**
+     * Waits for a future, throwing the exception it failed with as it is.
+     *
+     * @param future The future to wait for.
+     * @param <T>    The type of the value of the future.
+     * @return T The value of the future.
+     */
+    protected <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    protected ResponseEntity<TriggerEventResult> toTriggerResponse(HttpHeaders headers, String environmentId, Long start, JvmActivity startActivity, InvocationTimings timings, InvocationResult invocationResult) {
+        return toTriggerResponse(headers, new TriggerEventResult(invocationResult.getMetadata().getResponseStatusCode(),
+                invocationResult.getMetadata().getExecutionId(),
+                functionId,
+                environmentId,
+                invocationResult.getMetadata().getResponseContentType(),
+                toMetrics(start, startActivity, timings),
+                invocationResult.getData().orElse(""),
+                invocationResult.getLogs()));
+    }
+
+    private ResponseEntity<TriggerEventResult> toTriggerResponse(HttpHeaders headers, TriggerEventResult body) {
+        log.debug("Handling response.");
+        ResponseEntity<TriggerEventResult> result = ResponseEntity.ok()
+                .headers(headers)
+                .headers(outputHeaders -> {
+                    outputHeaders.remove(CONTENT_LENGTH);
+                    outputHeaders.remove(CONTENT_LENGTH.toLowerCase());
+                    outputHeaders.remove(TYPE_HEADER);
+                    outputHeaders.remove(CONTENT_TYPE);
+                })
+                .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                .header(TYPE_HEADER, "trigger.response")
+                .body(body);
+        log.trace("Response headers are:\n");
+        result.getHeaders().forEach((key, value) -> log.trace("    \"{}\": \"{}\"", key, value));
+        log.debug("Response handled successfully.");
+        return result;
+    }
+
+    /**
+     * Accepts a trigger to be answered asynchronously. The execution is started and, once admitted, its
+     * 'trigger.response' event, with the result or the error the execution failed with, is delivered through the
+     * {@link AsyncTriggerDelivery} once it finishes.
+     *
+     * @return CompletableFuture The future completed with the 202 response once the execution is admitted, or
+     * exceptionally with the {@link io.polyapi.knative.function.error.function.admission.AdmissionException} it was
+     * rejected with, so the trigger is answered with the rejection.
+     */
+    protected CompletableFuture<ResponseEntity<TriggerEventResult>> acceptTrigger(HttpHeaders headers, String environmentId, String executionId, boolean logsEnabled, Object[] arguments, Long start, JvmActivity startActivity, InvocationTimings timings) {
+        InvocationTimings executionTimings = new InvocationTimings();
+        executionTimings.merge(timings);
+        AsyncTriggerDelivery.PendingResult pendingResult = asyncTriggerDelivery.reserve();
+        return invocationService.startFunctionAsync(invocationPlan, arguments, logsEnabled, executionId)
+                .whenComplete((execution, error) -> {
+                    if (error != null) {
+                        asyncTriggerDelivery.cancel(pendingResult);
+                    }
+                })
+                .thenApply(execution -> {
+                    asyncTriggerDelivery.deliver(pendingResult, execution.thenCompose(StreamedResult::collected)
+                            .handle((invocationResult, error) -> {
+                                if (error != null) {
+                                    PolyFunctionError errorObject = toErrorObject(error);
+                                    return toTriggerResponse(headers, new TriggerEventResult(errorObject.getStatusCode(), executionId, functionId, environmentId, APPLICATION_JSON_VALUE,
+                                            toMetrics(start, startActivity, executionTimings), null, null, errorObject));
+                                }
+                                executionTimings.merge(invocationResult.getTimings());
+                                return toTriggerResponse(headers, environmentId, start, startActivity, executionTimings, invocationResult);
+                            }));
+                    timings.markHandled();
+                    return ResponseEntity.accepted().build();
+                });
+    }
+
+    /**
+     * @return boolean True if the triggers are accepted right away and their results delivered to a sink.
+     */
+    protected boolean isAsyncTrigger() {
+        return asyncTriggerDelivery != null && asyncTriggerDelivery.isEnabled();
+    }
+
+    protected Metrics toMetrics(Long start, JvmActivity startActivity, InvocationTimings timings) {
+        JvmActivity activity = JvmActivity.snapshot().since(startActivity);
+        return new Metrics(start,
+                System.currentTimeMillis(),
+                timings.getRecordedPhases(),
+                timings.isColdStart(),
+                new JvmMetrics(JvmActivity.uptimeMillis(), activity.getGcTimeMillis(), activity.getCompilationTimeMillis(), activity.getLoadedClassCount()));
+    }
+
+    /**
+     * Runs a number of items, with at most the given number of them running at the same time. Each item is started
+     * once a previous one completes, and the failure of an item doesn't stop the rest.
+     *
+     * @param count       The number of items.
+     * @param parallelism The maximum number of items running at the same time.
+     * @param item        Starts the item of an index, returning a future completed when it's done.
+     * @return CompletableFuture The future completed once every item is done.
+     */
+    protected static CompletableFuture<Void> runAll(int count, int parallelism, IntFunction<CompletableFuture<?>> item) {
+        AtomicInteger next = new AtomicInteger();
+        return CompletableFuture.allOf(IntStream.range(0, min(max(parallelism, 1), count))
+                .mapToObj(worker -> runNext(count, item, next))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private static CompletableFuture<Void> runNext(int count, IntFunction<CompletableFuture<?>> item, AtomicInteger next) {
+        int index;
+        while ((index = next.getAndIncrement()) < count) {
+            CompletableFuture<?> result = item.apply(index);
+            // Items that complete synchronously are chained in the loop rather than recursively, to keep the stack flat.
+            if (!result.isDone()) {
+                return result.handle((value, error) -> null).thenCompose(done -> runNext(count, item, next));
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Converts the failure of an execution that is reported inside the response, rather than as the response status.
+     *
+     * @param error The failure, possibly wrapped in a {@link CompletionException}.
+     * @return PolyFunctionError The error to report.
+     */
+    protected PolyFunctionError toErrorObject(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        log.error(cause.getMessage(), cause);
+        if (cause instanceof PolyKNativeFunctionException exception) {
+            return exception.toErrorObject();
+        } else if (cause instanceof JsonToObjectParsingException) {
+            return new PolyFunctionError(BAD_REQUEST.value(), cause.getMessage());
+        } else {
+            return new UnexpectedFunctionExecutionException(cause).toErrorObject();
+        }
+    }
+
+    @ExceptionHandler(PolyKNativeFunctionException.class)
+    public ResponseEntity<PolyFunctionError> handleException(PolyKNativeFunctionException exception) {
+        log.error(exception.getMessage(), exception);
+        return ResponseEntity.status(exception.getStatusCode()).body(exception.toErrorObject());
+    }
+
+    @ExceptionHandler({JsonToObjectParsingException.class, HttpMessageNotReadableException.class})
+    public ResponseEntity<PolyFunctionError> handleParsingException(RuntimeException exception) {
+        log.error(exception.getMessage(), exception);
+        return ResponseEntity.badRequest().body(new PolyFunctionError(BAD_REQUEST.value(), exception.getMessage()));
+    }
+}
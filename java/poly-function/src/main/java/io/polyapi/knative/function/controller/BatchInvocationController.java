@@ -0,0 +1,81 @@
+package io.polyapi.knative.function.controller;
+
+import io.polyapi.knative.function.controller.dto.BatchItemResult;
+import io.polyapi.knative.function.error.PolyFunctionError;
+import io.polyapi.knative.function.metrics.InvocationEndpoint;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.StreamedResult;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static io.polyapi.knative.function.metrics.InvocationPhase.BIND;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Runs several executions of the function in a single request. The body is an array whose items are the payloads
+ * accepted by the invoke endpoint. Up to 'polyapi.function.batch.parallelism' items run at the same time, each of them
+ * going through the admission control on its own. The response holds one result per item, in the order of the
+ * request, and a failed item doesn't stop the rest.
+ */
+@Slf4j
+@Setter
+@RestController
+public class BatchInvocationController extends AbstractInvocationController {
+
+    @Value("${polyapi.function.batch.parallelism:4}")
+    private int parallelism;
+
+    @PostMapping(path = "/batch", consumes = APPLICATION_JSON_VALUE)
+    public CompletableFuture<List<BatchItemResult>> invokeBatch(@RequestHeader(name = "x-poly-do-log", required = false, defaultValue = "false") boolean logsEnabled,
+                                                                @RequestHeader(name = "x-poly-execution-id", required = false, defaultValue = "") String executionId,
+                                                                InputStream requestBody) {
+        log.info("Poly logs are {}enabled for this function execution.", logsEnabled ? "" : "not ");
+        InvocationTimings timings = startTimings(InvocationEndpoint.BATCH);
+        long bindStart = System.nanoTime();
+        List<Supplier<Object[]>> payloads = argumentBinder.bindBatch(requestBody);
+        timings.recordSince(BIND, bindStart);
+        log.debug("Executing a batch of {} items with a parallelism of {}.", payloads.size(), parallelism);
+        BatchItemResult[] results = new BatchItemResult[payloads.size()];
+        return runAll(payloads.size(), parallelism, index -> {
+            String itemExecutionId = executionId.isEmpty() ? executionId : executionId + "-" + index;
+            return invokeItem(payloads.get(index), logsEnabled, itemExecutionId)
+                    .handle((invocationResult, error) -> results[index] = error == null ? toItemResult(invocationResult) : toItemResult(itemExecutionId, error));
+        }).thenApply(done -> {
+            timings.markHandled();
+            return Arrays.asList(results);
+        });
+    }
+
+    private CompletableFuture<InvocationResult> invokeItem(Supplier<Object[]> payload, boolean logsEnabled, String executionId) {
+        try {
+            return invocationService.invokeFunctionAsync(invocationPlan, payload.get(), logsEnabled, executionId)
+                    .thenCompose(StreamedResult::collected);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private BatchItemResult toItemResult(InvocationResult invocationResult) {
+        return new BatchItemResult(invocationResult.getMetadata().getResponseStatusCode(),
+                invocationResult.getMetadata().getExecutionId(),
+                invocationResult.getMetadata().getResponseContentType(),
+                invocationResult.getData().orElse(""),
+                null);
+    }
+
+    private BatchItemResult toItemResult(String executionId, Throwable error) {
+        PolyFunctionError errorObject = toErrorObject(error);
+        return new BatchItemResult(errorObject.getStatusCode(), executionId, APPLICATION_JSON_VALUE, null, errorObject);
+    }
+}
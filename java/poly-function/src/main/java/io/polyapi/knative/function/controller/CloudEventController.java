@@ -0,0 +1,140 @@
+package io.polyapi.knative.function.controller;
+
+import io.polyapi.knative.function.controller.binding.CloudEventReader;
+import io.polyapi.knative.function.controller.binding.StructuredCloudEvent;
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import io.polyapi.knative.function.error.PolyFunctionError;
+import io.polyapi.knative.function.metrics.InvocationEndpoint;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import io.polyapi.knative.function.metrics.JvmActivity;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.StreamedResult;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.polyapi.knative.function.controller.binding.CloudEventReader.BATCH_CONTENT_TYPE;
+import static io.polyapi.knative.function.controller.binding.CloudEventReader.STRUCTURED_CONTENT_TYPE;
+import static io.polyapi.knative.function.controller.binding.StructuredCloudEvent.DATA_CONTENT_TYPE;
+import static io.polyapi.knative.function.metrics.InvocationPhase.BIND;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Trigger endpoint for CloudEvents in structured content mode, where the context attributes travel in the body next
+ * to the data instead of as 'ce-' headers. A single event ('application/cloudevents+json') is answered like a binary
+ * mode trigger. A batch ('application/cloudevents-batch+json') runs its events with up to
+ * 'polyapi.function.batch.parallelism' of them at the same time, each going through the admission control on its
+ * own, and is answered with an array of {@link TriggerEventResult}s in the order of the request. Every result carries
+ * the metrics of its own event, and a failed event is reported in its result without stopping the rest.
+ */
+@Slf4j
+@Setter
+@RestController
+public class CloudEventController extends AbstractInvocationController {
+    private static final String HEADER_PREFIX = "ce-";
+
+    @Value("${polyapi.function.batch.parallelism:4}")
+    private int parallelism;
+
+    @Autowired
+    private CloudEventReader cloudEventReader;
+
+    @PostMapping(consumes = STRUCTURED_CONTENT_TYPE)
+    public CompletableFuture<ResponseEntity<TriggerEventResult>> trigger(@RequestHeader(name = "x-poly-do-log", required = false, defaultValue = "false") boolean logsEnabled,
+                                                                         InputStream requestBody) {
+        log.info("Poly logs are {}enabled for this function execution.", logsEnabled ? "" : "not ");
+        Long start = System.currentTimeMillis();
+        JvmActivity startActivity = JvmActivity.snapshot();
+        InvocationTimings timings = startTimings(InvocationEndpoint.TRIGGER);
+        long bindStart = System.nanoTime();
+        StructuredCloudEvent event;
+        Object[] arguments;
+        try {
+            event = cloudEventReader.read(requestBody);
+            arguments = event.getArguments().get();
+        } finally {
+            timings.recordSince(BIND, bindStart);
+        }
+        if (isAsyncTrigger()) {
+            return acceptTrigger(toHeaders(event), event.getEnvironmentId(), event.getExecutionId(), logsEnabled, arguments, start, startActivity, timings);
+        }
+        return invocationService.invokeFunctionAsync(invocationPlan, arguments, logsEnabled, event.getExecutionId())
+                .thenCompose(StreamedResult::collected)
+                .thenApply(invocationResult -> toTriggerResponse(toHeaders(event), event.getEnvironmentId(), start, startActivity, timings, handled(invocationResult, timings)));
+    }
+
+    @PostMapping(consumes = BATCH_CONTENT_TYPE)
+    public CompletableFuture<List<TriggerEventResult>> triggerBatch(@RequestHeader(name = "x-poly-do-log", required = false, defaultValue = "false") boolean logsEnabled,
+                                                                    InputStream requestBody) {
+        log.info("Poly logs are {}enabled for this function execution.", logsEnabled ? "" : "not ");
+        InvocationTimings timings = startTimings(InvocationEndpoint.TRIGGER_BATCH);
+        long bindStart = System.nanoTime();
+        List<StructuredCloudEvent> events = cloudEventReader.readBatch(requestBody);
+        timings.recordSince(BIND, bindStart);
+        log.debug("Executing a batch of {} CloudEvents with a parallelism of {}.", events.size(), parallelism);
+        TriggerEventResult[] results = new TriggerEventResult[events.size()];
+        return runAll(events.size(), parallelism, index -> runEvent(events.get(index), logsEnabled)
+                .thenAccept(result -> results[index] = result))
+                .thenApply(done -> {
+                    timings.markHandled();
+                    return Arrays.asList(results);
+                });
+    }
+
+    private CompletableFuture<TriggerEventResult> runEvent(StructuredCloudEvent event, boolean logsEnabled) {
+        Long start = System.currentTimeMillis();
+        JvmActivity startActivity = JvmActivity.snapshot();
+        InvocationTimings timings = new InvocationTimings();
+        long bindStart = System.nanoTime();
+        CompletableFuture<InvocationResult> invocation;
+        try {
+            Object[] arguments = event.getArguments().get();
+            timings.recordSince(BIND, bindStart);
+            invocation = invocationService.invokeFunctionAsync(invocationPlan, arguments, logsEnabled, event.getExecutionId())
+                    .thenCompose(StreamedResult::collected);
+        } catch (RuntimeException e) {
+            invocation = CompletableFuture.failedFuture(e);
+        }
+        return invocation.handle((invocationResult, error) -> {
+            if (error != null) {
+                PolyFunctionError errorObject = toErrorObject(error);
+                return new TriggerEventResult(errorObject.getStatusCode(), event.getExecutionId(), functionId, event.getEnvironmentId(), APPLICATION_JSON_VALUE,
+                        toMetrics(start, startActivity, timings), null, null, errorObject);
+            }
+            timings.merge(invocationResult.getTimings());
+            return new TriggerEventResult(invocationResult.getMetadata().getResponseStatusCode(),
+                    invocationResult.getMetadata().getExecutionId(),
+                    functionId,
+                    event.getEnvironmentId(),
+                    invocationResult.getMetadata().getResponseContentType(),
+                    toMetrics(start, startActivity, timings),
+                    invocationResult.getData().orElse(""),
+                    invocationResult.getLogs());
+        });
+    }
+
+    /**
+     * The context attributes of the event as the 'ce-' headers they would be in binary mode, so the response carries
+     * them like the one of a binary mode trigger. The data content type is the content type header in binary mode.
+     */
+    private HttpHeaders toHeaders(StructuredCloudEvent event) {
+        HttpHeaders headers = new HttpHeaders();
+        event.getAttributes().forEach((name, value) -> {
+            if (!DATA_CONTENT_TYPE.equals(name)) {
+                headers.add(HEADER_PREFIX + name, value);
+            }
+        });
+        return headers;
+    }
+}
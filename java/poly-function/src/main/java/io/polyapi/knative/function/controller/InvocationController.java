@@ -1,79 +1,35 @@
 package io.polyapi.knative.function.controller;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import io.polyapi.commons.api.error.parse.JsonToObjectParsingException;
-import io.polyapi.commons.api.json.JsonParser;
-import io.polyapi.knative.function.controller.dto.Metrics;
 import io.polyapi.knative.function.controller.dto.TriggerEventResult;
-import io.polyapi.knative.function.error.PolyFunctionError;
-import io.polyapi.knative.function.error.PolyKNativeFunctionException;
-import io.polyapi.knative.function.error.function.state.ExecutionMethodNotFoundException;
-import io.polyapi.knative.function.error.function.state.InvalidArgumentTypeException;
-import io.polyapi.knative.function.error.function.state.PolyFunctionNotFoundException;
+import io.polyapi.knative.function.metrics.InvocationEndpoint;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import io.polyapi.knative.function.metrics.JvmActivity;
 import io.polyapi.knative.function.model.InvocationResult;
-import io.polyapi.knative.function.service.InvocationService;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.converter.HttpMessageNotReadableException;
-import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.io.InputStream;
 
-import static java.util.function.Predicate.not;
-import static java.util.stream.IntStream.range;
-import static org.springframework.http.HttpHeaders.*;
-import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpHeaders.ACCEPT;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
-import static org.springframework.http.MediaType.TEXT_PLAIN_VALUE;
 
 @Slf4j
-@Setter
 @RestController
-public class InvocationController {
-    private static final String TYPE_HEADER = "ce-type";
-
-    @Value("${polyapi.function.id:}")
-    private String functionId;
-
-    @Value("${polyapi.function.class:io.polyapi.knative.function.PolyCustomFunction}")
-    private String functionQualifiedName;
-
-    @Value("${polyapi.function.method:execute}")
-    private String methodName;
-
-    @Value("${polyapi.function.params:#{null}}")
-    private String parameterTypes;
-
-    @Autowired
-    private JsonParser jsonParser;
-
-    @Autowired
-    private InvocationService invocationService;
+@ConditionalOnProperty(name = "polyapi.function.controller", havingValue = "BLOCKING", matchIfMissing = true)
+public class InvocationController extends AbstractInvocationController {
 
     @PostMapping(consumes = APPLICATION_JSON_VALUE)
     public ResponseEntity<?> invoke(@RequestHeader(name = "x-poly-do-log", required = false, defaultValue = "false") boolean logsEnabled,
                                     @RequestHeader(name = "x-poly-execution-id", required = false, defaultValue = "") String executionId,
-                                    @RequestBody JsonNode requestBody) {
+                                    @RequestHeader(name = ACCEPT, required = false) String accept,
+                                    InputStream requestBody) {
         log.info("Poly logs are {}enabled for this function execution.", logsEnabled ? "" : "not ");
-        InvocationResult methodResult = invokeFunction(parseArguments(requestBody), logsEnabled, executionId);
-        return ResponseEntity.status(methodResult.getMetadata().getResponseStatusCode())
-                .header(CONTENT_TYPE, methodResult.getMetadata().getResponseContentType())
-                .body(methodResult.getData().orElse(""));
+        return toInvokeResponse(invokeFunction(requestBody, logsEnabled, executionId, startTimings(InvocationEndpoint.INVOKE)), accept);
     }
 
     @PostMapping(consumes = APPLICATION_JSON_VALUE, headers = "ce-id")
@@ -81,135 +37,19 @@ public class InvocationController {
                                                       @RequestHeader(name = "x-poly-do-log", required = false, defaultValue = "false") boolean logsEnabled,
                                                       @RequestHeader("ce-executionid") String executionId,
                                                       @RequestHeader("ce-environment") String environmentId,
-                                                      @RequestBody JsonNode requestBody) {
+                                                      InputStream requestBody) {
         log.info("Poly logs are {}enabled for this function execution.", logsEnabled ? "" : "not ");
         Long start = System.currentTimeMillis();
+        JvmActivity startActivity = JvmActivity.snapshot();
+        InvocationTimings timings = startTimings(InvocationEndpoint.TRIGGER);
         log.debug("Presence of 'ce-id' header indicates that the function is invoked from a trigger.");
-        InvocationResult invocationResult = invokeFunction(parseArguments(requestBody), logsEnabled, executionId);
-        log.debug("Handling response.");
-        ResponseEntity<TriggerEventResult> result = ResponseEntity.ok()
-                .headers(headers)
-                .headers(outputHeaders -> {
-                    outputHeaders.remove(CONTENT_LENGTH);
-                    outputHeaders.remove(CONTENT_LENGTH.toLowerCase());
-                    outputHeaders.remove(TYPE_HEADER);
-                    outputHeaders.remove(CONTENT_TYPE);
-                })
-                .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
-                .header(TYPE_HEADER, "trigger.response")
-                .body(new TriggerEventResult(invocationResult.getMetadata().getResponseStatusCode(),
-                        invocationResult.getMetadata().getExecutionId(),
-                        functionId,
-                        environmentId,
-                        invocationResult.getMetadata().getResponseContentType(),
-                        new Metrics(start, System.currentTimeMillis()),
-                        invocationResult.getData().orElse("")));
-        log.trace("Response headers are:\n");
-        result.getHeaders().forEach((key, value) -> log.trace("    \"{}\": \"{}\"", key, value));
-        log.debug("Response handled successfully.");
-        return result;
-    }
-
-    private List<JsonNode> parseArguments(JsonNode requestBody) {
-        if (requestBody == null || requestBody.isNull()) {
-            return null;
-        }
-        if (requestBody.isArray()) {
-            return toList(requestBody);
-        }
-        if (requestBody.isObject()) {
-            JsonNode argsNode = requestBody.get("args");
-            if (argsNode == null || argsNode.isNull()) {
-                return null;
-            }
-            if (argsNode.isArray()) {
-                return toList(argsNode);
-            }
+        if (isAsyncTrigger()) {
+            return await(acceptTrigger(headers, environmentId, executionId, logsEnabled, bind(requestBody, timings), start, startActivity, timings));
         }
-        throw invalidPayloadException(requestBody);
+        return toTriggerResponse(headers, environmentId, start, startActivity, timings, collected(invokeFunction(requestBody, logsEnabled, executionId, timings)));
     }
 
-    private List<JsonNode> toList(JsonNode node) {
-        List<JsonNode> result = new ArrayList<>(node.size());
-        node.forEach(result::add);
-        return result;
-    }
-
-    private JsonToObjectParsingException invalidPayloadException(JsonNode requestBody) {
-        return new JsonToObjectParsingException(requestBody.toString(), List.class,
-                new IllegalArgumentException("Expected request body to be an array or an object containing an 'args' array."));
-    }
-
-    @ExceptionHandler(PolyKNativeFunctionException.class)
-    public ResponseEntity<PolyFunctionError> handleException(PolyKNativeFunctionException exception) {
-        log.error(exception.getMessage(), exception);
-        return ResponseEntity.status(exception.getStatusCode()).body(exception.toErrorObject());
-    }
-
-    @ExceptionHandler({JsonToObjectParsingException.class, HttpMessageNotReadableException.class})
-    public ResponseEntity<PolyFunctionError> handleParsingException(RuntimeException exception) {
-        log.error(exception.getMessage(), exception);
-        return ResponseEntity.badRequest().body(new PolyFunctionError(BAD_REQUEST.value(), exception.getMessage()));
-    }
-
-    private InvocationResult invokeFunction(List<JsonNode> arguments, boolean logsEnabled, String executionId) {
-        try {
-            log.debug("Loading class {}.", functionQualifiedName);
-            Class<?> functionClass = Class.forName(functionQualifiedName);
-            log.debug("Class {} loaded successfully.", functionQualifiedName);
-            Method functionMethod;
-            Class<?>[] paramTypes;
-            if (parameterTypes == null) {
-                functionMethod = Arrays.stream(functionClass.getDeclaredMethods()).filter(method -> method.getName().equals(methodName)).findFirst().orElseThrow(() -> new ExecutionMethodNotFoundException(methodName));
-            } else {
-                log.debug("Loading parameter types: [{}].", parameterTypes);
-                paramTypes = Optional.of(parameterTypes)
-                        .filter(not(String::isBlank))
-                        .map(params -> params.split(","))
-                        .stream()
-                        .flatMap(Arrays::stream)
-                        .map(String::trim)
-                        .map(qualifiedName -> {
-                            log.debug("Loading class for parameter type '{}'.", qualifiedName);
-                            Class<?> result = switch (qualifiedName) {
-                                case "boolean" -> boolean.class;
-                                case "byte" -> byte.class;
-                                case "short" -> short.class;
-                                case "int" -> int.class;
-                                case "long" -> long.class;
-                                case "float" -> float.class;
-                                case "double" -> double.class;
-                                case "char" -> char.class;
-                                case "void" -> void.class;
-                                default -> {
-                                    try {
-                                        yield Class.forName(qualifiedName);
-                                    } catch (ClassNotFoundException e) {
-                                        throw new InvalidArgumentTypeException(qualifiedName, e);
-                                    }
-                                }
-                            };
-                                log.debug("Class loaded successfully.");
-                                return result;
-                        })
-                        .toArray(Class<?>[]::new);
-                log.debug("Parameter types loaded successfully.");
-                log.debug("Retrieving method {}.{}({}).", functionQualifiedName, methodName, parameterTypes);
-                functionMethod = functionClass.getDeclaredMethod(methodName, paramTypes);
-                log.debug("Method {} retrieved successfully.", functionMethod);
-            }
-            return invocationService.invokeFunction(functionClass, functionMethod, range(0, functionMethod.getParameters().length).boxed()
-                    .map(i -> Optional.ofNullable(arguments)
-                            .filter(args -> args.size() > i)
-                            .map(args -> args.get(i))
-                            .map(Object::toString)
-                            .map(arg -> jsonParser.parseString(arg, functionMethod.getParameters()[i].getParameterizedType()))
-                            .orElse(null))
-                    .toArray(), logsEnabled, executionId);
-        } catch (NoSuchMethodException e) {
-            throw new ExecutionMethodNotFoundException(methodName, parameterTypes, e);
-        } catch (ClassNotFoundException e) {
-            throw new PolyFunctionNotFoundException(e);
-        }
+    private InvocationResult invokeFunction(InputStream requestBody, boolean logsEnabled, String executionId, InvocationTimings timings) {
+        return handled(invocationService.invokeFunction(invocationPlan, bind(requestBody, timings), logsEnabled, executionId), timings);
     }
 }
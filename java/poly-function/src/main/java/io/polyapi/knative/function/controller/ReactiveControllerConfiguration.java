@@ -0,0 +1,27 @@
+package io.polyapi.knative.function.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import static reactor.core.scheduler.Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE;
+import static reactor.core.scheduler.Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+
+/**
+ * Configuration of the {@link ReactiveInvocationController}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "polyapi.function.controller", havingValue = "REACTIVE")
+public class ReactiveControllerConfiguration {
+
+    /**
+     * @return Scheduler The scheduler the request bodies are read and bound on, so the request threads don't wait for
+     * them.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler bindingScheduler() {
+        return Schedulers.newBoundedElastic(DEFAULT_BOUNDED_ELASTIC_SIZE, DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "Poly-binding", 60, true);
+    }
+}
@@ -0,0 +1,79 @@
+package io.polyapi.knative.function.controller;
+
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import io.polyapi.knative.function.metrics.InvocationEndpoint;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import io.polyapi.knative.function.metrics.JvmActivity;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.StreamedResult;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.InputStream;
+
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Non-blocking variant of {@link InvocationController}, enabled with 'polyapi.function.controller=REACTIVE'. The
+ * request thread is released right away: the request body is read and bound on the binding {@link Scheduler}, the
+ * execution runs on the {@link io.polyapi.knative.function.service.execution.ExecutionEngine} and the response is
+ * written when the function result, including asynchronous results, completes.
+ */
+@Slf4j
+@Setter
+@RestController
+@ConditionalOnProperty(name = "polyapi.function.controller", havingValue = "REACTIVE")
+public class ReactiveInvocationController extends AbstractInvocationController {
+
+    @Autowired
+    private Scheduler bindingScheduler;
+
+    @PostMapping(consumes = APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> invoke(@RequestHeader(name = "x-poly-do-log", required = false, defaultValue = "false") boolean logsEnabled,
+                                          @RequestHeader(name = "x-poly-execution-id", required = false, defaultValue = "") String executionId,
+                                          @RequestHeader(name = ACCEPT, required = false) String accept,
+                                          InputStream requestBody) {
+        log.info("Poly logs are {}enabled for this function execution.", logsEnabled ? "" : "not ");
+        return invokeFunction(requestBody, logsEnabled, executionId, startTimings(InvocationEndpoint.INVOKE)).map(invocationResult -> toInvokeResponse(invocationResult, accept));
+    }
+
+    @PostMapping(consumes = APPLICATION_JSON_VALUE, headers = "ce-id")
+    public Mono<ResponseEntity<TriggerEventResult>> trigger(@RequestHeader HttpHeaders headers,
+                                                            @RequestHeader(name = "x-poly-do-log", required = false, defaultValue = "false") boolean logsEnabled,
+                                                            @RequestHeader("ce-executionid") String executionId,
+                                                            @RequestHeader("ce-environment") String environmentId,
+                                                            InputStream requestBody) {
+        log.info("Poly logs are {}enabled for this function execution.", logsEnabled ? "" : "not ");
+        Long start = System.currentTimeMillis();
+        JvmActivity startActivity = JvmActivity.snapshot();
+        InvocationTimings timings = startTimings(InvocationEndpoint.TRIGGER);
+        log.debug("Presence of 'ce-id' header indicates that the function is invoked from a trigger.");
+        if (isAsyncTrigger()) {
+            return bindAsync(requestBody, timings)
+                    .flatMap(arguments -> Mono.fromFuture(() -> acceptTrigger(headers, environmentId, executionId, logsEnabled, arguments, start, startActivity, timings)));
+        }
+        return invokeFunction(requestBody, logsEnabled, executionId, timings)
+                .flatMap(invocationResult -> Mono.fromFuture(StreamedResult.collected(invocationResult)))
+                .map(invocationResult -> toTriggerResponse(headers, environmentId, start, startActivity, timings, invocationResult));
+    }
+
+    private Mono<InvocationResult> invokeFunction(InputStream requestBody, boolean logsEnabled, String executionId, InvocationTimings timings) {
+        return bindAsync(requestBody, timings)
+                .flatMap(arguments -> Mono.fromFuture(() -> invocationService.invokeFunctionAsync(invocationPlan, arguments, logsEnabled, executionId)))
+                .map(invocationResult -> handled(invocationResult, timings));
+    }
+
+    private Mono<Object[]> bindAsync(InputStream requestBody, InvocationTimings timings) {
+        return Mono.fromCallable(() -> bind(requestBody, timings)).subscribeOn(bindingScheduler);
+    }
+}
@@ -0,0 +1,151 @@
+package io.polyapi.knative.function.controller.binding;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.polyapi.commons.api.error.parse.JsonToObjectParsingException;
+import io.polyapi.knative.function.model.InvocationPlan;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NULL;
+
+/**
+ * Binds the body of an execution request to the arguments of the function. The body is either an array with the
+ * arguments or an object with an 'args' array. It is read from a streaming parser, so every argument is deserialized
+ * straight into its parameter type without building an intermediate tree. The {@link ObjectReader} of every parameter
+ * is created once.
+ * <p>
+ * Missing arguments are bound as null and extra arguments are skipped.
+ */
+@Slf4j
+public class ArgumentBinder {
+    private static final String ARGS_FIELD = "args";
+
+    private final ObjectMapper objectMapper;
+    private final List<Type> parameterTypes;
+    private final ObjectReader[] readers;
+
+    public ArgumentBinder(InvocationPlan plan, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.parameterTypes = plan.getParameterTypes();
+        this.readers = parameterTypes.stream()
+                .map(type -> objectMapper.readerFor(objectMapper.getTypeFactory().constructType(type)))
+                .toArray(ObjectReader[]::new);
+    }
+
+    /**
+     * Reads the arguments of the function from a request body.
+     *
+     * @param body The request body.
+     * @return Object[] The arguments, one per parameter of the function.
+     */
+    public Object[] bind(InputStream body) {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw invalidPayloadException(new IllegalArgumentException("Required request body is missing."));
+            }
+            return bind(parser);
+        } catch (IOException e) {
+            throw invalidPayloadException(e);
+        }
+    }
+
+    /**
+     * Reads the arguments of the function from a parser positioned on the first token of the payload. The parser is
+     * left on the last token of the payload.
+     *
+     * @param parser The parser.
+     * @return Object[] The arguments, one per parameter of the function.
+     * @throws IOException If the payload cannot be read.
+     */
+    public Object[] bind(JsonParser parser) throws IOException {
+        Object[] arguments = new Object[readers.length];
+        switch (parser.currentToken()) {
+            case VALUE_NULL -> log.debug("Null payload. All the arguments are bound to null.");
+            case START_ARRAY -> readArguments(parser, arguments);
+            case START_OBJECT -> {
+                while (parser.nextToken() != END_OBJECT) {
+                    String fieldName = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (ARGS_FIELD.equals(fieldName) && value == START_ARRAY) {
+                        readArguments(parser, arguments);
+                    } else if (ARGS_FIELD.equals(fieldName) && value != VALUE_NULL) {
+                        throw invalidPayloadException(new IllegalArgumentException("Expected 'args' to be an array."));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            default -> throw invalidPayloadException(new IllegalArgumentException("Expected request body to be an array or an object containing an 'args' array."));
+        }
+        return arguments;
+    }
+
+    /**
+     * Splits the body of a batch request, an array with one payload per execution, into the binders of each payload.
+     * Each payload is buffered as it is read, so an invalid payload only fails its own binding.
+     *
+     * @param body The request body.
+     * @return List The binders of the arguments of every execution, in order.
+     */
+    public List<Supplier<Object[]>> bindBatch(InputStream body) {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != START_ARRAY) {
+                throw invalidPayloadException(new IllegalArgumentException("Expected batch request body to be an array of payloads."));
+            }
+            List<Supplier<Object[]>> result = new ArrayList<>();
+            while (parser.nextToken() != END_ARRAY) {
+                TokenBuffer payload = new TokenBuffer(parser);
+                payload.copyCurrentStructure(parser);
+                result.add(() -> {
+                    try (JsonParser payloadParser = payload.asParser(objectMapper)) {
+                        payloadParser.nextToken();
+                        return bind(payloadParser);
+                    } catch (IOException e) {
+                        throw invalidPayloadException(e);
+                    }
+                });
+            }
+            return result;
+        } catch (IOException e) {
+            throw invalidPayloadException(e);
+        }
+    }
+
+    private void readArguments(JsonParser parser, Object[] arguments) throws IOException {
+        int index = 0;
+        while (parser.nextToken() != END_ARRAY) {
+            if (index < readers.length) {
+                arguments[index] = readArgument(parser, index);
+            } else {
+                parser.skipChildren();
+            }
+            index++;
+        }
+    }
+
+    private Object readArgument(JsonParser parser, int index) {
+        try {
+            return readers[index].readValue(parser);
+        } catch (IOException e) {
+            throw new JsonToObjectParsingException(parser.currentLocation().offsetDescription(), parameterTypes.get(index), e);
+        }
+    }
+
+    private JsonToObjectParsingException invalidPayloadException(Throwable cause) {
+        return new JsonToObjectParsingException("request body", List.class, cause);
+    }
+}
@@ -0,0 +1,145 @@
+package io.polyapi.knative.function.controller.binding;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.polyapi.commons.api.error.parse.JsonToObjectParsingException;
+import io.polyapi.knative.function.error.function.event.InvalidCloudEventException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static io.polyapi.knative.function.controller.binding.StructuredCloudEvent.DATA_CONTENT_TYPE;
+import static io.polyapi.knative.function.controller.binding.StructuredCloudEvent.ENVIRONMENT;
+import static io.polyapi.knative.function.controller.binding.StructuredCloudEvent.EXECUTION_ID;
+import static io.polyapi.knative.function.controller.binding.StructuredCloudEvent.ID;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Reads CloudEvents in structured content mode, a single event ('application/cloudevents+json') or an array of them
+ * ('application/cloudevents-batch+json'). The scalar context attributes of every event are read as strings. Its
+ * 'data', the payload accepted by the invoke endpoint, is buffered as it is read and bound through the
+ * {@link ArgumentBinder} when the event runs, so an invalid event only fails on its own.
+ */
+public class CloudEventReader {
+    public static final String STRUCTURED_CONTENT_TYPE = "application/cloudevents+json";
+    public static final String BATCH_CONTENT_TYPE = "application/cloudevents-batch+json";
+
+    private static final String DATA = "data";
+    private static final String DATA_BASE64 = "data_base64";
+    private static final List<String> REQUIRED_ATTRIBUTES = List.of(ID, EXECUTION_ID, ENVIRONMENT);
+
+    private final ArgumentBinder argumentBinder;
+    private final ObjectMapper objectMapper;
+
+    public CloudEventReader(ArgumentBinder argumentBinder, ObjectMapper objectMapper) {
+        this.argumentBinder = argumentBinder;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads a single event.
+     *
+     * @param body The request body, a JSON object.
+     * @return StructuredCloudEvent The event.
+     */
+    public StructuredCloudEvent read(InputStream body) {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            parser.nextToken();
+            return read(parser);
+        } catch (IOException e) {
+            throw invalidPayloadException(e);
+        }
+    }
+
+    /**
+     * Reads a batch of events.
+     *
+     * @param body The request body, a JSON array of event objects.
+     * @return List The events, in order.
+     */
+    public List<StructuredCloudEvent> readBatch(InputStream body) {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != START_ARRAY) {
+                throw invalidPayloadException(new IllegalArgumentException("Expected CloudEvents batch to be an array of events."));
+            }
+            List<StructuredCloudEvent> result = new ArrayList<>();
+            while (parser.nextToken() != END_ARRAY) {
+                result.add(read(parser));
+            }
+            return result;
+        } catch (IOException e) {
+            throw invalidPayloadException(e);
+        }
+    }
+
+    private StructuredCloudEvent read(JsonParser parser) throws IOException {
+        if (parser.currentToken() != START_OBJECT) {
+            throw invalidPayloadException(new IllegalArgumentException("Expected CloudEvent to be an object."));
+        }
+        Map<String, String> attributes = new LinkedHashMap<>();
+        TokenBuffer data = null;
+        while (parser.nextToken() != END_OBJECT) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (DATA.equals(name)) {
+                data = new TokenBuffer(parser);
+                data.copyCurrentStructure(parser);
+            } else if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                attributes.put(name, parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new StructuredCloudEvent(attributes, binder(attributes, data));
+    }
+
+    private Supplier<Object[]> binder(Map<String, String> attributes, TokenBuffer data) {
+        return () -> {
+            String id = attributes.get(ID);
+            REQUIRED_ATTRIBUTES.stream()
+                    .filter(attribute -> !attributes.containsKey(attribute))
+                    .findFirst()
+                    .ifPresent(attribute -> {
+                        throw new InvalidCloudEventException(id, "missing required attribute '" + attribute + "'.");
+                    });
+            if (attributes.containsKey(DATA_BASE64)) {
+                throw new InvalidCloudEventException(id, "binary data ('data_base64') is not supported.");
+            }
+            if (attributes.containsKey(DATA_CONTENT_TYPE) && !isJson(attributes.get(DATA_CONTENT_TYPE))) {
+                throw new InvalidCloudEventException(id, "data content type '" + attributes.get(DATA_CONTENT_TYPE) + "' is not JSON.");
+            }
+            try (JsonParser dataParser = data == null ? objectMapper.createParser("null") : data.asParser(objectMapper)) {
+                dataParser.nextToken();
+                return argumentBinder.bind(dataParser);
+            } catch (IOException e) {
+                throw invalidPayloadException(e);
+            }
+        };
+    }
+
+    private static boolean isJson(String contentType) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return APPLICATION_JSON.isCompatibleWith(mediaType) || "json".equals(mediaType.getSubtypeSuffix());
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private JsonToObjectParsingException invalidPayloadException(Throwable cause) {
+        return new JsonToObjectParsingException("request body", List.class, cause);
+    }
+}
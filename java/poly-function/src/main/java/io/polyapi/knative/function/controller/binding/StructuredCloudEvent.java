@@ -0,0 +1,35 @@
+package io.polyapi.knative.function.controller.binding;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A CloudEvent received in structured content mode. The context attributes are kept as strings, and the arguments
+ * of the function are bound from its data on demand.
+ */
+@Getter
+@AllArgsConstructor
+public class StructuredCloudEvent {
+    public static final String ID = "id";
+    public static final String EXECUTION_ID = "executionid";
+    public static final String ENVIRONMENT = "environment";
+    public static final String DATA_CONTENT_TYPE = "datacontenttype";
+
+    private final Map<String, String> attributes;
+    private final Supplier<Object[]> arguments;
+
+    public String getId() {
+        return attributes.get(ID);
+    }
+
+    public String getExecutionId() {
+        return attributes.get(EXECUTION_ID);
+    }
+
+    public String getEnvironmentId() {
+        return attributes.get(ENVIRONMENT);
+    }
+}
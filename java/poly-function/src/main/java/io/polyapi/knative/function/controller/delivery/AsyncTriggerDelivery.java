@@ -0,0 +1,242 @@
+package io.polyapi.knative.function.controller.delivery;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.polyapi.knative.function.checkpoint.CheckpointAware;
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import io.polyapi.knative.function.error.function.admission.DeliveryQueueFullException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Delivers the results of the triggers accepted asynchronously. The trigger is answered with 202 as soon as its
+ * execution is admitted, and the 'trigger.response' event is sent to the {@link TriggerResultSink} once it finishes.
+ * Triggers rejected by the admission are answered with the rejection instead, and nothing is delivered. Failed
+ * deliveries are retried up to the max attempts, doubling the backoff every time, and then dropped.
+ * <p>
+ * The results pending delivery, from the moment the trigger is received, are kept in memory and limited to the queue
+ * size. Beyond it, triggers are rejected right away so the broker redelivers them later or to another replica.
+ * <p>
+ * Before a checkpoint of the JVM the pending results are delivered, the retry thread is stopped and the connections of
+ * the sink are released. The results not delivered within the checkpoint timeout are dropped. The thread is created
+ * again after the restore.
+ */
+@Slf4j
+public class AsyncTriggerDelivery implements AutoCloseable, CheckpointAware {
+    private static final String METRIC_PREFIX = "polyapi.function.trigger.delivery.";
+
+    private final TriggerResultSink sink;
+    private final int queueSize;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration checkpointTimeout;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Set<PendingResult> unsettled = ConcurrentHashMap.newKeySet();
+    private volatile ScheduledExecutorService retryScheduler;
+    private final Counter delivered;
+    private final Counter dropped;
+    private final Counter retries;
+    private final Counter rejections;
+
+    /**
+     * @param sink        The sink the results are sent to, or null to answer the triggers synchronously.
+     * @param queueSize   The maximum number of results pending delivery.
+     * @param maxAttempts The maximum number of times a result is sent.
+     * @param backoff     The wait before the first retry.
+     * @param checkpointTimeout The maximum wait for the pending results to be delivered before a checkpoint.
+     */
+    public AsyncTriggerDelivery(TriggerResultSink sink, int queueSize, int maxAttempts, Duration backoff, Duration checkpointTimeout, MeterRegistry meterRegistry) {
+        this.sink = sink;
+        this.queueSize = Math.max(queueSize, 1);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.backoff = backoff;
+        this.checkpointTimeout = checkpointTimeout;
+        this.retryScheduler = sink == null ? null : newRetryScheduler();
+        Gauge.builder(METRIC_PREFIX + "pending", pending::get)
+                .description("Trigger results accepted and not delivered yet, including the ones still executing.")
+                .register(meterRegistry);
+        this.delivered = Counter.builder(METRIC_PREFIX + "results")
+                .description("Trigger results handled by the delivery, by outcome.")
+                .tag("outcome", "delivered")
+                .register(meterRegistry);
+        this.dropped = Counter.builder(METRIC_PREFIX + "results")
+                .description("Trigger results handled by the delivery, by outcome.")
+                .tag("outcome", "dropped")
+                .register(meterRegistry);
+        this.retries = Counter.builder(METRIC_PREFIX + "retries")
+                .description("Failed deliveries of trigger results that were retried.")
+                .register(meterRegistry);
+        this.rejections = Counter.builder(METRIC_PREFIX + "rejections")
+                .description("Triggers rejected because the delivery queue was full.")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return boolean True if triggers are answered right away and their results sent to the sink.
+     */
+    public boolean isEnabled() {
+        return sink != null;
+    }
+
+    /**
+     * Reserves a place in the queue for the result of a trigger, before its execution is started.
+     *
+     * @return PendingResult The reserved result, to be delivered with {@link #deliver(PendingResult, CompletableFuture)}
+     * or given back with {@link #cancel(PendingResult)} if the execution isn't started.
+     * @throws DeliveryQueueFullException If the queue of pending results is full.
+     */
+    public PendingResult reserve() {
+        if (pending.incrementAndGet() > queueSize) {
+            pending.decrementAndGet();
+            log.warn("Trigger rejected. {} results pending delivery.", queueSize);
+            rejections.increment();
+            throw new DeliveryQueueFullException(queueSize);
+        }
+        PendingResult pendingResult = new PendingResult();
+        unsettled.add(pendingResult);
+        return pendingResult;
+    }
+
+    /**
+     * Delivers the result of an accepted trigger once its execution finishes.
+     *
+     * @param pendingResult The result reserved for the trigger.
+     * @param result        The future completed with the 'trigger.response' event.
+     */
+    public void deliver(PendingResult pendingResult, CompletableFuture<ResponseEntity<TriggerEventResult>> result) {
+        result.whenComplete((response, error) -> {
+            if (error == null) {
+                deliver(pendingResult, response, 1);
+            } else {
+                log.error("The result of the trigger couldn't be built, so it won't be delivered.", error);
+                settle(pendingResult, dropped);
+            }
+        });
+    }
+
+    /**
+     * Gives back a reserved result whose execution wasn't started, e.g. because it wasn't admitted.
+     *
+     * @param pendingResult The result reserved for the trigger.
+     */
+    public void cancel(PendingResult pendingResult) {
+        if (unsettled.remove(pendingResult)) {
+            pending.decrementAndGet();
+        }
+    }
+
+    private void deliver(PendingResult pendingResult, ResponseEntity<TriggerEventResult> result, int attempt) {
+        CompletableFuture<Void> sent;
+        try {
+            sent = sink.send(result);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((done, error) -> {
+            String executionId = result.getBody() == null ? null : result.getBody().getExecutionId();
+            if (error == null) {
+                log.debug("Result of execution '{}' delivered.", executionId);
+                settle(pendingResult, delivered);
+            } else if (attempt < maxAttempts) {
+                long delay = backoff.toMillis() << Math.min(attempt - 1, 16);
+                log.warn("Delivery {} of the result of execution '{}' failed: {}. Retrying in {} ms.", attempt, executionId, error.getMessage(), delay);
+                retries.increment();
+                try {
+                    retryScheduler.schedule(() -> deliver(pendingResult, result, attempt + 1), delay, MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    log.error("The delivery is stopped, so the result of execution '{}' can't be retried. Dropping it.", executionId);
+                    settle(pendingResult, dropped);
+                }
+            } else {
+                log.error("The result of execution '{}' couldn't be delivered after {} attempts. Dropping it.", executionId, attempt, error);
+                settle(pendingResult, dropped);
+            }
+        });
+    }
+
+    /**
+     * Counts the outcome of a pending result, unless it was already settled, e.g. dropped before a checkpoint while
+     * its delivery was still in flight.
+     */
+    private void settle(PendingResult pendingResult, Counter outcome) {
+        if (unsettled.remove(pendingResult)) {
+            outcome.increment();
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return int The number of results accepted and not delivered yet.
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    @Override
+    public void beforeCheckpoint() {
+        if (sink != null) {
+            // The executions are drained before, so only the deliveries and their retries are left.
+            long deadline = System.nanoTime() + checkpointTimeout.toNanos();
+            while (pending.get() > 0 && System.nanoTime() < deadline) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (pending.get() > 0) {
+                log.warn("{} trigger results weren't delivered within {} ms before the checkpoint. Dropping them.", pending.get(), checkpointTimeout.toMillis());
+                unsettled.forEach(pendingResult -> settle(pendingResult, dropped));
+            }
+            retryScheduler.shutdownNow();
+            sink.close();
+        }
+    }
+
+    @Override
+    public void afterRestore() {
+        if (sink != null) {
+            retryScheduler = newRetryScheduler();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (sink != null) {
+            if (pending.get() > 0) {
+                log.warn("Stopping with {} trigger results pending delivery.", pending.get());
+            }
+            retryScheduler.shutdownNow();
+            sink.close();
+        }
+    }
+
+    /**
+     * A result accepted for delivery, settled once as delivered or dropped.
+     */
+    public static final class PendingResult {
+        private PendingResult() {
+        }
+    }
+
+    private static ScheduledExecutorService newRetryScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Poly-trigger-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
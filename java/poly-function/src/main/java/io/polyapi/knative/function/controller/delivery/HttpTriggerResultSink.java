@@ -0,0 +1,82 @@
+package io.polyapi.knative.function.controller.delivery;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Sends the trigger results as binary mode CloudEvents, POSTing them to a URL such as the Knative 'K_SINK'. Only the
+ * 'ce-' headers of the result are sent. Any status other than 2xx is a failed delivery. The HTTP client is created on
+ * first use, and again after {@link #close()}.
+ */
+public class HttpTriggerResultSink implements TriggerResultSink {
+    private static final String HEADER_PREFIX = "ce-";
+
+    private final URI uri;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+    private volatile HttpClient client;
+
+    public HttpTriggerResultSink(URI uri, Duration timeout, ObjectMapper objectMapper) {
+        this.uri = uri;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public CompletableFuture<Void> send(ResponseEntity<TriggerEventResult> result) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header(CONTENT_TYPE, APPLICATION_JSON_VALUE);
+        result.getHeaders().forEach((name, values) -> {
+            if (name.toLowerCase().startsWith(HEADER_PREFIX)) {
+                values.forEach(value -> request.header(name, value));
+            }
+        });
+        try {
+            request.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(result.getBody())));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return getClient().sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .thenAccept(response -> {
+                    if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                        throw new CompletionException(new IOException("The sink " + uri + " answered with status " + response.statusCode() + "."));
+                    }
+                });
+    }
+
+    private HttpClient getClient() {
+        HttpClient result = client;
+        if (result == null) {
+            synchronized (this) {
+                if (client == null) {
+                    client = HttpClient.newBuilder().connectTimeout(timeout).build();
+                }
+                result = client;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the HTTP client, whose connections and selector thread end once it's collected.
+     */
+    @Override
+    public void close() {
+        client = null;
+    }
+}
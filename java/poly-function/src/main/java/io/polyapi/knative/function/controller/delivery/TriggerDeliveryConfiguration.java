@@ -0,0 +1,39 @@
+package io.polyapi.knative.function.controller.delivery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link AsyncTriggerDelivery} of the trigger results.
+ */
+@Slf4j
+@Configuration
+public class TriggerDeliveryConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public AsyncTriggerDelivery asyncTriggerDelivery(@Value("${polyapi.function.trigger.async.enabled:false}") boolean enabled,
+                                                     @Value("${polyapi.function.trigger.async.sink:${K_SINK:}}") String sink,
+                                                     @Value("${polyapi.function.trigger.async.queue-size:1000}") int queueSize,
+                                                     @Value("${polyapi.function.trigger.async.max-attempts:3}") int maxAttempts,
+                                                     @Value("${polyapi.function.trigger.async.backoff:1s}") Duration backoff,
+                                                     @Value("${polyapi.function.trigger.async.timeout:10s}") Duration timeout,
+                                                     @Value("${polyapi.function.trigger.async.checkpoint-timeout:30s}") Duration checkpointTimeout,
+                                                     ObjectMapper objectMapper,
+                                                     MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return new AsyncTriggerDelivery(null, queueSize, maxAttempts, backoff, checkpointTimeout, meterRegistry);
+        }
+        if (sink.isBlank()) {
+            throw new IllegalStateException("Asynchronous triggers need a sink. Set 'polyapi.function.trigger.async.sink' or the K_SINK environment variable.");
+        }
+        log.info("Answering triggers asynchronously. Results are sent to {} with up to {} attempts and {} pending.", sink, maxAttempts, queueSize);
+        return new AsyncTriggerDelivery(new HttpTriggerResultSink(URI.create(sink), timeout, objectMapper), queueSize, maxAttempts, backoff, checkpointTimeout, meterRegistry);
+    }
+}
@@ -0,0 +1,28 @@
+package io.polyapi.knative.function.controller.delivery;
+
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Destination of the results of the triggers accepted asynchronously.
+ */
+public interface TriggerResultSink extends AutoCloseable {
+
+    /**
+     * Sends the result of a trigger.
+     *
+     * @param result The 'trigger.response' event, with its 'ce-' headers and the {@link TriggerEventResult} body.
+     * @return CompletableFuture The future completed once the sink accepts the result, or exceptionally if it doesn't.
+     */
+    CompletableFuture<Void> send(ResponseEntity<TriggerEventResult> result);
+
+    /**
+     * Releases the connections held by the sink. It may still be used afterwards.
+     */
+    @Override
+    default void close() {
+        // Nothing to release by default.
+    }
+}
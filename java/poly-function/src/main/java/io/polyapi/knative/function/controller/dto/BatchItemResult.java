@@ -0,0 +1,20 @@
+package io.polyapi.knative.function.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.polyapi.knative.function.error.PolyFunctionError;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+@Getter
+@AllArgsConstructor
+public class BatchItemResult {
+    private final Integer statusCode;
+    private final String executionId;
+    private final String contentType;
+    private final Object data;
+
+    @JsonInclude(NON_NULL)
+    private final PolyFunctionError error;
+}
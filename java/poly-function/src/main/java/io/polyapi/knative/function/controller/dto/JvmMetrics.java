@@ -0,0 +1,16 @@
+package io.polyapi.knative.function.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class JvmMetrics {
+    private final Long uptimeMillis;
+    private final Long gcTimeMillis;
+    private final Long compilationTimeMillis;
+    /**
+     * Number of classes loaded, not the time spent loading them.
+     */
+    private final Long loadedClassCount;
+}
@@ -1,11 +1,29 @@
 package io.polyapi.knative.function.controller.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.Map;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
 @Getter
 @AllArgsConstructor
 public class Metrics {
     private final Long start;
     private final Long end;
+
+    @JsonInclude(NON_NULL)
+    private final Map<String, Long> phaseNanos;
+
+    @JsonInclude(NON_NULL)
+    private final Boolean coldStart;
+
+    @JsonInclude(NON_NULL)
+    private final JvmMetrics jvm;
+
+    public Metrics(Long start, Long end) {
+        this(start, end, null, null, null);
+    }
 }
@@ -1,8 +1,13 @@
 package io.polyapi.knative.function.controller.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.polyapi.knative.function.error.PolyFunctionError;
+import io.polyapi.knative.function.model.CapturedLogs;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
 @Getter
 @AllArgsConstructor
 public class TriggerEventResult {
@@ -13,4 +18,14 @@ public class TriggerEventResult {
     private final String contentType;
     private final Metrics metrics;
     private final Object data;
-}
\ No newline at end of file
+
+    @JsonInclude(NON_NULL)
+    private final CapturedLogs logs;
+
+    @JsonInclude(NON_NULL)
+    private final PolyFunctionError error;
+
+    public TriggerEventResult(Integer statusCode, String executionId, String functionId, String environmentId, String contentType, Metrics metrics, Object data, CapturedLogs logs) {
+        this(statusCode, executionId, functionId, environmentId, contentType, metrics, data, logs, null);
+    }
+}
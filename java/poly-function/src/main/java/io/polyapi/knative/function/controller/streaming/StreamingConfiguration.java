@@ -0,0 +1,19 @@
+package io.polyapi.knative.function.controller.streaming;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Registers the {@link StreamingReturnValueHandler} for the streaming responses of the controllers.
+ */
+@Configuration
+public class StreamingConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void addReturnValueHandlers(List<HandlerMethodReturnValueHandler> handlers) {
+        handlers.add(new StreamingReturnValueHandler());
+    }
+}
@@ -0,0 +1,191 @@
+package io.polyapi.knative.function.controller.streaming;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.service.StreamedResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.fasterxml.jackson.databind.SerializationFeature.FLUSH_AFTER_WRITE_VALUE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+/**
+ * Writes the results of functions that produce their items lazily as a chunked response, item by item, so the whole
+ * result is never held in memory. The items are written on the execution engine, within their execution, through a
+ * {@link ResponseBodyEmitter}, so the request thread is released and the execution keeps its admission slot until the
+ * last item is written.
+ * <p>
+ * The items are written as NDJSON if the PolyCustom content type is 'application/x-ndjson', or if the content type was
+ * left to the default and the request accepts 'application/x-ndjson'. Otherwise they are written as a JSON array.
+ */
+@Slf4j
+@Component
+public class StreamingResponseWriter {
+    private static final int FLUSH_INTERVAL = 100;
+    private static final int CHUNK_SIZE = 8192;
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(1);
+
+    private final ObjectWriter writer;
+
+    public StreamingResponseWriter(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer()
+                .without(FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Creates the response that writes the items of a streamed result. The items are written once the response is
+     * started. If it isn't started within a minute, e.g. because the request timed out, the result is closed.
+     *
+     * @param metadata The PolyCustom of the execution, with the status code and content type of the response.
+     * @param result The streamed function result.
+     * @param accept The 'Accept' header of the request.
+     * @return ResponseEntity The streaming response.
+     */
+    public ResponseEntity<ResponseBodyEmitter> toResponse(PolyCustom metadata, StreamedResult result, String accept) {
+        String contentType = Optional.ofNullable(metadata.getResponseContentType()).orElse(APPLICATION_JSON_VALUE);
+        if (APPLICATION_JSON_VALUE.equals(contentType) && acceptsNdjson(accept)) {
+            contentType = APPLICATION_NDJSON_VALUE;
+        }
+        boolean ndjson = APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        log.debug("Streaming function result as {}.", ndjson ? "NDJSON" : "a JSON array");
+        return ResponseEntity.status(metadata.getResponseStatusCode())
+                .header(CONTENT_TYPE, contentType)
+                .body(new StreamingEmitter(result, ndjson));
+    }
+
+    private static boolean acceptsNdjson(String accept) {
+        try {
+            return accept != null && MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(mediaType -> mediaType.isConcrete() && APPLICATION_NDJSON.isCompatibleWith(mediaType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the items of a streamed result to an output stream, within their execution.
+     *
+     * @param result The streamed function result.
+     * @param outputStream The output stream.
+     * @param ndjson True to write the items as NDJSON, false to write them as a JSON array.
+     * @return CompletableFuture The future completed with the number of items written.
+     */
+    public CompletableFuture<Integer> write(StreamedResult result, OutputStream outputStream, boolean ndjson) {
+        return result.read(items -> write(items, outputStream, ndjson));
+    }
+
+    private int write(Iterator<?> items, OutputStream outputStream, boolean ndjson) throws IOException {
+        int count = 0;
+        try (SequenceWriter sequenceWriter = ndjson ? writer.withRootValueSeparator("\n").writeValues(outputStream) : writer.writeValuesAsArray(outputStream)) {
+            while (items.hasNext()) {
+                sequenceWriter.write(items.next());
+                if (++count % FLUSH_INTERVAL == 0) {
+                    sequenceWriter.flush();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Error while streaming the function result after {} items.", count, e);
+            throw e;
+        }
+        if (ndjson && count > 0) {
+            outputStream.write('\n');
+        }
+        outputStream.flush();
+        log.debug("{} items streamed.", count);
+        return count;
+    }
+
+    /**
+     * Emitter that starts writing the items once the response is started, so they are written to the response as they
+     * are produced instead of being buffered until then.
+     */
+    private class StreamingEmitter extends ResponseBodyEmitter {
+        private final StreamedResult result;
+        private final boolean ndjson;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private StreamingEmitter(StreamedResult result, boolean ndjson) {
+            // Streams last as long as the function produces items, like the rest of the executions.
+            super(-1L);
+            this.result = result;
+            this.ndjson = ndjson;
+            CompletableFuture.delayedExecutor(START_TIMEOUT.toMillis(), MILLISECONDS).execute(() -> {
+                if (started.compareAndSet(false, true)) {
+                    log.warn("The streaming response wasn't started. Closing the function result.");
+                    result.close();
+                }
+            });
+        }
+
+        @Override
+        protected void extendResponse(ServerHttpResponse outputMessage) {
+            super.extendResponse(outputMessage);
+            if (started.compareAndSet(false, true)) {
+                write(result, new EmitterOutputStream(this), ndjson).whenComplete((count, error) -> {
+                    if (error == null) {
+                        complete();
+                    } else {
+                        completeWithError(error);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Output stream that sends what is written to an emitter in chunks, on flush or once a chunk is full.
+     */
+    private static class EmitterOutputStream extends OutputStream {
+        private final ResponseBodyEmitter emitter;
+        private final ByteArrayOutputStream chunk = new ByteArrayOutputStream(CHUNK_SIZE);
+
+        private EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            chunk.write(b);
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            chunk.write(b, off, len);
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (chunk.size() > 0) {
+                emitter.send(chunk.toByteArray());
+                chunk.reset();
+            }
+        }
+    }
+}
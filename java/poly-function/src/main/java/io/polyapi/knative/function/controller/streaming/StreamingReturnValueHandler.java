@@ -0,0 +1,39 @@
+package io.polyapi.knative.function.controller.streaming;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitterReturnValueHandler;
+
+import java.util.List;
+
+/**
+ * Handles the streaming responses of the controllers, whose handler methods declare a generic response type. Spring
+ * only recognizes a {@link ResponseBodyEmitter} by the declared return type, so this handler recognizes it by the
+ * returned value instead, and lets the {@link ResponseBodyEmitterReturnValueHandler} handle it. Being asynchronous, it
+ * takes precedence over the built-in handlers for those values.
+ */
+public class StreamingReturnValueHandler implements AsyncHandlerMethodReturnValueHandler {
+    private final ResponseBodyEmitterReturnValueHandler delegate = new ResponseBodyEmitterReturnValueHandler(List.of(new ByteArrayHttpMessageConverter()));
+
+    @Override
+    public boolean isAsyncReturnValue(Object returnValue, MethodParameter returnType) {
+        return returnValue instanceof ResponseEntity<?> response && response.getBody() instanceof ResponseBodyEmitter;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        // Only asynchronous values reach this handler. The rest of the responses are handled by the
+        // HttpEntityMethodProcessor, registered ahead of it.
+        return ResponseEntity.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+        delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+    }
+}
@@ -0,0 +1,13 @@
+package io.polyapi.knative.function.error.function.admission;
+
+import io.polyapi.knative.function.error.PolyKNativeFunctionException;
+
+/**
+ * Parent exception of all the exceptions thrown when an execution is not admitted because the function is saturated.
+ */
+public class AdmissionException extends PolyKNativeFunctionException {
+
+    public AdmissionException(String message, Integer statusCode) {
+        super(message, statusCode);
+    }
+}
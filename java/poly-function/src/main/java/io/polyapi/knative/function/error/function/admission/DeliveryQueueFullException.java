@@ -0,0 +1,12 @@
+package io.polyapi.knative.function.error.function.admission;
+
+import static java.lang.String.format;
+
+/**
+ * Exception thrown when an asynchronous trigger is not accepted because too many results are waiting to be delivered.
+ */
+public class DeliveryQueueFullException extends AdmissionException {
+    public DeliveryQueueFullException(int queueSize) {
+        super(format("The function is saturated (%s trigger results pending delivery). Please retry later.", queueSize), 429);
+    }
+}
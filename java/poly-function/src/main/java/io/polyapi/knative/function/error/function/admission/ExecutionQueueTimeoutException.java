@@ -0,0 +1,14 @@
+package io.polyapi.knative.function.error.function.admission;
+
+import java.time.Duration;
+
+import static java.lang.String.format;
+
+/**
+ * Exception thrown when an execution waits in the queue for longer than the configured timeout.
+ */
+public class ExecutionQueueTimeoutException extends AdmissionException {
+    public ExecutionQueueTimeoutException(Duration timeout) {
+        super(format("The execution was not started within %s ms. Please retry later.", timeout.toMillis()), 503);
+    }
+}
@@ -0,0 +1,12 @@
+package io.polyapi.knative.function.error.function.admission;
+
+import static java.lang.String.format;
+
+/**
+ * Exception thrown when the execution wait queue is full.
+ */
+public class ExecutionRejectedException extends AdmissionException {
+    public ExecutionRejectedException(int maxConcurrency, int queueSize) {
+        super(format("The function is saturated (%s executions in flight, %s queued). Please retry later.", maxConcurrency, queueSize), 429);
+    }
+}
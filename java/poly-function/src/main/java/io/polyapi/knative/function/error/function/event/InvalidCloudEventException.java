@@ -0,0 +1,15 @@
+package io.polyapi.knative.function.error.function.event;
+
+import io.polyapi.knative.function.error.PolyKNativeFunctionException;
+
+import static java.lang.String.format;
+
+/**
+ * Exception thrown when a structured mode CloudEvent can't be run, because of a missing context attribute or data
+ * that isn't JSON.
+ */
+public class InvalidCloudEventException extends PolyKNativeFunctionException {
+    public InvalidCloudEventException(String eventId, String reason) {
+        super(format("Invalid CloudEvent '%s': %s", eventId, reason), 400);
+    }
+}
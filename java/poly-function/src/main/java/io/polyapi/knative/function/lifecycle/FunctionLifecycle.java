@@ -0,0 +1,18 @@
+package io.polyapi.knative.function.lifecycle;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the {@link LifecycleMode} of a function class. Takes precedence over the 'polyapi.function.lifecycle'
+ * property.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FunctionLifecycle {
+    LifecycleMode value();
+}
@@ -0,0 +1,30 @@
+package io.polyapi.knative.function.lifecycle;
+
+/**
+ * Lifecycle of the instances of the function class.
+ */
+public enum LifecycleMode {
+
+    /**
+     * A new instance is created for every execution and its PolyCustom fields are set to the PolyCustom of that
+     * execution. The function class doesn't need to be thread-safe. This is the default.
+     */
+    PROTOTYPE,
+
+    /**
+     * Like {@link #PROTOTYPE}, every execution gets a new instance that is never reused, but the instances are created
+     * ahead of demand on a background thread and kept in a pool of 'polyapi.function.instance-pool.size' instances.
+     * Meant for function classes with expensive constructors that can't be shared. The constructor runs outside the
+     * execution, so it must not depend on the execution context.
+     */
+    POOLED,
+
+    /**
+     * A single instance is created on the first execution and shared by all the concurrent executions, so any setup
+     * done in the constructor runs once. The function class must be thread-safe: its state must be immutable or
+     * synchronized, as it is accessed from several threads at the same time. PolyCustom fields are set once to a
+     * scoped PolyCustom that delegates to the PolyCustom of the execution running on the current thread, so they must
+     * only be used from the thread that runs the execution.
+     */
+    SINGLETON
+}
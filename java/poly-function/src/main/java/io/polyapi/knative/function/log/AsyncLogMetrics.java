@@ -0,0 +1,39 @@
+package io.polyapi.knative.function.log;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import static org.slf4j.Logger.ROOT_LOGGER_NAME;
+
+/**
+ * Exposes the state of the {@link AsyncPolyAppender}s attached to the root logger.
+ */
+@Component
+public class AsyncLogMetrics implements MeterBinder {
+    private static final String METRIC_PREFIX = "polyapi.function.log.";
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) {
+            Logger root = loggerContext.getLogger(ROOT_LOGGER_NAME);
+            root.iteratorForAppenders().forEachRemaining(appender -> {
+                if (appender instanceof AsyncPolyAppender asyncAppender) {
+                    FunctionCounter.builder(METRIC_PREFIX + "dropped", asyncAppender, AsyncPolyAppender::getDroppedEvents)
+                            .description("Log events dropped because the log buffer was full.")
+                            .tag("appender", asyncAppender.getName())
+                            .register(registry);
+                    Gauge.builder(METRIC_PREFIX + "buffered", asyncAppender, AsyncPolyAppender::getBufferedEvents)
+                            .description("Log events waiting to be written.")
+                            .tag("appender", asyncAppender.getName())
+                            .register(registry);
+                }
+            });
+        }
+    }
+}
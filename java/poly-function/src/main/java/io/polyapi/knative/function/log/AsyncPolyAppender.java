@@ -0,0 +1,405 @@
+package io.polyapi.knative.function.log;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Appender that hands the log events to a bounded {@link RingBuffer} and writes them to the attached appenders from a
+ * single background thread, so logging never waits for console I/O unless the buffer is full. What happens then
+ * depends on the {@link OverflowPolicy}.
+ * <p>
+ * Whether an event is a Poly log is decided on the logging thread, from its {@link ExecutionContext}, and replayed on
+ * the writer thread so the {@link PolyAppender}s route it the same way. Attached {@link OutputStreamAppender}s with
+ * 'immediateFlush' disabled are flushed once per batch. {@link #flush()} waits until the events logged so far are
+ * written. {@link #afterFlush(CompletableFuture)} delays the completion of every execution with logs enabled until its
+ * logs are written instead, without blocking any thread: the writer completes it once it gets past them.
+ * {@link #suspendAll()} stops the writer threads, so a checkpoint of the JVM can be taken, and the events are written on
+ * the logging thread until {@link #resumeAll()}.
+ */
+public class AsyncPolyAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = MILLISECONDS.toNanos(10);
+    private static final long WAIT_PARK_NANOS = MICROSECONDS.toNanos(50);
+    private static final ExecutionContext POLY_LOGS_CONTEXT = new ExecutionContext("", true);
+    private static final Set<AsyncPolyAppender> STARTED = new CopyOnWriteArraySet<>();
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    @Getter
+    @Setter
+    private int bufferSize = 8192;
+
+    @Getter
+    @Setter
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    @Getter
+    @Setter
+    private long flushTimeoutMillis = 1000;
+
+    private RingBuffer<BufferedEvent> buffer;
+    private volatile Thread writer;
+    private volatile boolean running;
+    private volatile boolean writerParked;
+    private volatile long writtenPosition;
+    private final Queue<FlushWaiter> flushWaiters = new ConcurrentLinkedQueue<>();
+
+    private record BufferedEvent(ILoggingEvent event, boolean polyLog) {
+    }
+
+    private record FlushWaiter(long position, CompletableFuture<Void> flushed) {
+    }
+
+    /**
+     * Completes like the given future, once the events logged until then are written by all the started
+     * {@link AsyncPolyAppender}s, so the logs of an execution are written before its response. Neither the thread
+     * completing the future nor the writer threads wait for it.
+     *
+     * @param future The future of the execution.
+     * @param <T>    The type of the result of the execution.
+     * @return CompletableFuture The future completed with the same result once the logs are written, or the flush
+     * timeout expires.
+     */
+    public static <T> CompletableFuture<T> afterFlush(CompletableFuture<T> future) {
+        return future.handle((value, error) -> null)
+                .thenCompose(ignored -> CompletableFuture.allOf(STARTED.stream().map(AsyncPolyAppender::flushAsync).toArray(CompletableFuture[]::new)))
+                .thenCompose(ignored -> future);
+    }
+
+    /**
+     * Writes the buffered events and stops the writer threads of all the started {@link AsyncPolyAppender}s.
+     */
+    public static void suspendAll() {
+        STARTED.forEach(AsyncPolyAppender::suspend);
+    }
+
+    /**
+     * Starts the writer threads of all the suspended {@link AsyncPolyAppender}s again.
+     */
+    public static void resumeAll() {
+        STARTED.forEach(AsyncPolyAppender::resume);
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No appender attached to the AsyncPolyAppender named [" + name + "].");
+            return;
+        }
+        buffer = new RingBuffer<>(bufferSize);
+        startWriter();
+        STARTED.add(this);
+        super.start();
+        addInfo("Buffering up to " + buffer.capacity() + " log events with the " + overflowPolicy + " overflow policy.");
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        STARTED.remove(this);
+        if (stopWriter()) {
+            addWarn(buffer.size() + " log events were not written before stopping.");
+        }
+        completeFlushWaiters(Long.MAX_VALUE);
+        appenders.detachAndStopAllAppenders();
+    }
+
+    /**
+     * Writes the buffered events and stops the writer thread. From then on the events are written on the logging
+     * thread, until {@link #resume()}.
+     */
+    public synchronized void suspend() {
+        if (!isStarted() || writer == null) {
+            return;
+        }
+        if (stopWriter()) {
+            addWarn("Log writer still running after " + flushTimeoutMillis + " ms. Suspending anyway.");
+        }
+        writer = null;
+        List<BufferedEvent> remaining = new ArrayList<>();
+        BufferedEvent event;
+        while ((event = buffer.poll()) != null) {
+            remaining.add(event);
+        }
+        dispatch(remaining);
+        writtenPosition = buffer.consumerPosition();
+        completeFlushWaiters(Long.MAX_VALUE);
+    }
+
+    /**
+     * Starts the writer thread again after {@link #suspend()}.
+     */
+    public synchronized void resume() {
+        if (isStarted() && writer == null) {
+            startWriter();
+        }
+    }
+
+    private void startWriter() {
+        running = true;
+        writer = new Thread(this::write, "Poly-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * @return boolean Whether the writer thread is still alive after the flush timeout.
+     */
+    private boolean stopWriter() {
+        Thread current = writer;
+        running = false;
+        if (current == null) {
+            return false;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join(flushTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return current.isAlive();
+    }
+
+    @Override
+    protected void append(ILoggingEvent eventObject) {
+        Thread currentWriter = writer;
+        if (currentWriter == null) {
+            // Suspended. The events are written right away, routed by the context of the logging thread.
+            appenders.appendLoopOnAppenders(eventObject);
+            flushAppenders();
+            return;
+        }
+        if (Thread.currentThread() == currentWriter) {
+            // Events logged by the attached appenders themselves are written directly to avoid waiting on the writer.
+            appenders.appendLoopOnAppenders(eventObject);
+            return;
+        }
+        eventObject.prepareForDeferredProcessing();
+        BufferedEvent event = new BufferedEvent(eventObject, ExecutionContext.isPolyLoggingEnabled());
+        if (!buffer.offer(event)) {
+            handleOverflow(event);
+        }
+        if (writerParked) {
+            LockSupport.unpark(currentWriter);
+        }
+    }
+
+    private void handleOverflow(BufferedEvent event) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST -> {
+                while (!buffer.offer(event)) {
+                    if (buffer.poll() != null) {
+                        droppedEvents.incrementAndGet();
+                    }
+                }
+            }
+            case DROP_DEBUG -> {
+                if (event.event().getLevel().isGreaterOrEqual(Level.INFO)) {
+                    waitForSlot(event);
+                } else {
+                    droppedEvents.incrementAndGet();
+                }
+            }
+            case BLOCK -> waitForSlot(event);
+        }
+    }
+
+    private void waitForSlot(BufferedEvent event) {
+        while (!buffer.offer(event)) {
+            if (!running) {
+                droppedEvents.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, WAIT_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Waits until the events logged before the call are written or dropped, or the flush timeout expires.
+     */
+    public void flush() {
+        if (!isStarted() || Thread.currentThread() == writer) {
+            return;
+        }
+        long target = buffer.producerPosition();
+        long deadline = System.nanoTime() + MILLISECONDS.toNanos(flushTimeoutMillis);
+        while (writtenPosition < target && running) {
+            if (System.nanoTime() - deadline > 0) {
+                addWarn("Timed out flushing the log events.");
+                return;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, WAIT_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Requests the events logged before the call to be written, without waiting for them.
+     *
+     * @return CompletableFuture The future completed once they are written or dropped, or the flush timeout expires.
+     */
+    public CompletableFuture<Void> flushAsync() {
+        Thread currentWriter = writer;
+        if (!isStarted() || currentWriter == null || Thread.currentThread() == currentWriter) {
+            return completedFuture(null);
+        }
+        long target = buffer.producerPosition();
+        if (writtenPosition >= target) {
+            return completedFuture(null);
+        }
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        flushWaiters.add(new FlushWaiter(target, flushed));
+        LockSupport.unpark(currentWriter);
+        if (!running) {
+            // Stopped or suspended meanwhile, so the writer may not get to it.
+            completeFlushWaiters(Long.MAX_VALUE);
+        }
+        return flushed.completeOnTimeout(null, flushTimeoutMillis, MILLISECONDS);
+    }
+
+    /**
+     * @return long The number of events dropped because the buffer was full.
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * @return int The number of events waiting to be written.
+     */
+    public int getBufferedEvents() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    private void write() {
+        List<BufferedEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !buffer.isEmpty()) {
+            BufferedEvent event;
+            while (batch.size() < MAX_BATCH_SIZE && (event = buffer.poll()) != null) {
+                batch.add(event);
+            }
+            // Every position below the consumer position has been claimed either by this thread, and is in the batch,
+            // or by a producer dropping it.
+            long position = buffer.consumerPosition();
+            if (batch.isEmpty()) {
+                writtenPosition = position;
+                completeFlushWaiters(position);
+                writerParked = true;
+                if (running && buffer.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                writerParked = false;
+            } else {
+                dispatch(batch);
+                batch.clear();
+                writtenPosition = position;
+                completeFlushWaiters(position);
+            }
+        }
+    }
+
+    private void completeFlushWaiters(long position) {
+        if (!flushWaiters.isEmpty()) {
+            // Completed apart from the writer thread, so the stages that depend on them don't delay the logs.
+            Iterator<FlushWaiter> iterator = flushWaiters.iterator();
+            while (iterator.hasNext()) {
+                FlushWaiter waiter = iterator.next();
+                if (waiter.position() <= position) {
+                    iterator.remove();
+                    waiter.flushed().completeAsync(() -> null);
+                }
+            }
+        }
+    }
+
+    private void dispatch(List<BufferedEvent> batch) {
+        for (BufferedEvent event : batch) {
+            if (event.polyLog()) {
+                try (ExecutionContext.Scope scope = POLY_LOGS_CONTEXT.open()) {
+                    appenders.appendLoopOnAppenders(event.event());
+                }
+            } else {
+                appenders.appendLoopOnAppenders(event.event());
+            }
+        }
+        flushAppenders();
+    }
+
+    private void flushAppenders() {
+        appenders.iteratorForAppenders().forEachRemaining(appender -> {
+            if (appender instanceof OutputStreamAppender<ILoggingEvent> outputStreamAppender && !outputStreamAppender.isImmediateFlush()) {
+                try {
+                    outputStreamAppender.getOutputStream().flush();
+                } catch (IOException e) {
+                    addError("Error flushing appender [" + appender.getName() + "].", e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,147 @@
+package io.polyapi.knative.function.log;
+
+import lombok.Getter;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Context of the function execution running on the current thread, used by the Poly appenders to route its logs.
+ * <p>
+ * The context is bound to the thread that runs the execution and inherited by the threads the function starts, so it
+ * works with any executor and doesn't depend on thread names. Tasks submitted to executors owned by the function don't
+ * inherit it, as their threads may already exist; wrap them with {@link #wrap(Runnable)} or {@link #wrap(Callable)}.
+ * Once the execution is {@link #end() ended}, the threads that inherited its context stop routing their logs as Poly
+ * logs, even if they outlive it, and threads started afterwards don't inherit it.
+ */
+public class ExecutionContext {
+    private static final InheritableThreadLocal<ExecutionContext> CURRENT = new InheritableThreadLocal<>() {
+        @Override
+        protected ExecutionContext childValue(ExecutionContext parentValue) {
+            // Threads started after the execution ended, e.g. by a pool shared with other executions, don't hold it.
+            return parentValue != null && parentValue.active ? parentValue : null;
+        }
+    };
+
+    @Getter
+    private final String executionId;
+
+    @Getter
+    private final boolean logsEnabled;
+
+    @Getter
+    private volatile LogCapture logCapture;
+
+    private volatile boolean active = true;
+
+    public ExecutionContext(String executionId, boolean logsEnabled) {
+        this(executionId, logsEnabled, null);
+    }
+
+    public ExecutionContext(String executionId, boolean logsEnabled, LogCapture logCapture) {
+        this.executionId = executionId;
+        this.logsEnabled = logsEnabled;
+        this.logCapture = logCapture;
+    }
+
+    /**
+     * Retrieves the context of the execution running on the current thread.
+     *
+     * @return ExecutionContext The context, or null if no active execution runs on the current thread.
+     */
+    public static ExecutionContext current() {
+        ExecutionContext context = CURRENT.get();
+        return context != null && context.active ? context : null;
+    }
+
+    /**
+     * Checks whether the logs of the current thread are Poly logs. This is called for every log event, so it only
+     * reads the thread local and the context flags.
+     *
+     * @return boolean True if an active execution with Poly logs enabled runs on the current thread.
+     */
+    public static boolean isPolyLoggingEnabled() {
+        ExecutionContext context = CURRENT.get();
+        return context != null && context.logsEnabled && context.active;
+    }
+
+    /**
+     * Binds the context of the execution running on the current thread to a task, so it applies wherever the task
+     * runs.
+     *
+     * @param task The task.
+     * @return Runnable The task running within the current context, or the task itself if there is none.
+     */
+    public static Runnable wrap(Runnable task) {
+        ExecutionContext context = current();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = context.open()) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Binds the context of the execution running on the current thread to a task, so it applies wherever the task
+     * runs.
+     *
+     * @param task The task.
+     * @param <T> The type of the result of the task.
+     * @return Callable The task running within the current context, or the task itself if there is none.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        ExecutionContext context = current();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = context.open()) {
+                return task.call();
+            }
+        };
+    }
+
+    /**
+     * Binds this context to the current thread until the returned scope is closed.
+     *
+     * @return Scope The scope to close once the thread stops working for the execution.
+     */
+    public Scope open() {
+        return new Scope(this);
+    }
+
+    /**
+     * Marks the execution as finished and unbinds it from the current thread. Threads still holding this context no
+     * longer route their logs as Poly logs, and don't keep its {@link LogCapture}.
+     */
+    public void end() {
+        active = false;
+        logCapture = null;
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Binding of an {@link ExecutionContext} to a thread. Closing it restores the context the thread had before.
+     */
+    public static class Scope implements AutoCloseable {
+        private final ExecutionContext previous;
+
+        private Scope(ExecutionContext context) {
+            this.previous = CURRENT.get();
+            CURRENT.set(context);
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
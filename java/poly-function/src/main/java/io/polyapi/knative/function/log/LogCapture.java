@@ -0,0 +1,77 @@
+package io.polyapi.knative.function.log;
+
+import io.polyapi.knative.function.model.CapturedLogs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffer of the Poly logs of a single execution, bounded by a byte limit of its own and by the
+ * {@link LogCaptureBudget} shared by all the executions. Lines are kept in order until a line doesn't fit. From then on
+ * every line is counted as truncated, so the captured logs are always a prefix of the execution's logs.
+ */
+public class LogCapture {
+    private final LogCaptureBudget budget;
+    private final long maxBytes;
+    private final List<String> lines = new ArrayList<>();
+    private long size;
+    private int truncatedLines;
+    private CapturedLogs result;
+
+    LogCapture(LogCaptureBudget budget, long maxBytes) {
+        this.budget = budget;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Adds a line to the capture if it fits in the limits.
+     *
+     * @param line The formatted log line.
+     */
+    public synchronized void append(String line) {
+        if (result != null) {
+            return;
+        }
+        if (truncatedLines == 0) {
+            long bytes = utf8Length(line);
+            if (size + bytes <= maxBytes && budget.reserve(bytes)) {
+                lines.add(line);
+                size += bytes;
+                return;
+            }
+        }
+        truncatedLines++;
+    }
+
+    /**
+     * Closes the capture and returns the memory it holds to the budget. Later calls return the same result.
+     *
+     * @return CapturedLogs The captured lines and the number of lines truncated.
+     */
+    public synchronized CapturedLogs finish() {
+        if (result == null) {
+            result = new CapturedLogs(List.copyOf(lines), truncatedLines);
+            lines.clear();
+            budget.release(size);
+        }
+        return result;
+    }
+
+    private static long utf8Length(String line) {
+        long length = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,45 @@
+package io.polyapi.knative.function.log;
+
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Appender that adds the Poly logs to the {@link LogCapture} of the execution that emits them, if it has one. It must
+ * be attached directly to the logger, not behind an {@link AsyncPolyAppender}, as the capture is taken from the
+ * {@link ExecutionContext} of the logging thread.
+ */
+public class LogCaptureAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    @Getter
+    @Setter
+    private String pattern = "%d{HH:mm:ss.SSS} [%level] %msg";
+
+    private PatternLayout layout;
+
+    @Override
+    public void start() {
+        layout = new PatternLayout();
+        layout.setContext(getContext());
+        layout.setPattern(pattern);
+        layout.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        layout.stop();
+    }
+
+    @Override
+    protected void append(ILoggingEvent eventObject) {
+        ExecutionContext context = ExecutionContext.current();
+        LogCapture logCapture = context == null || !context.isLogsEnabled() ? null : context.getLogCapture();
+        if (logCapture != null) {
+            logCapture.append(layout.doLayout(eventObject));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.polyapi.knative.function.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory available to capture the Poly logs of the executions, shared by all of them.
+ */
+public class LogCaptureBudget {
+    private final boolean enabled;
+    private final long maxBytesPerExecution;
+    private final AtomicLong availableBytes;
+
+    public LogCaptureBudget(boolean enabled, long maxBytesPerExecution, long maxTotalBytes) {
+        this.enabled = enabled;
+        this.maxBytesPerExecution = maxBytesPerExecution;
+        this.availableBytes = new AtomicLong(maxTotalBytes);
+    }
+
+    /**
+     * Starts capturing the logs of an execution.
+     *
+     * @return LogCapture The capture, or null if capturing is disabled.
+     */
+    public LogCapture open() {
+        return enabled ? new LogCapture(this, maxBytesPerExecution) : null;
+    }
+
+    boolean reserve(long bytes) {
+        long available;
+        do {
+            available = availableBytes.get();
+            if (available < bytes) {
+                return false;
+            }
+        } while (!availableBytes.compareAndSet(available, available - bytes));
+        return true;
+    }
+
+    void release(long bytes) {
+        availableBytes.addAndGet(bytes);
+    }
+
+    long getAvailableBytes() {
+        return availableBytes.get();
+    }
+}
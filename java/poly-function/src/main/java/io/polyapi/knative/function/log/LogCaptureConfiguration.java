@@ -0,0 +1,25 @@
+package io.polyapi.knative.function.log;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration of the capture of the Poly logs returned with the trigger results.
+ */
+@Slf4j
+@Configuration
+public class LogCaptureConfiguration {
+
+    @Bean
+    public LogCaptureBudget logCaptureBudget(@Value("${polyapi.function.log.capture.enabled:false}") boolean enabled,
+                                             @Value("${polyapi.function.log.capture.max-bytes-per-execution:64KB}") DataSize maxBytesPerExecution,
+                                             @Value("${polyapi.function.log.capture.max-total-bytes:16MB}") DataSize maxTotalBytes) {
+        if (enabled) {
+            log.info("Capturing up to {} bytes of Poly logs per execution and {} bytes in total.", maxBytesPerExecution.toBytes(), maxTotalBytes.toBytes());
+        }
+        return new LogCaptureBudget(enabled, maxBytesPerExecution.toBytes(), maxTotalBytes.toBytes());
+    }
+}
@@ -0,0 +1,21 @@
+package io.polyapi.knative.function.log;
+
+/**
+ * What an {@link AsyncPolyAppender} does with a log event when its buffer is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * The logging thread waits until the writer frees a slot. No event is lost.
+     */
+    BLOCK,
+
+    /**
+     * Events below INFO are dropped. The logging thread waits for the rest.
+     */
+    DROP_DEBUG,
+
+    /**
+     * The oldest buffered event is dropped to make room. The logging thread never waits.
+     */
+    DROP_OLDEST
+}
@@ -3,10 +3,14 @@ package io.polyapi.knative.function.log;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.ConsoleAppender;
 
+/**
+ * Console appender that splits the logs between Poly logs, emitted by executions with logs enabled, and standard logs.
+ * Events are routed on the {@link ExecutionContext} of the thread that appends them: the thread that emits them, or the
+ * writer of an {@link AsyncPolyAppender}, which replays their routing.
+ */
 public class PolyAppender extends ConsoleAppender<ILoggingEvent> {
-    public static final String LOGGING_THREAD_PREFIX = "Poly-log-";
 
-    protected boolean isLoggingThread(ILoggingEvent eventObject) {
-        return eventObject.getThreadName().startsWith(LOGGING_THREAD_PREFIX);
+    protected boolean isPolyLog(ILoggingEvent eventObject) {
+        return ExecutionContext.isPolyLoggingEnabled();
     }
 }
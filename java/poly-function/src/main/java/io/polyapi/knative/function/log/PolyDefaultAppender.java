@@ -5,7 +5,7 @@ import ch.qos.logback.classic.spi.ILoggingEvent;
 public class PolyDefaultAppender extends PolyAppender {
     @Override
     protected void append(ILoggingEvent eventObject) {
-        if (isLoggingThread(eventObject)) {
+        if (isPolyLog(eventObject)) {
             super.append(eventObject);
         }
     }
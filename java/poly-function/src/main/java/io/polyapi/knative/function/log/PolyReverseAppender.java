@@ -6,7 +6,7 @@ public class PolyReverseAppender extends PolyAppender {
 
     @Override
     protected void append(ILoggingEvent eventObject) {
-        if (!isLoggingThread(eventObject)) {
+        if (!isPolyLog(eventObject)) {
             super.append(eventObject);
         }
     }
@@ -0,0 +1,108 @@
+package io.polyapi.knative.function.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue backed by an array. Producers and consumers claim positions with a compare-and-set on their
+ * own counter, and every slot holds the sequence that tells whether it is ready to be written or read, so neither side
+ * ever takes a lock. The capacity is rounded up to a power of two.
+ *
+ * @param <E> The type of the elements.
+ */
+class RingBuffer<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerPosition = new AtomicLong();
+    private final AtomicLong consumerPosition = new AtomicLong();
+
+    RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element at the end of the buffer.
+     *
+     * @param element The element.
+     * @return boolean False if the buffer is full.
+     */
+    boolean offer(E element) {
+        long position = producerPosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long distance = sequences.get(index) - position;
+            if (distance == 0) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = producerPosition.get();
+            } else if (distance < 0) {
+                return false;
+            } else {
+                position = producerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the first element of the buffer.
+     *
+     * @return E The element, or null if the buffer is empty.
+     */
+    E poll() {
+        long position = consumerPosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long distance = sequences.get(index) - (position + 1);
+            if (distance == 0) {
+                if (consumerPosition.compareAndSet(position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = consumerPosition.get();
+            } else if (distance < 0) {
+                return null;
+            } else {
+                position = consumerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * @return long The number of elements ever claimed by producers.
+     */
+    long producerPosition() {
+        return producerPosition.get();
+    }
+
+    /**
+     * @return long The number of elements ever claimed by consumers.
+     */
+    long consumerPosition() {
+        return consumerPosition.get();
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    int size() {
+        return (int) Math.max(0, producerPosition.get() - consumerPosition.get());
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,17 @@
+package io.polyapi.knative.function.metrics;
+
+/**
+ * Endpoints through which the function is invoked.
+ */
+public enum InvocationEndpoint {
+    INVOKE,
+    TRIGGER,
+    BATCH,
+    TRIGGER_BATCH;
+
+    private final String tag = name().toLowerCase();
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,68 @@
+package io.polyapi.knative.function.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.stereotype.Component;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Publishes the {@link InvocationTimings} of every request as the 'polyapi.function.invocation.phase' timer, with
+ * percentile histograms, tagged by function, endpoint, phase and outcome. The timers are resolved once per combination
+ * of tags, so recording doesn't allocate.
+ */
+@Component
+public class InvocationMetrics {
+    private static final String METRIC_NAME = "polyapi.function.invocation.phase";
+    private static final InvocationPhase[] PHASES = InvocationPhase.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final MeterRegistry meterRegistry;
+    private final String functionId;
+    private final Timer[][][] timers = new Timer[InvocationEndpoint.values().length][OUTCOMES.length][PHASES.length];
+
+    public InvocationMetrics(MeterRegistry meterRegistry, @Value("${polyapi.function.id:}") String functionId) {
+        this.meterRegistry = meterRegistry;
+        this.functionId = functionId;
+    }
+
+    /**
+     * Records the phases of a finished request, closing its {@link InvocationPhase#SERIALIZE} and
+     * {@link InvocationPhase#TOTAL} phases.
+     *
+     * @param timings The timings of the request.
+     * @param statusCode The status code of the response.
+     */
+    public void record(InvocationTimings timings, int statusCode) {
+        long now = System.nanoTime();
+        if (timings.getHandledAt() > 0) {
+            timings.record(InvocationPhase.SERIALIZE, now - timings.getHandledAt());
+        }
+        timings.record(InvocationPhase.TOTAL, now - timings.getStart());
+        Outcome outcome = Outcome.forStatus(statusCode);
+        for (InvocationPhase phase : PHASES) {
+            if (timings.isRecorded(phase)) {
+                getTimer(timings.getEndpoint(), outcome, phase).record(timings.get(phase), NANOSECONDS);
+            }
+        }
+    }
+
+    private Timer getTimer(InvocationEndpoint endpoint, Outcome outcome, InvocationPhase phase) {
+        Timer timer = timers[endpoint.ordinal()][outcome.ordinal()][phase.ordinal()];
+        if (timer == null) {
+            // Concurrent initializations get the same timer from the registry.
+            timer = Timer.builder(METRIC_NAME)
+                    .description("Duration of each phase of the function invocations.")
+                    .tag("function", functionId)
+                    .tag("endpoint", endpoint.getTag())
+                    .tag("phase", phase.getTag())
+                    .tag("outcome", outcome.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            timers[endpoint.ordinal()][outcome.ordinal()][phase.ordinal()] = timer;
+        }
+        return timer;
+    }
+}
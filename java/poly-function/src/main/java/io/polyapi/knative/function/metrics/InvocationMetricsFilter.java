@@ -0,0 +1,40 @@
+package io.polyapi.knative.function.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Records the {@link InvocationTimings} left by the controllers in the request once the response is written. For
+ * asynchronous requests this happens at the end of the last dispatch.
+ */
+@Setter
+@Component
+public class InvocationMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private InvocationMetrics invocationMetrics;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!request.isAsyncStarted() && request.getAttribute(InvocationTimings.REQUEST_ATTRIBUTE) instanceof InvocationTimings timings) {
+                invocationMetrics.record(timings, response.getStatus());
+            }
+        }
+    }
+}
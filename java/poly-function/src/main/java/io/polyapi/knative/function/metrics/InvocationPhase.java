@@ -0,0 +1,47 @@
+package io.polyapi.knative.function.metrics;
+
+/**
+ * Phases of an invocation timed by {@link InvocationTimings}.
+ */
+public enum InvocationPhase {
+    /**
+     * Parsing of the request body into the function arguments. Both happen in a single pass over the body.
+     */
+    BIND,
+
+    /**
+     * Wait for an admission slot and for a thread of the execution engine.
+     */
+    QUEUE,
+
+    /**
+     * Creation, or checkout from the pool, of the function instance.
+     */
+    CONSTRUCT,
+
+    /**
+     * Injection of the PolyCustom of the execution into the function instance.
+     */
+    INJECT,
+
+    /**
+     * Call to the function method, including the wait for asynchronous results.
+     */
+    EXECUTE,
+
+    /**
+     * Writing of the response, from the moment the result is handed to the web layer.
+     */
+    SERIALIZE,
+
+    /**
+     * Whole request.
+     */
+    TOTAL;
+
+    private final String tag = name().toLowerCase();
+
+    public String getTag() {
+        return tag;
+    }
+}
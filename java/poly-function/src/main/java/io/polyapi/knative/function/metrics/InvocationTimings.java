@@ -0,0 +1,115 @@
+package io.polyapi.knative.function.metrics;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Durations of the {@link InvocationPhase}s of an invocation, in nanoseconds. A phase recorded several times
+ * accumulates its durations. The phases are recorded one after the other, possibly from different threads chained
+ * through the futures of the invocation, so no synchronization is needed.
+ */
+public class InvocationTimings {
+    public static final String REQUEST_ATTRIBUTE = InvocationTimings.class.getName();
+
+    private static final InvocationPhase[] PHASES = InvocationPhase.values();
+
+    @Getter
+    private final InvocationEndpoint endpoint;
+
+    @Getter
+    private final long start = System.nanoTime();
+
+    private final long[] durations = new long[PHASES.length];
+    private int recordedPhases;
+
+    @Getter
+    private long handledAt;
+
+    @Getter
+    private boolean coldStart;
+
+    public InvocationTimings() {
+        this(null);
+    }
+
+    public InvocationTimings(InvocationEndpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Adds a duration to a phase.
+     *
+     * @param phase The phase.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(InvocationPhase phase, long nanos) {
+        durations[phase.ordinal()] += nanos;
+        recordedPhases |= 1 << phase.ordinal();
+    }
+
+    /**
+     * Adds to a phase the time elapsed since a {@link System#nanoTime()} reading.
+     *
+     * @param phase The phase.
+     * @param startNanos The reading taken when the phase started.
+     */
+    public void recordSince(InvocationPhase phase, long startNanos) {
+        record(phase, System.nanoTime() - startNanos);
+    }
+
+    public boolean isRecorded(InvocationPhase phase) {
+        return (recordedPhases & 1 << phase.ordinal()) != 0;
+    }
+
+    public long get(InvocationPhase phase) {
+        return durations[phase.ordinal()];
+    }
+
+    /**
+     * Adds the phases recorded by another timing, such as the one of the execution, to this one.
+     *
+     * @param other The other timing. Ignored if null.
+     */
+    public void merge(InvocationTimings other) {
+        if (other != null) {
+            coldStart |= other.coldStart;
+            for (InvocationPhase phase : PHASES) {
+                if (other.isRecorded(phase)) {
+                    record(phase, other.get(phase));
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the recorded phases.
+     *
+     * @return Map The durations in nanoseconds keyed by the tag of their phase, in the order of the phases.
+     */
+    public Map<String, Long> getRecordedPhases() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (InvocationPhase phase : PHASES) {
+            if (isRecorded(phase)) {
+                result.put(phase.getTag(), get(phase));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks the timings as the ones of the first execution, which pays for the class loading and the JIT compilation
+     * of the code path.
+     */
+    public void markColdStart() {
+        coldStart = true;
+    }
+
+    /**
+     * Marks the moment the result is handed to the web layer, where the serialization of the response starts.
+     */
+    public void markHandled() {
+        handledAt = System.nanoTime();
+    }
+}
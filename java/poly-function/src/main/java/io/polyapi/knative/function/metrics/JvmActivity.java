@@ -0,0 +1,55 @@
+package io.polyapi.knative.function.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Counters of the JVM activity that competes with the executions: garbage collection, JIT compilation and class
+ * loading. A snapshot taken before an execution is subtracted from one taken after it to tell how much of its time went
+ * to warming up the JVM. The counters are JVM-wide, so executions running at the same time share their activity.
+ * <p>
+ * The JVM doesn't expose the time spent loading classes without internal APIs, so class loading is counted in classes
+ * loaded rather than time.
+ */
+@Getter
+@AllArgsConstructor
+public class JvmActivity {
+    private static final List<GarbageCollectorMXBean> GARBAGE_COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+    private static final CompilationMXBean COMPILATION = ManagementFactory.getCompilationMXBean();
+    private static final ClassLoadingMXBean CLASS_LOADING = ManagementFactory.getClassLoadingMXBean();
+
+    private final long gcTimeMillis;
+    private final long compilationTimeMillis;
+    private final long loadedClassCount;
+
+    public static JvmActivity snapshot() {
+        long gcTime = 0;
+        for (GarbageCollectorMXBean collector : GARBAGE_COLLECTORS) {
+            gcTime += Math.max(collector.getCollectionTime(), 0);
+        }
+        long compilationTime = COMPILATION != null && COMPILATION.isCompilationTimeMonitoringSupported() ? COMPILATION.getTotalCompilationTime() : 0;
+        return new JvmActivity(gcTime, compilationTime, CLASS_LOADING.getTotalLoadedClassCount());
+    }
+
+    /**
+     * Retrieves the activity between an earlier snapshot and this one.
+     *
+     * @param earlier The earlier snapshot.
+     * @return JvmActivity The difference between both snapshots.
+     */
+    public JvmActivity since(JvmActivity earlier) {
+        return new JvmActivity(gcTimeMillis - earlier.gcTimeMillis,
+                compilationTimeMillis - earlier.compilationTimeMillis,
+                loadedClassCount - earlier.loadedClassCount);
+    }
+
+    public static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,24 @@
+package io.polyapi.knative.function.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Poly logs captured during an execution.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class CapturedLogs {
+    private final List<String> lines;
+
+    /**
+     * Lines left out because the capture limits were reached.
+     */
+    private final int truncatedLines;
+}
@@ -0,0 +1,51 @@
+package io.polyapi.knative.function.model;
+
+import io.polyapi.knative.function.lifecycle.LifecycleMode;
+import io.polyapi.knative.function.service.invoker.FunctionInvoker;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable description of how the server function is invoked. It is resolved once when the application starts so that
+ * no reflective lookup of the function class, method or parameter types is done on a per-request basis.
+ */
+@Getter
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class InvocationPlan {
+
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private final Class<?> functionClass;
+
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private final Method method;
+
+    private final List<Class<?>> parameterClasses;
+    private final List<Type> parameterTypes;
+    private final FunctionInvoker invoker;
+
+    @ToString.Include
+    private final LifecycleMode lifecycleMode;
+
+    public InvocationPlan(Class<?> functionClass, Method method, FunctionInvoker invoker, LifecycleMode lifecycleMode) {
+        this.functionClass = functionClass;
+        this.method = method;
+        this.invoker = invoker;
+        this.lifecycleMode = lifecycleMode;
+        this.parameterClasses = List.of(method.getParameterTypes());
+        this.parameterTypes = Arrays.stream(method.getParameters()).map(Parameter::getParameterizedType).toList();
+    }
+
+    public int getParameterCount() {
+        return parameterTypes.size();
+    }
+}
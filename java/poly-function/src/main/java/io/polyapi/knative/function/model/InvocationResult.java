@@ -1,6 +1,7 @@
 package io.polyapi.knative.function.model;
 
 import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.metrics.InvocationTimings;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
@@ -14,9 +15,24 @@ public class InvocationResult {
 
     private final Optional<Object> data;
     private final PolyCustom metadata;
+    private final CapturedLogs logs;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final InvocationTimings timings;
 
     public InvocationResult(Object data, PolyCustom metadata) {
+        this(data, metadata, null);
+    }
+
+    public InvocationResult(Object data, PolyCustom metadata, CapturedLogs logs) {
+        this(data, metadata, logs, null);
+    }
+
+    public InvocationResult(Object data, PolyCustom metadata, CapturedLogs logs, InvocationTimings timings) {
         this.data = Optional.ofNullable(data);
         this.metadata = metadata;
+        this.logs = logs;
+        this.timings = timings;
     }
 }
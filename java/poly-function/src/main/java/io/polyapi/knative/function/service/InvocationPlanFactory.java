@@ -0,0 +1,147 @@
+package io.polyapi.knative.function.service;
+
+import io.polyapi.knative.function.error.function.state.ExecutionMethodNotFoundException;
+import io.polyapi.knative.function.error.function.state.InvalidArgumentTypeException;
+import io.polyapi.knative.function.error.function.state.PolyFunctionNotFoundException;
+import io.polyapi.knative.function.lifecycle.FunctionLifecycle;
+import io.polyapi.knative.function.lifecycle.LifecycleMode;
+import io.polyapi.knative.function.model.InvocationPlan;
+import io.polyapi.knative.function.service.invoker.FunctionInvoker;
+import io.polyapi.knative.function.service.invoker.FunctionInvokerType;
+import io.polyapi.knative.function.service.invoker.MethodHandleFunctionInvoker;
+import io.polyapi.knative.function.service.invoker.ReflectionFunctionInvoker;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static io.polyapi.knative.function.lifecycle.LifecycleMode.PROTOTYPE;
+import static io.polyapi.knative.function.service.invoker.FunctionInvokerType.METHOD_HANDLE;
+import static java.util.function.Predicate.not;
+
+/**
+ * Factory that resolves the configured function class, method and parameter types into an {@link InvocationPlan}.
+ */
+@Slf4j
+@Setter
+@Component
+public class InvocationPlanFactory {
+
+    @Value("${polyapi.function.class:io.polyapi.knative.function.PolyCustomFunction}")
+    private String functionQualifiedName;
+
+    @Value("${polyapi.function.method:execute}")
+    private String methodName;
+
+    @Value("${polyapi.function.params:#{null}}")
+    private String parameterTypes;
+
+    @Value("${polyapi.function.invoker:METHOD_HANDLE}")
+    private FunctionInvokerType invokerType = METHOD_HANDLE;
+
+    @Value("${polyapi.function.lifecycle:PROTOTYPE}")
+    private LifecycleMode lifecycleMode = PROTOTYPE;
+
+    /**
+     * Creates the {@link InvocationPlan} for the function configured in the application properties.
+     *
+     * @return InvocationPlan The resolved plan.
+     */
+    public InvocationPlan create() {
+        return create(functionQualifiedName, methodName, parameterTypes);
+    }
+
+    /**
+     * Resolves the function class, method and parameter types into an {@link InvocationPlan}.
+     *
+     * @param functionQualifiedName The qualified name of the class that contains the function.
+     * @param methodName The name of the method to execute.
+     * @param parameterTypes Comma separated list of the qualified names of the parameter types. If null, the first method with the given name is used.
+     * @return InvocationPlan The resolved plan.
+     */
+    public InvocationPlan create(String functionQualifiedName, String methodName, String parameterTypes) {
+        try {
+            log.debug("Loading class {}.", functionQualifiedName);
+            Class<?> functionClass = Class.forName(functionQualifiedName);
+            log.debug("Class {} loaded successfully.", functionQualifiedName);
+            Method functionMethod;
+            if (parameterTypes == null) {
+                functionMethod = Arrays.stream(functionClass.getDeclaredMethods()).filter(method -> method.getName().equals(methodName)).findFirst().orElseThrow(() -> new ExecutionMethodNotFoundException(methodName));
+            } else {
+                log.debug("Loading parameter types: [{}].", parameterTypes);
+                Class<?>[] paramTypes = Optional.of(parameterTypes)
+                        .filter(not(String::isBlank))
+                        .map(params -> params.split(","))
+                        .stream()
+                        .flatMap(Arrays::stream)
+                        .map(String::trim)
+                        .map(this::loadParameterType)
+                        .toArray(Class<?>[]::new);
+                log.debug("Parameter types loaded successfully.");
+                log.debug("Retrieving method {}.{}({}).", functionQualifiedName, methodName, parameterTypes);
+                functionMethod = functionClass.getDeclaredMethod(methodName, paramTypes);
+                log.debug("Method {} retrieved successfully.", functionMethod);
+            }
+            return create(functionClass, functionMethod);
+        } catch (NoSuchMethodException e) {
+            throw new ExecutionMethodNotFoundException(methodName, parameterTypes, e);
+        } catch (ClassNotFoundException e) {
+            throw new PolyFunctionNotFoundException(e);
+        }
+    }
+
+    /**
+     * Creates the {@link InvocationPlan} for an already resolved class and method.
+     *
+     * @param functionClass The class that contains the function.
+     * @param method The method to execute.
+     * @return InvocationPlan The resolved plan.
+     */
+    public InvocationPlan create(Class<?> functionClass, Method method) {
+        InvocationPlan plan = new InvocationPlan(functionClass, method, createInvoker(method), Optional.ofNullable(functionClass.getAnnotation(FunctionLifecycle.class))
+                .map(FunctionLifecycle::value)
+                .orElse(lifecycleMode));
+        log.info("Invocation plan resolved for {}.", plan);
+        return plan;
+    }
+
+    private FunctionInvoker createInvoker(Method method) {
+        if (invokerType == METHOD_HANDLE) {
+            try {
+                log.debug("Binding method handle invoker for {}.", method);
+                return new MethodHandleFunctionInvoker(method);
+            } catch (IllegalAccessException e) {
+                log.debug("Method {} cannot be bound to a method handle. Falling back to reflection.", method, e);
+            }
+        }
+        return new ReflectionFunctionInvoker(method);
+    }
+
+    private Class<?> loadParameterType(String qualifiedName) {
+        log.debug("Loading class for parameter type '{}'.", qualifiedName);
+        Class<?> result = switch (qualifiedName) {
+            case "boolean" -> boolean.class;
+            case "byte" -> byte.class;
+            case "short" -> short.class;
+            case "int" -> int.class;
+            case "long" -> long.class;
+            case "float" -> float.class;
+            case "double" -> double.class;
+            case "char" -> char.class;
+            case "void" -> void.class;
+            default -> {
+                try {
+                    yield Class.forName(qualifiedName);
+                } catch (ClassNotFoundException e) {
+                    throw new InvalidArgumentTypeException(qualifiedName, e);
+                }
+            }
+        };
+        log.debug("Class loaded successfully.");
+        return result;
+    }
+}
@@ -1,8 +1,9 @@
 package io.polyapi.knative.function.service;
 
+import io.polyapi.knative.function.model.InvocationPlan;
 import io.polyapi.knative.function.model.InvocationResult;
 
-import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface of the function server invocation.
@@ -12,12 +13,38 @@ public interface InvocationService {
     /**
      * Invokes the server function.
      *
-     * @param clazz The class that contains the function to be invoked.
-     * @param method The method of the function to execute.
+     * @param plan The resolved plan containing the class and method of the function to execute.
      * @param arguments  The arguments with which the function will be executed.
      * @param logsEnabled Flag indicating if logs should be enabled.
      * @param executionId The execution ID of the function.
      * @return InvocationResult The result of the function call. Contains the data with the function result (null in case no result is returned) and the PolyCustom metadata.
      */
-    InvocationResult invokeFunction(Class<?> clazz, Method method, Object[] arguments, boolean logsEnabled, String executionId);
+    InvocationResult invokeFunction(InvocationPlan plan, Object[] arguments, boolean logsEnabled, String executionId);
+
+    /**
+     * Invokes the server function without blocking the calling thread. Results of type {@link java.util.concurrent.CompletionStage} or
+     * {@link reactor.core.publisher.Mono} are unwrapped once they complete.
+     *
+     * @param plan The resolved plan containing the class and method of the function to execute.
+     * @param arguments  The arguments with which the function will be executed.
+     * @param logsEnabled Flag indicating if logs should be enabled.
+     * @param executionId The execution ID of the function.
+     * @return CompletableFuture The future completed with the result of the function call, or exceptionally with a
+     * {@link io.polyapi.knative.function.error.PolyKNativeFunctionException} if the execution fails.
+     */
+    CompletableFuture<InvocationResult> invokeFunctionAsync(InvocationPlan plan, Object[] arguments, boolean logsEnabled, String executionId);
+
+    /**
+     * Starts the server function without waiting for it to finish, like {@link #invokeFunctionAsync}, so admission
+     * rejections can be answered apart from the result.
+     *
+     * @param plan The resolved plan containing the class and method of the function to execute.
+     * @param arguments  The arguments with which the function will be executed.
+     * @param logsEnabled Flag indicating if logs should be enabled.
+     * @param executionId The execution ID of the function.
+     * @return CompletableFuture The future completed with the future of the result once the execution is admitted, or
+     * exceptionally with an {@link io.polyapi.knative.function.error.function.admission.AdmissionException} if it's
+     * rejected.
+     */
+    CompletableFuture<CompletableFuture<InvocationResult>> startFunctionAsync(InvocationPlan plan, Object[] arguments, boolean logsEnabled, String executionId);
 }
@@ -3,33 +3,41 @@ package io.polyapi.knative.function.service;
 import io.polyapi.client.api.model.function.PolyCustom;
 import io.polyapi.commons.api.error.PolyApiExecutionException;
 import io.polyapi.knative.function.error.PolyKNativeFunctionException;
-import io.polyapi.knative.function.error.function.creation.FunctionCreationException;
 import io.polyapi.knative.function.error.function.execution.PolyApiExecutionExceptionWrapperException;
-import io.polyapi.knative.function.error.function.execution.PolyCustomInjectionException;
 import io.polyapi.knative.function.error.function.execution.UnexpectedFunctionExecutionException;
 import io.polyapi.knative.function.error.function.execution.WrongArgumentsException;
-import io.polyapi.knative.function.error.function.state.ClassNotInstantiableException;
-import io.polyapi.knative.function.error.function.state.ConstructorNotAccessibleException;
-import io.polyapi.knative.function.error.function.state.ConstructorNotFoundException;
 import io.polyapi.knative.function.error.function.state.ExecutionMethodNotAccessibleException;
+import io.polyapi.knative.function.log.AsyncPolyAppender;
+import io.polyapi.knative.function.log.ExecutionContext;
+import io.polyapi.knative.function.log.LogCapture;
+import io.polyapi.knative.function.log.LogCaptureBudget;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import io.polyapi.knative.function.model.InvocationPlan;
 import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.admission.AdmissionGate;
+import io.polyapi.knative.function.service.execution.ExecutionEngine;
+import io.polyapi.knative.function.service.instance.FunctionInstanceProviderRegistry;
+import io.polyapi.knative.function.service.idempotency.IdempotencyCache;
+import io.polyapi.knative.function.service.instance.PolyCustomScope;
+import io.polyapi.knative.function.warmup.FunctionWarmUp;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static io.polyapi.knative.function.log.PolyAppender.LOGGING_THREAD_PREFIX;
-import static java.lang.Math.min;
-import static java.lang.String.format;
+import static io.polyapi.knative.function.metrics.InvocationPhase.EXECUTE;
+import static io.polyapi.knative.function.metrics.InvocationPhase.QUEUE;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
@@ -43,59 +51,27 @@ public class InvocationServiceImpl implements InvocationService {
     @Value("${polyapi.function.api.key:}")
     private String apiKey;
 
+    @Autowired
+    private ExecutionEngine executionEngine;
+
+    @Autowired
+    private AdmissionGate admissionGate;
+
+    @Autowired
+    private FunctionInstanceProviderRegistry instanceProviderRegistry;
+
+    @Autowired
+    private LogCaptureBudget logCaptureBudget;
+
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    private final AtomicBoolean executed = new AtomicBoolean();
+
     @Override
-    public InvocationResult invokeFunction(Class<?> clazz, Method method, Object[] arguments, boolean logsEnabled, String executionId) {
+    public InvocationResult invokeFunction(InvocationPlan plan, Object[] arguments, boolean logsEnabled, String executionId) {
         try {
-            CompletableFuture<Object> completableFuture = new CompletableFuture<>();
-            PolyCustom polyCustom = new PolyCustom(executionId, apiKey, OK.value(), APPLICATION_JSON_VALUE);
-            new Thread(() -> {
-                try {
-                    log.debug("Retrieving default constructor to setup the server function.");
-                    Constructor<?> constructor = clazz.getDeclaredConstructor();
-                    log.debug("Default constructor retrieved successfully.");
-                    log.debug("Instantiating function class {} using default constructor.", clazz.getName());
-                    Object function = constructor.newInstance();
-                    log.debug("Class {} instantiated successfully.", clazz.getName());
-                    try {
-                        Stream.concat(Arrays.stream(clazz.getFields()), Arrays.stream(clazz.getDeclaredFields())).filter(field -> field.getType().equals(PolyCustom.class)).forEach(field -> {
-                            try {
-                                log.debug("Setting up PolyCustom on field {}.", field.getName());
-                                field.setAccessible(true);
-                                field.set(function, polyCustom);
-                                log.debug("PolyCustom set successfully on field {}.", field.getName());
-                            } catch (IllegalAccessException e) {
-                                throw new PolyCustomInjectionException(field.getName(), e);
-                            }
-                        });
-                        log.info("Executing function '{}'.", functionId);
-                        Object result = method.invoke(function, Arrays.stream(arguments).toList().subList(0, min(method.getParameters().length, arguments.length)).toArray());
-                        log.info("Function '{}' executed successfully.", functionId);
-                        completableFuture.complete(result);
-                    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
-                        completableFuture.completeExceptionally(new WrongArgumentsException(method, e));
-                    } catch (IllegalAccessException e) {
-                        completableFuture.completeExceptionally(new ExecutionMethodNotAccessibleException(method, e));
-                    } catch (InvocationTargetException e) {
-                        if (e.getTargetException() instanceof PolyApiExecutionException expectedException) {
-                            completableFuture.completeExceptionally(new PolyApiExecutionExceptionWrapperException(expectedException));
-                        } else {
-                            completableFuture.completeExceptionally(new UnexpectedFunctionExecutionException(e.getCause()));
-                        }
-                    }
-                } catch (InvocationTargetException e) {
-                    completableFuture.completeExceptionally(new FunctionCreationException(e));
-                } catch (IllegalAccessException e) {
-                    completableFuture.completeExceptionally(new ConstructorNotAccessibleException(e));
-                } catch (InstantiationException e) {
-                    completableFuture.completeExceptionally(new ClassNotInstantiableException(clazz.getName(), e));
-                } catch (NoSuchMethodException e) {
-                    completableFuture.completeExceptionally(new ConstructorNotFoundException(e));
-                } catch (RuntimeException e) {
-                    completableFuture.completeExceptionally(e);
-                }
-            },
-                    format("%sThread-%s", logsEnabled ? LOGGING_THREAD_PREFIX : "", UUID.randomUUID())).start();
-            return new InvocationResult(completableFuture.get(), polyCustom);
+            return invokeFunctionAsync(plan, arguments, logsEnabled, executionId).get();
         } catch (InterruptedException e) {
             throw new UnexpectedFunctionExecutionException(e);
         } catch (ExecutionException e) {
@@ -106,4 +82,130 @@ public class InvocationServiceImpl implements InvocationService {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public CompletableFuture<InvocationResult> invokeFunctionAsync(InvocationPlan plan, Object[] arguments, boolean logsEnabled, String executionId) {
+        return start(plan, arguments, logsEnabled, executionId, new CompletableFuture<>());
+    }
+
+    @Override
+    public CompletableFuture<CompletableFuture<InvocationResult>> startFunctionAsync(InvocationPlan plan, Object[] arguments, boolean logsEnabled, String executionId) {
+        CompletableFuture<Void> admitted = new CompletableFuture<>();
+        CompletableFuture<InvocationResult> result = start(plan, arguments, logsEnabled, executionId, admitted);
+        return admitted.thenApply(ignored -> result);
+    }
+
+    private CompletableFuture<InvocationResult> start(InvocationPlan plan, Object[] arguments, boolean logsEnabled, String executionId, CompletableFuture<Void> admitted) {
+        if (FunctionWarmUp.EXECUTION_ID.equals(executionId)) {
+            // Warm-up executions share their ID and must all run.
+            return invoke(plan, arguments, logsEnabled, executionId, admitted);
+        }
+        // Duplicates are admitted, or rejected, with the execution they join.
+        return idempotencyCache.execute(executionId, admitted, () -> invoke(plan, arguments, logsEnabled, executionId, admitted));
+    }
+
+    private CompletableFuture<InvocationResult> invoke(InvocationPlan plan, Object[] arguments, boolean logsEnabled, String executionId, CompletableFuture<Void> admitted) {
+        PolyCustom polyCustom = new PolyCustom(executionId, apiKey, OK.value(), APPLICATION_JSON_VALUE);
+        LogCapture logCapture = logsEnabled ? logCaptureBudget.open() : null;
+        ExecutionContext context = new ExecutionContext(executionId, logsEnabled, logCapture);
+        InvocationTimings timings = new InvocationTimings();
+        if (!executed.get() && executed.compareAndSet(false, true)) {
+            timings.markColdStart();
+        }
+        long queuedAt = System.nanoTime();
+        return admissionGate.acquire()
+                .whenComplete((permit, error) -> {
+                    if (error == null) {
+                        admitted.complete(null);
+                    } else {
+                        admitted.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                    }
+                })
+                .thenCompose(permit -> {
+                    Runnable release = () -> {
+                        context.end();
+                        permit.close();
+                        if (logCapture != null) {
+                            logCapture.finish();
+                        }
+                    };
+                    CompletableFuture<Object> execution = executionEngine.execute(() -> execute(plan, arguments, polyCustom, timings, queuedAt), context)
+                            .thenCompose(result -> resolve(result, timings))
+                            // Lazy results produce their items while they are read, so the execution lasts until then.
+                            .thenApply(result -> StreamedResult.isStreamable(result) ? new StreamedResult(result, polyCustom, context, executionEngine, release) : result)
+                            .whenComplete((result, error) -> {
+                                if (!(result instanceof StreamedResult)) {
+                                    release.run();
+                                }
+                            });
+                    // The slot is released right away, and the response waits for the logs of the execution.
+                    return logsEnabled ? AsyncPolyAppender.afterFlush(execution) : execution;
+                })
+                .whenComplete((result, error) -> {
+                    if (error != null && logCapture != null) {
+                        logCapture.finish();
+                    }
+                })
+                .thenApply(result -> new InvocationResult(result, polyCustom, logCapture == null || result instanceof StreamedResult ? null : logCapture.finish(), timings));
+    }
+
+    private CompletableFuture<Object> resolve(Object result, InvocationTimings timings) {
+        if (!(result instanceof CompletionStage<?>) && !(result instanceof Mono<?>)) {
+            return completedFuture(result);
+        }
+        long start = System.nanoTime();
+        return resolve(result).whenComplete((value, error) -> timings.recordSince(EXECUTE, start));
+    }
+
+    private CompletableFuture<Object> resolve(Object result) {
+        CompletionStage<?> pendingResult;
+        if (result instanceof CompletionStage<?> completionStage) {
+            pendingResult = completionStage;
+        } else if (result instanceof Mono<?> mono) {
+            pendingResult = mono.toFuture();
+        } else {
+            return completedFuture(result);
+        }
+        log.debug("Function '{}' returned an asynchronous result of type {}.", functionId, result.getClass().getName());
+        return pendingResult.handle((value, error) -> {
+                    if (error != null) {
+                        throw translateAsyncError(error instanceof CompletionException ? error.getCause() : error);
+                    }
+                    return (Object) value;
+                })
+                .thenCompose(this::resolve)
+                .toCompletableFuture();
+    }
+
+    private PolyKNativeFunctionException translateAsyncError(Throwable error) {
+        if (error instanceof PolyApiExecutionException expectedException) {
+            return new PolyApiExecutionExceptionWrapperException(expectedException);
+        }
+        return new UnexpectedFunctionExecutionException(error);
+    }
+
+    private Object execute(InvocationPlan plan, Object[] arguments, PolyCustom polyCustom, InvocationTimings timings, long queuedAt) {
+        timings.recordSince(QUEUE, queuedAt);
+        Method method = plan.getMethod();
+        Object function = instanceProviderRegistry.get(plan).getInstance(polyCustom, timings);
+        long start = System.nanoTime();
+        try (PolyCustomScope scope = PolyCustomScope.open(polyCustom)) {
+            log.info("Executing function '{}'.", functionId);
+            Object result = plan.getInvoker().invoke(function, arguments);
+            log.info("Function '{}' executed successfully.", functionId);
+            return result;
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new WrongArgumentsException(method, e);
+        } catch (IllegalAccessException e) {
+            throw new ExecutionMethodNotAccessibleException(method, e);
+        } catch (InvocationTargetException e) {
+            if (e.getTargetException() instanceof PolyApiExecutionException expectedException) {
+                throw new PolyApiExecutionExceptionWrapperException(expectedException);
+            } else {
+                throw new UnexpectedFunctionExecutionException(e.getCause());
+            }
+        } finally {
+            timings.recordSince(EXECUTE, start);
+        }
+    }
+}
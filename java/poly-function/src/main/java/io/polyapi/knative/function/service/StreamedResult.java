@@ -0,0 +1,196 @@
+package io.polyapi.knative.function.service;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.commons.api.error.PolyApiExecutionException;
+import io.polyapi.knative.function.error.PolyKNativeFunctionException;
+import io.polyapi.knative.function.error.function.execution.PolyApiExecutionExceptionWrapperException;
+import io.polyapi.knative.function.error.function.execution.UnexpectedFunctionExecutionException;
+import io.polyapi.knative.function.log.AsyncPolyAppender;
+import io.polyapi.knative.function.log.ExecutionContext;
+import io.polyapi.knative.function.log.LogCapture;
+import io.polyapi.knative.function.model.CapturedLogs;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.execution.ExecutionEngine;
+import io.polyapi.knative.function.service.instance.PolyCustomScope;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.BaseStream;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+
+/**
+ * Result of a function that produces its items lazily ({@link java.util.stream.Stream}, {@link Iterator},
+ * {@link Iterable} other than collections and {@link Publisher} other than {@link Mono}). The items are produced by
+ * the function while they are read, so they are read on the {@link ExecutionEngine}, within the execution: its Poly
+ * logs are routed and captured, its {@link PolyCustom} is available, and it keeps its admission slot. The execution is
+ * released once the items are read.
+ * <p>
+ * The items must be read once, with {@link #read(Reader)} or {@link #collect()}, or the result closed.
+ */
+@Slf4j
+public class StreamedResult implements AutoCloseable {
+    private final Object items;
+    private final PolyCustom polyCustom;
+    private final ExecutionContext context;
+    private final LogCapture logCapture;
+    private final ExecutionEngine executionEngine;
+    private final Runnable release;
+    private final AtomicBoolean read = new AtomicBoolean();
+
+    /**
+     * @param items           The lazy function result.
+     * @param polyCustom      The PolyCustom of the execution.
+     * @param context         The context of the execution.
+     * @param executionEngine The engine the execution runs on.
+     * @param release         Ends the execution and releases its admission slot.
+     */
+    public StreamedResult(Object items, PolyCustom polyCustom, ExecutionContext context, ExecutionEngine executionEngine, Runnable release) {
+        this.items = items;
+        this.polyCustom = polyCustom;
+        this.context = context;
+        this.logCapture = context.getLogCapture();
+        this.executionEngine = executionEngine;
+        this.release = release;
+    }
+
+    /**
+     * Indicates if a function result produces its items lazily.
+     *
+     * @param result The function result.
+     * @return boolean True if the result is read as a stream of items.
+     */
+    public static boolean isStreamable(Object result) {
+        return result instanceof BaseStream<?, ?>
+                || result instanceof Iterator<?>
+                || (result instanceof Iterable<?> && !(result instanceof Collection<?>))
+                || (result instanceof Publisher<?> && !(result instanceof Mono<?>));
+    }
+
+    /**
+     * Reads the items of a streamed result, so it can be embedded in another response. Other results are returned as
+     * they are.
+     *
+     * @param invocationResult The result of an execution.
+     * @return CompletableFuture The future completed with the result holding the list of items, and the logs captured
+     * while they were read.
+     */
+    public static CompletableFuture<InvocationResult> collected(InvocationResult invocationResult) {
+        if (invocationResult.getData().orElse(null) instanceof StreamedResult streamedResult) {
+            return streamedResult.collect()
+                    .thenApply(items -> new InvocationResult(items, invocationResult.getMetadata(), streamedResult.getLogs(), invocationResult.getTimings()));
+        }
+        return completedFuture(invocationResult);
+    }
+
+    /**
+     * Reads the items on the execution engine, within the execution, and releases the execution afterwards.
+     *
+     * @param reader The reader of the items.
+     * @param <T>    The type of the value produced by the reader.
+     * @return CompletableFuture The future completed with the value produced by the reader, or exceptionally with a
+     * {@link PolyKNativeFunctionException} if the function fails while producing the items.
+     */
+    public <T> CompletableFuture<T> read(Reader<T> reader) {
+        if (!read.compareAndSet(false, true)) {
+            return failedFuture(new IllegalStateException("The items of the result were already read."));
+        }
+        CompletableFuture<T> result = executionEngine.execute(() -> {
+                    try (PolyCustomScope scope = PolyCustomScope.open(polyCustom);
+                         AutoCloseable closeable = toCloseable(items)) {
+                        return reader.read(toIterator(items));
+                    }
+                }, context)
+                .handle((value, error) -> {
+                    release.run();
+                    if (error != null) {
+                        throw translateError(error);
+                    }
+                    return value;
+                });
+        return context.isLogsEnabled() ? AsyncPolyAppender.afterFlush(result) : result;
+    }
+
+    /**
+     * @return CompletableFuture The future completed with all the items.
+     */
+    public CompletableFuture<List<Object>> collect() {
+        return read(iterator -> {
+            List<Object> result = new ArrayList<>();
+            iterator.forEachRemaining(result::add);
+            return result;
+        });
+    }
+
+    /**
+     * @return CapturedLogs The logs captured for the execution, complete once the items are read, or null if they
+     * aren't captured.
+     */
+    public CapturedLogs getLogs() {
+        return logCapture == null ? null : logCapture.finish();
+    }
+
+    /**
+     * Releases the execution without reading the items, if they weren't read.
+     */
+    @Override
+    public void close() {
+        if (read.compareAndSet(false, true)) {
+            try {
+                toCloseable(items).close();
+            } catch (Exception e) {
+                log.warn("Error while closing the function result.", e);
+            } finally {
+                release.run();
+            }
+        }
+    }
+
+    private static PolyKNativeFunctionException translateError(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof PolyKNativeFunctionException exception) {
+            return exception;
+        }
+        if (cause instanceof PolyApiExecutionException expectedException) {
+            return new PolyApiExecutionExceptionWrapperException(expectedException);
+        }
+        return new UnexpectedFunctionExecutionException(cause);
+    }
+
+    private static Iterator<?> toIterator(Object result) {
+        if (result instanceof BaseStream<?, ?> stream) {
+            return stream.iterator();
+        }
+        if (result instanceof Iterator<?> iterator) {
+            return iterator;
+        }
+        if (result instanceof Iterable<?> iterable) {
+            return iterable.iterator();
+        }
+        return Flux.from((Publisher<?>) result).toIterable().iterator();
+    }
+
+    private static AutoCloseable toCloseable(Object result) {
+        return result instanceof AutoCloseable closeable ? closeable : () -> {};
+    }
+
+    /**
+     * Reads the items of a streamed result.
+     *
+     * @param <T> The type of the value produced.
+     */
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(Iterator<?> items) throws Exception;
+    }
+}
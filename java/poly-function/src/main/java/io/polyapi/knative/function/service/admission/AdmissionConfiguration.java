@@ -0,0 +1,28 @@
+package io.polyapi.knative.function.service.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link AdmissionGate} in front of the function executions.
+ */
+@Slf4j
+@Configuration
+public class AdmissionConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public AdmissionGate admissionGate(@Value("${polyapi.function.admission.max-concurrency:0}") int maxConcurrency,
+                                       @Value("${polyapi.function.admission.queue-size:100}") int queueSize,
+                                       @Value("${polyapi.function.admission.queue-timeout:10s}") Duration queueTimeout,
+                                       MeterRegistry meterRegistry) {
+        if (maxConcurrency > 0) {
+            log.info("Admission control enabled with {} concurrent executions, a queue of {} and a queue timeout of {} ms.", maxConcurrency, queueSize, queueTimeout.toMillis());
+        }
+        return new AdmissionGate(maxConcurrency, queueSize, queueTimeout, meterRegistry);
+    }
+}
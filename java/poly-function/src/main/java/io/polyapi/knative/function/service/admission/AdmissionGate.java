@@ -0,0 +1,183 @@
+package io.polyapi.knative.function.service.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.polyapi.knative.function.checkpoint.CheckpointAware;
+import io.polyapi.knative.function.error.function.admission.ExecutionQueueTimeoutException;
+import io.polyapi.knative.function.error.function.admission.ExecutionRejectedException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Limits the number of concurrent executions of the function. Executions beyond the limit wait in a bounded FIFO queue
+ * for a free slot. When the queue is full, or an execution waits longer than the queue timeout, the execution is
+ * rejected right away so the caller can route it to another replica.
+ * <p>
+ * A max concurrency of 0 or less disables the limit.
+ * <p>
+ * The thread that expires the queued executions is stopped before a checkpoint of the JVM. After the restore the
+ * executions still queued get the rest of their queue timeout.
+ */
+@Slf4j
+public class AdmissionGate implements AutoCloseable, CheckpointAware {
+    private static final String METRIC_PREFIX = "polyapi.function.admission.";
+
+    private final int maxConcurrency;
+    private final int queueSize;
+    private final Duration queueTimeout;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private volatile ScheduledExecutorService timeoutScheduler;
+    private final Counter queueFullRejections;
+    private final Counter queueTimeoutRejections;
+    private final Timer queueWait;
+    private volatile int inFlight;
+    private volatile int queued;
+
+    public AdmissionGate(int maxConcurrency, int queueSize, Duration queueTimeout, MeterRegistry meterRegistry) {
+        this.maxConcurrency = maxConcurrency;
+        this.queueSize = Math.max(queueSize, 0);
+        this.queueTimeout = queueTimeout;
+        this.timeoutScheduler = maxConcurrency > 0 && queueSize > 0 ? newTimeoutScheduler() : null;
+        Gauge.builder(METRIC_PREFIX + "in.flight", () -> inFlight)
+                .description("Executions currently running.")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "queue.depth", () -> queued)
+                .description("Executions waiting for a free execution slot.")
+                .register(meterRegistry);
+        this.queueFullRejections = Counter.builder(METRIC_PREFIX + "rejections")
+                .description("Executions rejected because the function was saturated.")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.queueTimeoutRejections = Counter.builder(METRIC_PREFIX + "rejections")
+                .description("Executions rejected because the function was saturated.")
+                .tag("reason", "queue_timeout")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder(METRIC_PREFIX + "queue.wait")
+                .description("Time executions spend waiting for a free execution slot.")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Requests a slot to run an execution. The returned {@link Permit} must be closed once the execution finishes.
+     *
+     * @return CompletableFuture The future completed with the permit as soon as a slot is free, or exceptionally with
+     * an {@link io.polyapi.knative.function.error.function.admission.AdmissionException} if the execution is rejected.
+     */
+    public CompletableFuture<Permit> acquire() {
+        synchronized (this) {
+            if (maxConcurrency <= 0 || inFlight < maxConcurrency) {
+                inFlight++;
+                return completedFuture(new Permit());
+            }
+            if (waiters.size() >= queueSize) {
+                log.warn("Execution rejected. {} executions in flight and {} queued.", inFlight, waiters.size());
+                queueFullRejections.increment();
+                return failedFuture(new ExecutionRejectedException(maxConcurrency, queueSize));
+            }
+            Waiter waiter = new Waiter();
+            waiter.timeout = timeoutScheduler.schedule(() -> expire(waiter), queueTimeout.toNanos(), NANOSECONDS);
+            waiters.addLast(waiter);
+            queued = waiters.size();
+            log.debug("Execution queued. {} executions waiting.", queued);
+            return waiter.future;
+        }
+    }
+
+    private void release() {
+        while (true) {
+            Waiter next;
+            synchronized (this) {
+                next = waiters.pollFirst();
+                queued = waiters.size();
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+            }
+            next.timeout.cancel(false);
+            queueWait.record(System.nanoTime() - next.enqueuedAt, NANOSECONDS);
+            if (next.future.complete(new Permit())) {
+                return;
+            }
+            // The waiter was cancelled by its caller, so the slot is handed to the next one.
+        }
+    }
+
+    private void expire(Waiter waiter) {
+        boolean removed;
+        synchronized (this) {
+            removed = waiters.remove(waiter);
+            queued = waiters.size();
+        }
+        if (removed) {
+            log.warn("Execution rejected after waiting {} ms in the queue.", queueTimeout.toMillis());
+            queueTimeoutRejections.increment();
+            queueWait.record(System.nanoTime() - waiter.enqueuedAt, NANOSECONDS);
+            waiter.future.completeExceptionally(new ExecutionQueueTimeoutException(queueTimeout));
+        }
+    }
+
+    @Override
+    public void beforeCheckpoint() {
+        close();
+    }
+
+    @Override
+    public void afterRestore() {
+        if (timeoutScheduler != null) {
+            synchronized (this) {
+                timeoutScheduler = newTimeoutScheduler();
+                waiters.forEach(waiter -> waiter.timeout = timeoutScheduler.schedule(() -> expire(waiter), queueTimeout.toNanos() - (System.nanoTime() - waiter.enqueuedAt), NANOSECONDS));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (timeoutScheduler != null) {
+            timeoutScheduler.shutdownNow();
+        }
+    }
+
+    private static ScheduledExecutorService newTimeoutScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Poly-admission-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static class Waiter {
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+        private ScheduledFuture<?> timeout;
+    }
+
+    /**
+     * Slot granted to an execution. Closing it more than once has no effect.
+     */
+    public class Permit implements AutoCloseable {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release();
+            }
+        }
+    }
+}
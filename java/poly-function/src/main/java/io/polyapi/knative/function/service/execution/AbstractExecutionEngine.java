@@ -0,0 +1,41 @@
+package io.polyapi.knative.function.service.execution;
+
+import io.polyapi.knative.function.log.ExecutionContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Base {@link ExecutionEngine} that runs each execution on an {@link Executor}, binding the
+ * {@link ExecutionContext} to the thread while the execution lasts so the Poly appenders route its logs. The future
+ * is completed after the context is unbound.
+ */
+@Slf4j
+public abstract class AbstractExecutionEngine implements ExecutionEngine {
+    protected abstract Executor getExecutor();
+
+    @Override
+    public <T> CompletableFuture<T> execute(Callable<T> task, ExecutionContext context) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            getExecutor().execute(() -> {
+                T result;
+                try (ExecutionContext.Scope scope = context.open()) {
+                    result = task.call();
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                // Completed once the context is unbound, so the stages that depend on it don't run within it.
+                future.complete(result);
+            });
+        } catch (RejectedExecutionException e) {
+            log.error("Execution rejected by the execution engine.", e);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,28 @@
+package io.polyapi.knative.function.service.execution;
+
+import io.polyapi.knative.function.log.ExecutionContext;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the executions of the server function outside the thread that handles the request.
+ */
+public interface ExecutionEngine extends AutoCloseable {
+
+    /**
+     * Submits a function execution.
+     *
+     * @param task The execution to run.
+     * @param context The context of the execution, bound to the thread that runs it.
+     * @param <T> The type of the result of the execution.
+     * @return CompletableFuture The future completed with the result of the task, or exceptionally with the exception it threw.
+     */
+    <T> CompletableFuture<T> execute(Callable<T> task, ExecutionContext context);
+
+    /**
+     * Stops accepting executions and releases the threads owned by the engine.
+     */
+    @Override
+    void close();
+}
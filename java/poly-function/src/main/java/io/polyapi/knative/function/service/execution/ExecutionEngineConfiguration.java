@@ -0,0 +1,78 @@
+package io.polyapi.knative.function.service.execution;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * Configuration of the {@link ExecutionEngine} used to run the server function.
+ */
+@Slf4j
+@Configuration
+public class ExecutionEngineConfiguration {
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findNewVirtualThreadExecutor();
+
+    @Bean(destroyMethod = "close")
+    public ExecutionEngine executionEngine(@Value("${polyapi.function.execution.engine:}") ExecutionEngineType engineType,
+                                           @Value("${polyapi.function.execution.pool-size:0}") int poolSize) {
+        ExecutionEngineType selectedType = engineType == null ? defaultEngineType() : engineType;
+        log.info("Using {} execution engine.", selectedType);
+        return switch (selectedType) {
+            case VIRTUAL -> new ExecutorServiceExecutionEngine(ExecutionEngineConfiguration::newVirtualThreadExecutor);
+            case PLATFORM_POOL -> new ExecutorServiceExecutionEngine(() -> Executors.newFixedThreadPool(poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors(), threadFactory()));
+            case THREAD_PER_EXECUTION -> new ThreadPerExecutionEngine(threadFactory());
+        };
+    }
+
+    /**
+     * @return ExecutionEngineType The engine used when none is configured: {@link ExecutionEngineType#VIRTUAL} if the
+     * JVM supports virtual threads, or the bounded {@link ExecutionEngineType#PLATFORM_POOL} otherwise.
+     */
+    public static ExecutionEngineType defaultEngineType() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR == null ? ExecutionEngineType.PLATFORM_POOL : ExecutionEngineType.VIRTUAL;
+    }
+
+    /**
+     * Creates a virtual thread per task executor. The project targets Java 17, so the factory method is looked up at
+     * runtime.
+     *
+     * @return ExecutorService The executor.
+     * @throws IllegalStateException If the JVM doesn't support virtual threads.
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR == null) {
+            throw new IllegalStateException(format("Virtual threads need Java 21 or later, and this JVM runs Java %s. Select the %s execution engine or leave 'polyapi.function.execution.engine' unset.", Runtime.version().feature(), ExecutionEngineType.PLATFORM_POOL));
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Couldn't create the virtual thread executor.", e);
+        }
+    }
+
+    private static Method findNewVirtualThreadExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, format("Poly-execution-%s", counter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
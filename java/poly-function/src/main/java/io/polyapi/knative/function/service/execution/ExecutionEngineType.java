@@ -0,0 +1,21 @@
+package io.polyapi.knative.function.service.execution;
+
+/**
+ * Available {@link ExecutionEngine} implementations, selected through the 'polyapi.function.execution.engine' property.
+ */
+public enum ExecutionEngineType {
+    /**
+     * One virtual thread per execution. Needs Java 21 or later, and is the default there.
+     */
+    VIRTUAL,
+
+    /**
+     * Bounded pool of platform threads, suited for CPU-heavy functions. The default on JVMs without virtual threads.
+     */
+    PLATFORM_POOL,
+
+    /**
+     * One new platform thread per execution.
+     */
+    THREAD_PER_EXECUTION
+}
@@ -0,0 +1,62 @@
+package io.polyapi.knative.function.service.execution;
+
+import io.polyapi.knative.function.checkpoint.CheckpointAware;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link ExecutionEngine} backed by an {@link ExecutorService} owned by the engine. The executor is shut down before a
+ * checkpoint of the JVM and a new one is created after the restore.
+ */
+@Slf4j
+public class ExecutorServiceExecutionEngine extends AbstractExecutionEngine implements CheckpointAware {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final Supplier<ExecutorService> executorServiceFactory;
+    private volatile ExecutorService executorService;
+
+    public ExecutorServiceExecutionEngine(Supplier<ExecutorService> executorServiceFactory) {
+        this.executorServiceFactory = executorServiceFactory;
+        this.executorService = executorServiceFactory.get();
+    }
+
+    @Override
+    protected Executor getExecutor() {
+        return executorService;
+    }
+
+    @Override
+    public void beforeCheckpoint() {
+        log.debug("Shutting down execution engine before checkpoint.");
+        shutdown();
+    }
+
+    @Override
+    public void afterRestore() {
+        log.debug("Restarting execution engine after restore.");
+        executorService = executorServiceFactory.get();
+    }
+
+    @Override
+    public void close() {
+        log.debug("Shutting down execution engine.");
+        shutdown();
+    }
+
+    private void shutdown() {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Executions still running after {} seconds. Forcing shutdown.", SHUTDOWN_TIMEOUT_SECONDS);
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
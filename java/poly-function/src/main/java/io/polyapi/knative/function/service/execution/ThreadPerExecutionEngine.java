@@ -0,0 +1,25 @@
+package io.polyapi.knative.function.service.execution;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * {@link ExecutionEngine} that starts a new platform thread for every execution.
+ */
+public class ThreadPerExecutionEngine extends AbstractExecutionEngine {
+    private final ThreadFactory threadFactory;
+
+    public ThreadPerExecutionEngine(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    protected Executor getExecutor() {
+        return runnable -> threadFactory.newThread(runnable).start();
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release.
+    }
+}
@@ -0,0 +1,199 @@
+package io.polyapi.knative.function.service.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.StreamedResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+
+/**
+ * Deduplicates the executions by execution ID, so a request retried by a broker or a caller doesn't run the function
+ * again. A duplicate that arrives while the first execution is running joins it, and one that arrives after it
+ * finished gets its {@link InvocationResult} replayed.
+ * <p>
+ * Successful results are kept for the TTL after their execution finishes, and the cache holds at most max entries,
+ * running executions included. Beyond it, the oldest finished entry is evicted. Running executions are never evicted,
+ * so their duplicates always join them, and the cache may go over max entries while they run. Failed executions aren't kept, so a retry runs
+ * the function again, and neither are streamed results, which can only be read once. Executions without an ID aren't
+ * deduplicated.
+ * <p>
+ * A max entries of 0 or less disables the cache.
+ */
+@Slf4j
+public class IdempotencyCache {
+    private static final String METRIC_PREFIX = "polyapi.function.idempotency.";
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final Counter inFlightHits;
+    private final Counter completedHits;
+    private final Counter misses;
+    private final Counter expiredEvictions;
+    private final Counter sizeEvictions;
+
+    public IdempotencyCache(int maxEntries, Duration ttl, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        Gauge.builder(METRIC_PREFIX + "entries", this, IdempotencyCache::size)
+                .description("Executions kept for deduplication, running or finished.")
+                .register(meterRegistry);
+        this.inFlightHits = Counter.builder(METRIC_PREFIX + "hits")
+                .description("Duplicate executions served from the cache.")
+                .tag("state", "in_flight")
+                .register(meterRegistry);
+        this.completedHits = Counter.builder(METRIC_PREFIX + "hits")
+                .description("Duplicate executions served from the cache.")
+                .tag("state", "completed")
+                .register(meterRegistry);
+        this.misses = Counter.builder(METRIC_PREFIX + "misses")
+                .description("Executions not found in the cache, which ran the function.")
+                .register(meterRegistry);
+        this.expiredEvictions = Counter.builder(METRIC_PREFIX + "evictions")
+                .description("Executions removed from the cache before a duplicate arrived.")
+                .tag("cause", "expired")
+                .register(meterRegistry);
+        this.sizeEvictions = Counter.builder(METRIC_PREFIX + "evictions")
+                .description("Executions removed from the cache before a duplicate arrived.")
+                .tag("cause", "size")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return boolean True if executions are deduplicated.
+     */
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * Runs an execution unless another one with the same ID is running or finished within the TTL.
+     *
+     * @param executionId The execution ID of the function.
+     * @param admitted    Completed by the execution once it's admitted or rejected. For a duplicate, it's completed
+     *                    when the execution it joins is.
+     * @param execution   Starts the execution, returning the future completed with its result.
+     * @return CompletableFuture The future of the execution, of the running one with the same ID, or completed with the
+     * result of the finished one.
+     */
+    public CompletableFuture<InvocationResult> execute(String executionId, CompletableFuture<Void> admitted, Supplier<CompletableFuture<InvocationResult>> execution) {
+        if (!isEnabled() || executionId == null || executionId.isBlank()) {
+            return execution.get();
+        }
+        Entry entry;
+        boolean found;
+        synchronized (this) {
+            evictExpired(System.nanoTime());
+            entry = entries.get(executionId);
+            found = entry != null;
+            if (!found) {
+                entry = new Entry(admitted);
+                entries.put(executionId, entry);
+                evictOverflow();
+            }
+        }
+        if (found) {
+            entry.admitted.whenComplete((ignored, error) -> {
+                if (error == null) {
+                    admitted.complete(null);
+                } else {
+                    admitted.completeExceptionally(error);
+                }
+            });
+            return join(executionId, entry, execution);
+        }
+        misses.increment();
+        CompletableFuture<InvocationResult> result;
+        try {
+            result = execution.get();
+        } catch (RuntimeException e) {
+            admitted.completeExceptionally(e);
+            result = failedFuture(e);
+        }
+        Entry newEntry = entry;
+        return result.whenComplete((invocationResult, error) -> complete(executionId, newEntry, invocationResult, error));
+    }
+
+    private CompletableFuture<InvocationResult> join(String executionId, Entry entry, Supplier<CompletableFuture<InvocationResult>> execution) {
+        if (entry.result.isDone()) {
+            log.info("Execution '{}' already finished. Replaying its result.", executionId);
+            completedHits.increment();
+        } else {
+            log.info("Execution '{}' is already running. Waiting for its result.", executionId);
+            inFlightHits.increment();
+        }
+        // A streamed result is read by the execution that produced it, so the duplicate runs the function again.
+        return entry.result.thenCompose(invocationResult -> isReplayable(invocationResult) ? completedFuture(invocationResult) : execution.get());
+    }
+
+    private void complete(String executionId, Entry entry, InvocationResult invocationResult, Throwable error) {
+        synchronized (this) {
+            if (entries.remove(executionId, entry) && error == null && isReplayable(invocationResult)) {
+                // Entries are moved to the end once finished, so the finished ones are kept in order of expiration.
+                entry.completedAt = System.nanoTime();
+                entries.put(executionId, entry);
+            }
+        }
+        if (error == null) {
+            entry.result.complete(invocationResult);
+        } else {
+            entry.result.completeExceptionally(error);
+        }
+    }
+
+    private static boolean isReplayable(InvocationResult invocationResult) {
+        return !(invocationResult.getData().orElse(null) instanceof StreamedResult);
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.result.isDone()) {
+                if (now - entry.completedAt < ttlNanos) {
+                    return;
+                }
+                iterator.remove();
+                expiredEvictions.increment();
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            if (iterator.next().result.isDone()) {
+                iterator.remove();
+                sizeEvictions.increment();
+            }
+        }
+    }
+
+    /**
+     * @return int The number of executions kept, running or finished.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final CompletableFuture<Void> admitted;
+        private final CompletableFuture<InvocationResult> result = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private Entry(CompletableFuture<Void> admitted) {
+            this.admitted = admitted;
+        }
+    }
+}
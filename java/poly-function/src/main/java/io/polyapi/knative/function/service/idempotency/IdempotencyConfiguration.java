@@ -0,0 +1,28 @@
+package io.polyapi.knative.function.service.idempotency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link IdempotencyCache} that deduplicates the executions.
+ */
+@Slf4j
+@Configuration
+public class IdempotencyConfiguration {
+
+    @Bean
+    public IdempotencyCache idempotencyCache(@Value("${polyapi.function.idempotency.enabled:false}") boolean enabled,
+                                             @Value("${polyapi.function.idempotency.max-entries:10000}") int maxEntries,
+                                             @Value("${polyapi.function.idempotency.ttl:5m}") Duration ttl,
+                                             MeterRegistry meterRegistry) {
+        if (enabled) {
+            log.info("Execution deduplication enabled with up to {} executions kept for {} ms.", maxEntries, ttl.toMillis());
+        }
+        return new IdempotencyCache(enabled ? maxEntries : 0, ttl, meterRegistry);
+    }
+}
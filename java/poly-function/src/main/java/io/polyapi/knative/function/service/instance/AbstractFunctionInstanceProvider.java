@@ -0,0 +1,89 @@
+package io.polyapi.knative.function.service.instance;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.error.function.creation.FunctionCreationException;
+import io.polyapi.knative.function.error.function.state.ClassNotInstantiableException;
+import io.polyapi.knative.function.error.function.state.ConstructorNotAccessibleException;
+import io.polyapi.knative.function.error.function.state.ConstructorNotFoundException;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static io.polyapi.knative.function.metrics.InvocationPhase.CONSTRUCT;
+import static io.polyapi.knative.function.metrics.InvocationPhase.INJECT;
+
+/**
+ * Base {@link FunctionInstanceProvider} with the creation of function instances and the injection of PolyCustom. The
+ * constructor and the {@link PolyCustomInjector} of the function class are resolved once, when the provider is created.
+ * A public constructor taking a single {@link PolyCustom} is preferred over the default constructor.
+ */
+@Slf4j
+public abstract class AbstractFunctionInstanceProvider implements FunctionInstanceProvider {
+    protected final Class<?> functionClass;
+    private final Constructor<?> constructor;
+    private final boolean constructorInjection;
+    private final PolyCustomInjector injector;
+
+    protected AbstractFunctionInstanceProvider(Class<?> functionClass) {
+        this.functionClass = functionClass;
+        Optional<Constructor<?>> polyCustomConstructor = Arrays.stream(functionClass.getConstructors())
+                .filter(constructor -> Arrays.equals(constructor.getParameterTypes(), new Class<?>[]{PolyCustom.class}))
+                .findFirst();
+        this.constructorInjection = polyCustomConstructor.isPresent();
+        try {
+            log.debug("Retrieving constructor to setup the server function.");
+            this.constructor = polyCustomConstructor.isPresent() ? polyCustomConstructor.get() : functionClass.getDeclaredConstructor();
+            log.debug("Constructor {} retrieved successfully.", constructor);
+        } catch (NoSuchMethodException e) {
+            throw new ConstructorNotFoundException(e);
+        }
+        this.injector = PolyCustomInjector.of(functionClass);
+    }
+
+    /**
+     * Creates a new instance of the function class.
+     *
+     * @param polyCustom The PolyCustom passed to the constructor, if the class has one taking it.
+     * @return Object The new instance.
+     */
+    protected Object newInstance(PolyCustom polyCustom) {
+        try {
+            log.debug("Instantiating function class {} using constructor {}.", functionClass.getName(), constructor);
+            Object function = constructorInjection ? constructor.newInstance(polyCustom) : constructor.newInstance();
+            log.debug("Class {} instantiated successfully.", functionClass.getName());
+            return function;
+        } catch (InvocationTargetException e) {
+            throw new FunctionCreationException(e);
+        } catch (IllegalAccessException e) {
+            throw new ConstructorNotAccessibleException(e);
+        } catch (InstantiationException e) {
+            throw new ClassNotInstantiableException(functionClass.getName(), e);
+        }
+    }
+
+    protected Object newInstance(PolyCustom polyCustom, InvocationTimings timings) {
+        long start = System.nanoTime();
+        try {
+            return newInstance(polyCustom);
+        } finally {
+            timings.recordSince(CONSTRUCT, start);
+        }
+    }
+
+    protected void injectPolyCustom(Object function, PolyCustom polyCustom) {
+        if (!injector.isEmpty()) {
+            log.debug("Setting up PolyCustom on function instance.");
+            injector.inject(function, polyCustom);
+        }
+    }
+
+    protected void injectPolyCustom(Object function, PolyCustom polyCustom, InvocationTimings timings) {
+        long start = System.nanoTime();
+        injectPolyCustom(function, polyCustom);
+        timings.recordSince(INJECT, start);
+    }
+}
@@ -0,0 +1,28 @@
+package io.polyapi.knative.function.service.instance;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+
+/**
+ * Provides the instances of the function class on which the executions run, according to its
+ * {@link io.polyapi.knative.function.lifecycle.LifecycleMode}.
+ */
+public interface FunctionInstanceProvider extends AutoCloseable {
+
+    /**
+     * Retrieves an instance ready to run an execution.
+     *
+     * @param polyCustom The PolyCustom of the execution.
+     * @param timings    The timings of the execution, where the construction and injection phases are recorded.
+     * @return Object The function instance with its PolyCustom fields set up.
+     */
+    Object getInstance(PolyCustom polyCustom, InvocationTimings timings);
+
+    /**
+     * Releases the resources held by the provider.
+     */
+    @Override
+    default void close() {
+        // Nothing to release by default.
+    }
+}
@@ -0,0 +1,91 @@
+package io.polyapi.knative.function.service.instance;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.polyapi.knative.function.checkpoint.CheckpointAware;
+import io.polyapi.knative.function.model.InvocationPlan;
+import jakarta.annotation.PreDestroy;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the {@link FunctionInstanceProvider} of every {@link InvocationPlan}, created according to its
+ * {@link io.polyapi.knative.function.lifecycle.LifecycleMode}. The provider of the configured function is created on
+ * startup so that pooled instances are ready before the first execution.
+ */
+@Slf4j
+@Setter
+@Component
+public class FunctionInstanceProviderRegistry implements SmartInitializingSingleton, CheckpointAware {
+    private final Map<InvocationPlan, FunctionInstanceProvider> providers = new ConcurrentHashMap<>();
+
+    @Value("${polyapi.function.instance-pool.size:2}")
+    private int poolSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectProvider<InvocationPlan> invocationPlan;
+
+    /**
+     * Retrieves the provider of the function instances for a plan, creating it on first use.
+     *
+     * @param plan The plan of the function to execute.
+     * @return FunctionInstanceProvider The provider for the plan.
+     */
+    public FunctionInstanceProvider get(InvocationPlan plan) {
+        return providers.computeIfAbsent(plan, this::create);
+    }
+
+    private FunctionInstanceProvider create(InvocationPlan plan) {
+        log.debug("Using {} lifecycle for function class {}.", plan.getLifecycleMode(), plan.getFunctionClass().getName());
+        return switch (plan.getLifecycleMode()) {
+            case PROTOTYPE -> new PrototypeFunctionInstanceProvider(plan.getFunctionClass());
+            case SINGLETON -> new SingletonFunctionInstanceProvider(plan.getFunctionClass());
+            case POOLED -> new PooledFunctionInstanceProvider(plan.getFunctionClass(), poolSize, meterRegistry);
+        };
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        invocationPlan.ifAvailable(plan -> {
+            try {
+                get(plan);
+            } catch (RuntimeException e) {
+                log.warn("Function instances of {} couldn't be prepared on startup. The error will be reported on execution.", plan.getFunctionClass().getName(), e);
+            }
+        });
+    }
+
+    @Override
+    public void beforeCheckpoint() {
+        providers.values().forEach(provider -> {
+            if (provider instanceof CheckpointAware checkpointAware) {
+                checkpointAware.beforeCheckpoint();
+            }
+        });
+    }
+
+    @Override
+    public void afterRestore() {
+        providers.values().forEach(provider -> {
+            if (provider instanceof CheckpointAware checkpointAware) {
+                checkpointAware.afterRestore();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        providers.values().forEach(FunctionInstanceProvider::close);
+        providers.clear();
+    }
+}
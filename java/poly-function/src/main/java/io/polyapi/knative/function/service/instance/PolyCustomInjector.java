@@ -0,0 +1,125 @@
+package io.polyapi.knative.function.service.instance;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.error.function.execution.PolyCustomInjectionException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.Character.toLowerCase;
+
+/**
+ * Sets the {@link PolyCustom} of an execution on a function instance. The injection targets of the function class are
+ * resolved once: every {@link PolyCustom} field declared on the class or its superclasses, and every public non-static
+ * {@code set*(PolyCustom)} method. Fields with a matching setter are set through the setter only. Each target is bound
+ * to a {@link MethodHandle} so no reflective lookup or access check happens on a per-execution basis.
+ * <p>
+ * Static fields are set as well, but they are shared by all the instances, so concurrent executions overwrite each
+ * other's PolyCustom. A warning is logged when one is found.
+ */
+@Slf4j
+public class PolyCustomInjector {
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, PolyCustom.class);
+
+    private final Map<String, MethodHandle> setters;
+
+    private PolyCustomInjector(Map<String, MethodHandle> setters) {
+        this.setters = setters;
+    }
+
+    /**
+     * Resolves the injection targets of a function class.
+     *
+     * @param functionClass The function class.
+     * @return PolyCustomInjector The injector for the class.
+     */
+    public static PolyCustomInjector of(Class<?> functionClass) {
+        Map<String, MethodHandle> setters = new LinkedHashMap<>();
+        Set<String> setterProperties = new HashSet<>();
+        Arrays.stream(functionClass.getMethods())
+                .filter(method -> !Modifier.isStatic(method.getModifiers()))
+                .filter(method -> method.getName().startsWith("set") && method.getName().length() > 3)
+                .filter(method -> method.getParameterCount() == 1 && method.getParameterTypes()[0].equals(PolyCustom.class))
+                .forEach(method -> {
+                    log.debug("Binding PolyCustom setter {}.", method);
+                    setters.put(method.getName(), unreflect(method));
+                    setterProperties.add(toLowerCase(method.getName().charAt(3)) + method.getName().substring(4));
+                });
+        for (Field field : getFields(functionClass)) {
+            if (!setterProperties.contains(field.getName())) {
+                log.debug("Binding PolyCustom field {}.", field);
+                setters.put(field.getDeclaringClass().getName() + "." + field.getName(), unreflect(field));
+            }
+        }
+        return new PolyCustomInjector(setters);
+    }
+
+    private static List<Field> getFields(Class<?> functionClass) {
+        List<Field> result = new ArrayList<>();
+        for (Class<?> clazz = functionClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            Arrays.stream(clazz.getDeclaredFields())
+                    .filter(field -> field.getType().equals(PolyCustom.class))
+                    .forEach(result::add);
+        }
+        return result;
+    }
+
+    private static MethodHandle unreflect(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle setter = MethodHandles.lookup().unreflectSetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                log.warn("PolyCustom field {} is static, so it is shared by all the concurrent executions of the function.", field);
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+            return setter.asType(SETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new PolyCustomInjectionException(field.getName(), e);
+        }
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method).asType(SETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new PolyCustomInjectionException(method.getName(), e);
+        }
+    }
+
+    /**
+     * Sets the PolyCustom on all the injection targets of a function instance.
+     *
+     * @param function The function instance.
+     * @param polyCustom The PolyCustom to set.
+     */
+    public void inject(Object function, PolyCustom polyCustom) {
+        setters.forEach((name, setter) -> {
+            try {
+                setter.invokeExact(function, polyCustom);
+            } catch (Throwable e) {
+                throw new PolyCustomInjectionException(name, e);
+            }
+        });
+    }
+
+    /**
+     * Indicates if the function class has any injection target.
+     *
+     * @return boolean True if there is nothing to inject.
+     */
+    public boolean isEmpty() {
+        return setters.isEmpty();
+    }
+}
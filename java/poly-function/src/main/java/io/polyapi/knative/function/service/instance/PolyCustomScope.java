@@ -0,0 +1,45 @@
+package io.polyapi.knative.function.service.instance;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+
+/**
+ * Holds the {@link PolyCustom} of the execution running on the current thread.
+ */
+public class PolyCustomScope implements AutoCloseable {
+    private static final ThreadLocal<PolyCustom> CURRENT = new ThreadLocal<>();
+
+    private final PolyCustom previous;
+
+    private PolyCustomScope(PolyCustom polyCustom) {
+        this.previous = CURRENT.get();
+        CURRENT.set(polyCustom);
+    }
+
+    /**
+     * Binds the PolyCustom of an execution to the current thread until the returned scope is closed.
+     *
+     * @param polyCustom The PolyCustom of the execution.
+     * @return PolyCustomScope The scope to close once the execution finishes.
+     */
+    public static PolyCustomScope open(PolyCustom polyCustom) {
+        return new PolyCustomScope(polyCustom);
+    }
+
+    /**
+     * Retrieves the PolyCustom of the execution running on the current thread.
+     *
+     * @return PolyCustom The PolyCustom, or null if no execution runs on the current thread.
+     */
+    public static PolyCustom current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package io.polyapi.knative.function.service.instance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.checkpoint.CheckpointAware;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.polyapi.knative.function.metrics.InvocationPhase.CONSTRUCT;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * {@link FunctionInstanceProvider} that keeps a pool of fresh instances created ahead of demand on a background thread.
+ * Every execution checks out an instance that is never returned to the pool, and a replacement is created
+ * asynchronously. When the pool is empty the instance is created on the calling thread.
+ * <p>
+ * Before a checkpoint of the JVM the pending refills are completed and the background thread is stopped, so the
+ * checkpoint holds a full pool.
+ */
+@Slf4j
+public class PooledFunctionInstanceProvider extends AbstractFunctionInstanceProvider implements CheckpointAware {
+    private static final String METRIC_PREFIX = "polyapi.function.instance.pool.";
+    private static final long CHECKPOINT_TIMEOUT_SECONDS = 30;
+
+    private final int poolSize;
+    private final BlockingQueue<Object> pool;
+    private final AtomicInteger pendingRefills = new AtomicInteger();
+    private volatile ExecutorService refiller;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refillFailures;
+    private final Timer refillLag;
+
+    public PooledFunctionInstanceProvider(Class<?> functionClass, int poolSize, MeterRegistry meterRegistry) {
+        super(functionClass);
+        this.poolSize = Math.max(poolSize, 1);
+        this.pool = new ArrayBlockingQueue<>(this.poolSize);
+        this.refiller = newRefiller();
+        Gauge.builder(METRIC_PREFIX + "size", pool::size)
+                .description("Function instances ready to be checked out.")
+                .register(meterRegistry);
+        this.hits = Counter.builder(METRIC_PREFIX + "checkouts")
+                .description("Executions that requested a function instance from the pool.")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder(METRIC_PREFIX + "checkouts")
+                .description("Executions that requested a function instance from the pool.")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.refillFailures = Counter.builder(METRIC_PREFIX + "refill.failures")
+                .description("Function instances that couldn't be created in the background.")
+                .register(meterRegistry);
+        this.refillLag = Timer.builder(METRIC_PREFIX + "refill.lag")
+                .description("Time from a checkout until its replacement is available in the pool.")
+                .register(meterRegistry);
+        log.info("Pre-instantiating {} instances of function class {}.", this.poolSize, functionClass.getName());
+        for (int i = 0; i < this.poolSize; i++) {
+            requestRefill();
+        }
+    }
+
+    @Override
+    public Object getInstance(PolyCustom polyCustom, InvocationTimings timings) {
+        long start = System.nanoTime();
+        Object function = pool.poll();
+        requestRefill();
+        if (function == null) {
+            log.debug("Instance pool of function class {} is empty. Creating instance on the execution thread.", functionClass.getName());
+            misses.increment();
+            function = newInstance(polyCustom);
+        } else {
+            hits.increment();
+        }
+        timings.recordSince(CONSTRUCT, start);
+        injectPolyCustom(function, polyCustom, timings);
+        return function;
+    }
+
+    private void requestRefill() {
+        if (pool.size() + pendingRefills.incrementAndGet() > poolSize) {
+            pendingRefills.decrementAndGet();
+            return;
+        }
+        long requestedAt = System.nanoTime();
+        try {
+            refiller.execute(() -> refill(requestedAt));
+        } catch (RejectedExecutionException e) {
+            pendingRefills.decrementAndGet();
+        }
+    }
+
+    private void refill(long requestedAt) {
+        Object function;
+        try {
+            function = newInstance(new ScopedPolyCustom());
+        } catch (RuntimeException e) {
+            log.warn("Error while pre-instantiating function class {}.", functionClass.getName(), e);
+            refillFailures.increment();
+            pendingRefills.decrementAndGet();
+            return;
+        }
+        // The refill stops being pending before the instance is offered, so a concurrent checkout never counts it twice
+        // and skips its own refill. At worst the pool is briefly undercounted and a surplus instance is discarded.
+        pendingRefills.decrementAndGet();
+        if (pool.offer(function)) {
+            refillLag.record(System.nanoTime() - requestedAt, NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void beforeCheckpoint() {
+        refiller.shutdown();
+        try {
+            if (!refiller.awaitTermination(CHECKPOINT_TIMEOUT_SECONDS, SECONDS)) {
+                log.warn("Instance pool of function class {} not refilled after {} seconds.", functionClass.getName(), CHECKPOINT_TIMEOUT_SECONDS);
+                refiller.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            refiller.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void afterRestore() {
+        refiller = newRefiller();
+        for (int i = 0; i < poolSize; i++) {
+            requestRefill();
+        }
+    }
+
+    private static ExecutorService newRefiller() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Poly-instance-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void close() {
+        refiller.shutdownNow();
+        pool.clear();
+    }
+}
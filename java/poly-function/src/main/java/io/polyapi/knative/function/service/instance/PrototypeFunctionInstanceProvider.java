@@ -0,0 +1,21 @@
+package io.polyapi.knative.function.service.instance;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+
+/**
+ * {@link FunctionInstanceProvider} that creates a new instance for every execution.
+ */
+public class PrototypeFunctionInstanceProvider extends AbstractFunctionInstanceProvider {
+
+    public PrototypeFunctionInstanceProvider(Class<?> functionClass) {
+        super(functionClass);
+    }
+
+    @Override
+    public Object getInstance(PolyCustom polyCustom, InvocationTimings timings) {
+        Object function = newInstance(polyCustom, timings);
+        injectPolyCustom(function, polyCustom, timings);
+        return function;
+    }
+}
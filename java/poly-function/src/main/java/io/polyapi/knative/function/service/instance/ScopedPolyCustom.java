@@ -0,0 +1,57 @@
+package io.polyapi.knative.function.service.instance;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.error.function.execution.UnexpectedFunctionExecutionException;
+
+import java.util.Optional;
+
+/**
+ * {@link PolyCustom} set on the fields of shared function instances. Every call is delegated to the PolyCustom of the
+ * execution running on the current thread, so concurrent executions don't overwrite each other's metadata.
+ */
+public class ScopedPolyCustom extends PolyCustom {
+
+    public ScopedPolyCustom() {
+        super(null, null, null, null);
+    }
+
+    private static PolyCustom delegate() {
+        return Optional.ofNullable(PolyCustomScope.current())
+                .orElseThrow(() -> new UnexpectedFunctionExecutionException(new IllegalStateException("PolyCustom used outside of the thread running the execution.")));
+    }
+
+    @Override
+    public String getExecutionId() {
+        return delegate().getExecutionId();
+    }
+
+    @Override
+    public String getExecutionApiKey() {
+        return delegate().getExecutionApiKey();
+    }
+
+    @Override
+    public Integer getResponseStatusCode() {
+        return delegate().getResponseStatusCode();
+    }
+
+    @Override
+    public void setResponseStatusCode(Integer responseStatusCode) {
+        delegate().setResponseStatusCode(responseStatusCode);
+    }
+
+    @Override
+    public String getResponseContentType() {
+        return delegate().getResponseContentType();
+    }
+
+    @Override
+    public void setResponseContentType(String responseContentType) {
+        delegate().setResponseContentType(responseContentType);
+    }
+
+    @Override
+    public String toString() {
+        return delegate().toString();
+    }
+}
@@ -0,0 +1,37 @@
+package io.polyapi.knative.function.service.instance;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link FunctionInstanceProvider} that creates a single instance on the first execution and shares it among all the
+ * executions. Its PolyCustom fields are set once to a {@link ScopedPolyCustom}. If the creation fails, it is retried
+ * on the next execution.
+ */
+@Slf4j
+public class SingletonFunctionInstanceProvider extends AbstractFunctionInstanceProvider {
+    private volatile Object instance;
+
+    public SingletonFunctionInstanceProvider(Class<?> functionClass) {
+        super(functionClass);
+    }
+
+    @Override
+    public Object getInstance(PolyCustom polyCustom, InvocationTimings timings) {
+        Object result = instance;
+        if (result == null) {
+            synchronized (this) {
+                result = instance;
+                if (result == null) {
+                    log.info("Creating shared instance of function class {}.", functionClass.getName());
+                    PolyCustom scopedPolyCustom = new ScopedPolyCustom();
+                    result = newInstance(scopedPolyCustom, timings);
+                    injectPolyCustom(result, scopedPolyCustom, timings);
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+}
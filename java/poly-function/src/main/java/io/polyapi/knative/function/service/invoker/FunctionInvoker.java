@@ -0,0 +1,22 @@
+package io.polyapi.knative.function.service.invoker;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Strategy that calls the execution method of the server function on an instance. Implementations are bound once to
+ * the method and follow the contract of {@link java.lang.reflect.Method#invoke(Object, Object...)} for errors.
+ */
+public interface FunctionInvoker {
+
+    /**
+     * Invokes the bound method.
+     *
+     * @param function The instance of the function class on which the method is executed.
+     * @param arguments The arguments of the execution. Arguments beyond the method parameter count are ignored.
+     * @return Object The result of the execution, or null if the method returns void.
+     * @throws IllegalArgumentException If the instance or the arguments do not match the method signature.
+     * @throws IllegalAccessException If the method is not accessible.
+     * @throws InvocationTargetException If the method itself throws an exception.
+     */
+    Object invoke(Object function, Object[] arguments) throws IllegalAccessException, InvocationTargetException;
+}
@@ -0,0 +1,9 @@
+package io.polyapi.knative.function.service.invoker;
+
+/**
+ * Available {@link FunctionInvoker} implementations, selected through the 'polyapi.function.invoker' property.
+ */
+public enum FunctionInvokerType {
+    METHOD_HANDLE,
+    REFLECTION
+}
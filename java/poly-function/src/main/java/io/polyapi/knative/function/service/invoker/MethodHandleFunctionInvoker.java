@@ -0,0 +1,79 @@
+package io.polyapi.knative.function.service.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import static java.lang.String.format;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * {@link FunctionInvoker} backed by a {@link MethodHandle} that is bound once to the method signature. The handle
+ * spreads the arguments array and casts each argument to its exact parameter type, so the per-call cost is a single
+ * {@link MethodHandle#invokeExact(Object...)} call, without the access checks and argument copies of
+ * {@link Method#invoke(Object, Object...)}.
+ * <p>
+ * The call is not free of boxing, though. The arguments are bound from the request into an {@code Object[]}, so
+ * primitive parameters arrive boxed and are unboxed by the handle, and a primitive return value is boxed back into the
+ * {@link Object} result. Functions with primitive-heavy signatures therefore keep most of that cost, and gain less over
+ * {@code REFLECTION} than functions taking and returning objects.
+ * <p>
+ * The exceptions thrown by the method are wrapped within the handle, so a {@link ClassCastException} or
+ * {@link NullPointerException} out of the handle comes from the arguments not matching the method signature.
+ */
+public class MethodHandleFunctionInvoker implements FunctionInvoker {
+    private static final MethodType INVOKER_TYPE = methodType(Object.class, Object.class, Object[].class);
+    private static final MethodHandle WRAP_TARGET_EXCEPTION;
+
+    static {
+        try {
+            WRAP_TARGET_EXCEPTION = MethodHandles.lookup().findStatic(MethodHandleFunctionInvoker.class, "wrapTargetException", methodType(Object.class, Throwable.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<?>[] parameterClasses;
+    private final MethodHandle handle;
+
+    /**
+     * Binds the handle for the given method.
+     *
+     * @param method The method to bind.
+     * @throws IllegalAccessException If the method is not publicly accessible.
+     */
+    public MethodHandleFunctionInvoker(Method method) throws IllegalAccessException {
+        this.parameterClasses = method.getParameterTypes();
+        MethodHandle methodHandle = MethodHandles.publicLookup().unreflect(method);
+        methodHandle = MethodHandles.catchException(methodHandle, Throwable.class, WRAP_TARGET_EXCEPTION.asType(methodType(methodHandle.type().returnType(), Throwable.class)));
+        if (Modifier.isStatic(method.getModifiers())) {
+            methodHandle = MethodHandles.dropArguments(methodHandle, 0, Object.class);
+        }
+        this.handle = methodHandle.asSpreader(Object[].class, parameterClasses.length).asType(INVOKER_TYPE);
+    }
+
+    @Override
+    public Object invoke(Object function, Object[] arguments) throws InvocationTargetException {
+        if (arguments.length < parameterClasses.length) {
+            throw new IllegalArgumentException(format("Wrong number of arguments: %s. Expected %s.", arguments.length, parameterClasses.length));
+        }
+        Object[] boundArguments = arguments.length > parameterClasses.length ? Arrays.copyOf(arguments, parameterClasses.length) : arguments;
+        try {
+            return (Object) handle.invokeExact(function, boundArguments);
+        } catch (InvocationTargetException e) {
+            throw e;
+        } catch (ClassCastException | NullPointerException e) {
+            throw new IllegalArgumentException(format("Arguments do not match the parameter types %s.", Arrays.toString(parameterClasses)), e);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    private static Object wrapTargetException(Throwable e) throws InvocationTargetException {
+        throw new InvocationTargetException(e);
+    }
+}
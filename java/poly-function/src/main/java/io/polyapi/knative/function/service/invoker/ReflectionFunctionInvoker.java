@@ -0,0 +1,24 @@
+package io.polyapi.knative.function.service.invoker;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * {@link FunctionInvoker} that delegates on {@link Method#invoke(Object, Object...)}. Used as fallback whenever a
+ * {@link MethodHandleFunctionInvoker} cannot be bound.
+ */
+public class ReflectionFunctionInvoker implements FunctionInvoker {
+    private final Method method;
+    private final int parameterCount;
+
+    public ReflectionFunctionInvoker(Method method) {
+        this.method = method;
+        this.parameterCount = method.getParameterCount();
+    }
+
+    @Override
+    public Object invoke(Object function, Object[] arguments) throws IllegalAccessException, InvocationTargetException {
+        return method.invoke(function, arguments.length > parameterCount ? Arrays.copyOf(arguments, parameterCount) : arguments);
+    }
+}
@@ -0,0 +1,192 @@
+package io.polyapi.knative.function.warmup;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.controller.binding.ArgumentBinder;
+import io.polyapi.knative.function.controller.dto.BatchItemResult;
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import io.polyapi.knative.function.model.InvocationPlan;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.InvocationService;
+import io.polyapi.knative.function.service.StreamedResult;
+import io.polyapi.knative.function.service.instance.FunctionInstanceProviderRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Warms up the function before it's reported ready. Once the application is ready, the function instances are
+ * prepared, the serializers of the function result and of the response envelopes are built, and the function is
+ * called with the sample payloads for the configured number of iterations. The argument deserializers are built along
+ * with the {@link ArgumentBinder}. Until then this health contributor, part of the readiness group, is DOWN, so no
+ * traffic is sent to a function that would still load its classes and run interpreted.
+ * <p>
+ * The sample is a resource, set with 'polyapi.function.warm-up.sample', holding an array of request bodies like the
+ * one of a batch request. Its executions run the function for real. Failed executions are counted and don't prevent
+ * the function from becoming ready.
+ */
+@Slf4j
+@Setter
+@Component("warmUp")
+@Order(0)
+public class FunctionWarmUp implements HealthIndicator, ApplicationListener<ApplicationReadyEvent> {
+    private static final String METRIC_PREFIX = "polyapi.function.warm-up.";
+    public static final String EXECUTION_ID = "warm-up";
+
+    @Value("${polyapi.function.warm-up.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${polyapi.function.warm-up.sample:}")
+    private Resource sample;
+
+    @Value("${polyapi.function.warm-up.iterations:100}")
+    private int iterations = 100;
+
+    @Autowired
+    private InvocationPlan invocationPlan;
+
+    @Autowired
+    private ArgumentBinder argumentBinder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InvocationService invocationService;
+
+    @Autowired
+    private FunctionInstanceProviderRegistry instanceProviderRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Getter
+    private volatile boolean done;
+
+    @Getter
+    private volatile int executions;
+
+    @Getter
+    private volatile int failures;
+
+    @Getter
+    private volatile long durationMillis;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        warmUp();
+    }
+
+    /**
+     * Runs the warm-up, once. It is run on the thread that calls it, and the function is reported ready afterwards.
+     */
+    public synchronized void warmUp() {
+        if (done) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (enabled) {
+            log.info("Warming up function {}.", invocationPlan);
+            prepareInstances();
+            prepareSerializers();
+            if (sample != null) {
+                execute(loadSample());
+            }
+        }
+        durationMillis = NANOSECONDS.toMillis(System.nanoTime() - start);
+        Gauge.builder(METRIC_PREFIX + "executions", this, FunctionWarmUp::getExecutions)
+                .description("Function executions run by the warm-up.")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "failures", this, FunctionWarmUp::getFailures)
+                .description("Function executions of the warm-up that failed.")
+                .register(meterRegistry);
+        TimeGauge.builder(METRIC_PREFIX + "duration", this, MILLISECONDS, FunctionWarmUp::getDurationMillis)
+                .description("Time spent warming up the function before reporting it ready.")
+                .register(meterRegistry);
+        done = true;
+        if (failures > 0) {
+            log.warn("Function warmed up in {} ms, with {} of {} executions failed. Check the warm-up sample.", durationMillis, failures, executions);
+        } else {
+            log.info("Function warmed up in {} ms, with {} executions.", durationMillis, executions);
+        }
+    }
+
+    private void prepareInstances() {
+        try {
+            instanceProviderRegistry.get(invocationPlan).getInstance(new PolyCustom(EXECUTION_ID, "", OK.value(), APPLICATION_JSON_VALUE), new InvocationTimings());
+        } catch (RuntimeException e) {
+            log.warn("Function instance couldn't be created on warm-up. The error will be reported on execution.", e);
+        }
+    }
+
+    private void prepareSerializers() {
+        JavaType resultType = objectMapper.constructType(invocationPlan.getMethod().getGenericReturnType());
+        while (resultType.isTypeOrSubTypeOf(CompletionStage.class) || resultType.isTypeOrSubTypeOf(Mono.class)) {
+            resultType = resultType.containedTypeOrUnknown(0);
+        }
+        // The writers build the serializers on creation, which are then kept in the cache of the mapper.
+        for (JavaType type : List.of(resultType, objectMapper.constructType(TriggerEventResult.class), objectMapper.constructType(BatchItemResult.class))) {
+            if (!type.isPrimitive() && !type.hasRawClass(Void.class)) {
+                objectMapper.writerFor(type);
+            }
+        }
+    }
+
+    private List<Supplier<Object[]>> loadSample() {
+        try (InputStream body = sample.getInputStream()) {
+            return argumentBinder.bindBatch(body);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Warm-up sample {} couldn't be read. The function won't be executed on warm-up.", sample, e);
+            return List.of();
+        }
+    }
+
+    private void execute(List<Supplier<Object[]>> payloads) {
+        for (int iteration = 0; iteration < iterations && !payloads.isEmpty(); iteration++) {
+            try {
+                InvocationResult result = StreamedResult.collected(invocationService.invokeFunction(invocationPlan, payloads.get(iteration % payloads.size()).get(), false, EXECUTION_ID)).join();
+                objectMapper.writeValue(OutputStream.nullOutputStream(), result.getData().orElse(""));
+            } catch (IOException | RuntimeException e) {
+                failures++;
+                log.debug("Warm-up execution {} failed.", iteration, e);
+            }
+            executions++;
+        }
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = done ? Health.up() : Health.down().withDetail("state", "warming up");
+        return health.withDetail("executions", executions)
+                .withDetail("failures", failures)
+                .withDetail("durationMillis", durationMillis)
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package io.polyapi.knative.function.warmup;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Build mode that starts the function, sends it sample invocations through the {@link WarmUpClient} and exits. It's
+ * run with '-XX:ArchiveClassesAtExit' by the 'cds' profile, so the class data sharing archive dumped on exit holds the
+ * classes loaded by the startup and by both invocation endpoints.
+ * <p>
+ * Enabled with 'polyapi.function.training.enabled'. The sample body is set with 'polyapi.function.training.body' and
+ * must be valid arguments for the function, as its executions run for real. Without a body only the startup classes
+ * are loaded.
+ */
+@Slf4j
+@Setter
+@Component
+public class TrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Value("${polyapi.function.training.enabled:false}")
+    private boolean enabled;
+
+    @Value("${polyapi.function.training.invocations:100}")
+    private int invocations;
+
+    @Value("${polyapi.function.training.body:}")
+    private String body;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+        int failures = 0;
+        if (!body.isBlank() && event.getApplicationContext() instanceof WebServerApplicationContext context) {
+            failures = new WarmUpClient(context.getWebServer().getPort()).warmUp(body, invocations);
+        }
+        log.info("Training run finished. Exiting.");
+        int exitCode = SpringApplication.exit(event.getApplicationContext());
+        System.exit(failures == invocations && failures > 0 ? 1 : exitCode);
+    }
+}
@@ -0,0 +1,90 @@
+package io.polyapi.knative.function.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpHeaders.CONNECTION;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Sends sample invocations to the function running in the same JVM, alternating between the invoke and the trigger
+ * endpoints, so the classes of the whole request handling path are loaded and its methods compiled before real traffic
+ * arrives. The executions run the function for real.
+ */
+@Slf4j
+public class WarmUpClient {
+
+    private final URI uri;
+
+    public WarmUpClient(int port) {
+        this.uri = URI.create("http://localhost:" + port + "/");
+    }
+
+    /**
+     * Sends the sample invocations.
+     *
+     * @param body        The request body, with valid arguments for the function.
+     * @param invocations The number of invocations to send.
+     * @return int The number of invocations that failed.
+     */
+    public int warmUp(String body, int invocations) {
+        log.info("Warming up function with {} invocations.", invocations);
+        long start = System.nanoTime();
+        int failures = 0;
+        byte[] payload = body.getBytes(UTF_8);
+        for (int i = 0; i < invocations; i++) {
+            if (!send(payload, i % 2 == 1)) {
+                failures++;
+            }
+        }
+        if (failures > 0) {
+            log.warn("{} of {} warm-up invocations failed. Check the warm-up body.", failures, invocations);
+        }
+        log.info("Function warmed up in {} ms.", (System.nanoTime() - start) / 1_000_000);
+        return failures;
+    }
+
+    private boolean send(byte[] payload, boolean trigger) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) uri.toURL().openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty(CONTENT_TYPE, APPLICATION_JSON_VALUE);
+            // Connections are not kept alive, as open sockets prevent checkpoints of the JVM.
+            connection.setRequestProperty(CONNECTION, "close");
+            if (trigger) {
+                connection.setRequestProperty("ce-id", FunctionWarmUp.EXECUTION_ID);
+                connection.setRequestProperty("ce-executionid", FunctionWarmUp.EXECUTION_ID);
+                connection.setRequestProperty("ce-environment", FunctionWarmUp.EXECUTION_ID);
+                connection.setRequestProperty("ce-type", FunctionWarmUp.EXECUTION_ID);
+            } else {
+                connection.setRequestProperty("x-poly-execution-id", FunctionWarmUp.EXECUTION_ID);
+            }
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(payload);
+            }
+            int status = connection.getResponseCode();
+            try (InputStream inputStream = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (inputStream != null) {
+                    inputStream.readAllBytes();
+                }
+            }
+            return status < 400;
+        } catch (IOException e) {
+            log.debug("Warm-up invocation failed.", e);
+            return false;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+}
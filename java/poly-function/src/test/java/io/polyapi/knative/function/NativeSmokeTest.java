@@ -0,0 +1,89 @@
+package io.polyapi.knative.function;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Starts a native executable of the function and measures its startup time, until the health endpoint answers, and the
+ * latency of its first request. Enabled with '-Dnative.executable=target/knative.function'. The body of the request
+ * is set with 'native.body' and must match the function the executable was built for. The startup time must stay below
+ * 'native.max-startup-ms'.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "native.executable", matches = ".+")
+public class NativeSmokeTest {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(30);
+
+    @Test
+    public void startupTest() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>(Arrays.asList(System.getProperty("native.executable").split(" ")));
+        command.add("--server.port=" + port);
+        URI uri = URI.create("http://localhost:" + port + "/");
+        HttpClient client = HttpClient.newHttpClient();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target/native-smoke.log"))
+                .start();
+        try {
+            awaitHealthy(client, uri, process, start);
+            long startupMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            long requestStart = System.nanoTime();
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(System.getProperty("native.body", "[\"smoke\"]")))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            double firstRequestMillis = (System.nanoTime() - requestStart) / 1e6;
+            log.info("Native function started in {} ms. First request answered in {} ms with status {}: {}", startupMillis, firstRequestMillis, response.statusCode(), response.body());
+            assertThat(response.statusCode(), both(greaterThanOrEqualTo(200)).and(lessThan(300)));
+            assertThat(startupMillis, lessThanOrEqualTo(Long.getLong("native.max-startup-ms", 1000L)));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static void awaitHealthy(HttpClient client, URI uri, Process process, long start) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(uri.resolve("/actuator/health")).timeout(Duration.ofSeconds(1)).build();
+        while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The native function exited with code " + process.exitValue() + ". See target/native-smoke.log.");
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("The native function didn't become healthy in " + STARTUP_TIMEOUT + ".");
+    }
+}
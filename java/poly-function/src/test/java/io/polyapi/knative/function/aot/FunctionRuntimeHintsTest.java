@@ -0,0 +1,47 @@
+package io.polyapi.knative.function.aot;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.mock.function.InheritedPolyCustomIntegerConsumer;
+import io.polyapi.knative.function.mock.function.PolyCustomFunction;
+import io.polyapi.knative.function.mock.function.PolyCustomIntegerConsumer;
+import io.polyapi.knative.function.mock.function.SetterPolyCustomIntegerConsumer;
+import io.polyapi.knative.function.mock.function.StatefulObject;
+import io.polyapi.knative.function.mock.function.StatefulObjectConsumer;
+import io.polyapi.knative.function.service.InvocationPlanFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.springframework.aot.hint.predicate.RuntimeHintsPredicates.reflection;
+
+public class FunctionRuntimeHintsTest {
+    private final InvocationPlanFactory planFactory = new InvocationPlanFactory();
+
+    @Test
+    public void functionHintsTest() throws NoSuchMethodException, NoSuchFieldException {
+        RuntimeHints hints = new RuntimeHints();
+        FunctionRuntimeHints.registerHints(hints, planFactory.create(InheritedPolyCustomIntegerConsumer.class, InheritedPolyCustomIntegerConsumer.class.getMethod("accept", Integer.class)));
+        assertThat(reflection().onType(InheritedPolyCustomIntegerConsumer.class).withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints), is(true));
+        assertThat(reflection().onMethod(PolyCustomIntegerConsumer.class, "accept").invoke().test(hints), is(true));
+        assertThat(reflection().onField(PolyCustomIntegerConsumer.class.getDeclaredField("polyCustom")).test(hints), is(true));
+    }
+
+    @Test
+    public void setterHintsTest() throws NoSuchMethodException {
+        RuntimeHints hints = new RuntimeHints();
+        FunctionRuntimeHints.registerHints(hints, planFactory.create(SetterPolyCustomIntegerConsumer.class, SetterPolyCustomIntegerConsumer.class.getMethod("accept", Integer.class)));
+        assertThat(reflection().onMethod(SetterPolyCustomIntegerConsumer.class.getMethod("setPolyCustom", PolyCustom.class)).invoke().test(hints), is(true));
+    }
+
+    @Test
+    public void bindingHintsTest() throws NoSuchMethodException {
+        RuntimeHints hints = new RuntimeHints();
+        FunctionRuntimeHints.registerHints(hints, planFactory.create(StatefulObjectConsumer.class, StatefulObjectConsumer.class.getMethod("accept", StatefulObject.class)));
+        FunctionRuntimeHints.registerHints(hints, planFactory.create(PolyCustomFunction.class, PolyCustomFunction.class.getMethod("execute", String.class)));
+        assertThat(reflection().onType(StatefulObject.class).withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints), is(true));
+        assertThat(reflection().onMethod(StatefulObject.class, "setModified").invoke().test(hints), is(true));
+        assertThat(reflection().onMethod(PolyCustomFunction.DonRamon.class, "getName").invoke().test(hints), is(true));
+    }
+}
@@ -0,0 +1,109 @@
+package io.polyapi.knative.function.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.controller.binding.ArgumentBinder;
+import io.polyapi.knative.function.controller.dto.BatchItemResult;
+import io.polyapi.knative.function.error.function.admission.ExecutionRejectedException;
+import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import io.polyapi.knative.function.model.InvocationPlan;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.InvocationPlanFactory;
+import io.polyapi.knative.function.service.InvocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_PLAIN_VALUE;
+
+public class BatchInvocationControllerTest {
+    private static final String DEFAULT_EXECUTION_ID = "test-execution-id";
+    private BatchInvocationController controller;
+    private InvocationService invocationService;
+    private InvocationPlan invocationPlan;
+
+    @BeforeEach
+    public void setUp() throws NoSuchMethodException {
+        invocationPlan = new InvocationPlanFactory().create(StringToStringFunction.class, StringToStringFunction.class.getDeclaredMethod("apply", String.class));
+        invocationService = Mockito.mock(InvocationService.class);
+        controller = new BatchInvocationController();
+        controller.setFunctionId("test-function-id");
+        controller.setInvocationPlan(invocationPlan);
+        controller.setInvocationService(invocationService);
+        controller.setArgumentBinder(new ArgumentBinder(invocationPlan, new ObjectMapper()));
+        controller.setParallelism(2);
+    }
+
+    private static InputStream createPayload(String payload) {
+        return new ByteArrayInputStream(payload.getBytes(UTF_8));
+    }
+
+    private static CompletableFuture<InvocationResult> completedResult(String data, String executionId) {
+        return CompletableFuture.completedFuture(new InvocationResult(data, new PolyCustom(executionId, "apiKey", 200, TEXT_PLAIN_VALUE)));
+    }
+
+    @Test
+    public void invokeBatchTest() {
+        CompletableFuture<InvocationResult> slowExecution = new CompletableFuture<>();
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 0"}), eq(true), eq(DEFAULT_EXECUTION_ID + "-0"))).thenReturn(slowExecution);
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 1"}), eq(true), eq(DEFAULT_EXECUTION_ID + "-1"))).thenReturn(CompletableFuture.failedFuture(new IllegalStateException()));
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 3"}), eq(true), eq(DEFAULT_EXECUTION_ID + "-3"))).thenReturn(CompletableFuture.failedFuture(new ExecutionRejectedException(1, 1)));
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 4"}), eq(true), eq(DEFAULT_EXECUTION_ID + "-4"))).thenReturn(completedResult("4 esac", DEFAULT_EXECUTION_ID + "-4"));
+        CompletableFuture<List<BatchItemResult>> result = controller.invokeBatch(true, DEFAULT_EXECUTION_ID,
+                createPayload("[[\"case 0\"], {\"args\": [\"case 1\"]}, \"case 2\", [\"case 3\"], [\"case 4\"]]"));
+        assertThat(result.isDone(), equalTo(false));
+        slowExecution.complete(new InvocationResult("0 esac", new PolyCustom(DEFAULT_EXECUTION_ID + "-0", "apiKey", 201, TEXT_PLAIN_VALUE)));
+        List<BatchItemResult> items = result.join();
+        assertThat(items.size(), equalTo(5));
+        assertThat(items.get(0).getStatusCode(), equalTo(201));
+        assertThat(items.get(0).getData(), equalTo("0 esac"));
+        assertThat(items.get(0).getError(), nullValue());
+        assertThat(items.get(1).getStatusCode(), equalTo(500));
+        assertThat(items.get(1).getExecutionId(), equalTo(DEFAULT_EXECUTION_ID + "-1"));
+        assertThat(items.get(1).getError().getStatusCode(), equalTo(500));
+        assertThat(items.get(2).getStatusCode(), equalTo(400));
+        assertThat(items.get(2).getContentType(), equalTo(APPLICATION_JSON_VALUE));
+        assertThat(items.get(3).getStatusCode(), equalTo(429));
+        assertThat(items.get(4).getStatusCode(), equalTo(200));
+        assertThat(items.get(4).getData(), equalTo("4 esac"));
+    }
+
+    @Test
+    public void invokeBatchParallelismTest() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<CompletableFuture<InvocationResult>> executions = IntStream.range(0, 10).mapToObj(i -> new CompletableFuture<InvocationResult>()).toList();
+        AtomicInteger started = new AtomicInteger();
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), any(), eq(false), anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return executions.get(started.getAndIncrement()).whenComplete((r, e) -> inFlight.decrementAndGet());
+        });
+        CompletableFuture<List<BatchItemResult>> result = controller.invokeBatch(false, "", createPayload("[[\"a\"], [\"b\"], [\"c\"], [\"d\"], [\"e\"], [\"f\"], [\"g\"], [\"h\"], [\"i\"], [\"j\"]]"));
+        while (!result.isDone()) {
+            executions.stream().filter(execution -> !execution.isDone()).findFirst()
+                    .ifPresent(execution -> execution.complete(new InvocationResult("done", new PolyCustom("", "apiKey", 200, TEXT_PLAIN_VALUE))));
+        }
+        assertThat(maxInFlight.get(), equalTo(2));
+        assertThat(result.join().size(), equalTo(10));
+    }
+
+    @Test
+    public void invokeEmptyBatchTest() {
+        assertThat(controller.invokeBatch(false, DEFAULT_EXECUTION_ID, createPayload("[]")).join().size(), equalTo(0));
+    }
+}
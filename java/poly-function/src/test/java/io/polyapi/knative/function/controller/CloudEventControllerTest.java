@@ -0,0 +1,192 @@
+package io.polyapi.knative.function.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.commons.api.error.parse.JsonToObjectParsingException;
+import io.polyapi.knative.function.controller.binding.ArgumentBinder;
+import io.polyapi.knative.function.controller.binding.CloudEventReader;
+import io.polyapi.knative.function.controller.delivery.AsyncTriggerDelivery;
+import io.polyapi.knative.function.controller.delivery.TriggerResultSink;
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import io.polyapi.knative.function.error.function.admission.ExecutionRejectedException;
+import io.polyapi.knative.function.error.function.event.InvalidCloudEventException;
+import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import io.polyapi.knative.function.model.InvocationPlan;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.InvocationPlanFactory;
+import io.polyapi.knative.function.service.InvocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.http.MediaType.TEXT_PLAIN_VALUE;
+
+public class CloudEventControllerTest {
+    private CloudEventController controller;
+    private InvocationService invocationService;
+    private InvocationPlan invocationPlan;
+
+    @BeforeEach
+    public void setUp() throws NoSuchMethodException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        invocationPlan = new InvocationPlanFactory().create(StringToStringFunction.class, StringToStringFunction.class.getDeclaredMethod("apply", String.class));
+        invocationService = Mockito.mock(InvocationService.class);
+        controller = new CloudEventController();
+        controller.setFunctionId("test-function-id");
+        controller.setInvocationPlan(invocationPlan);
+        controller.setInvocationService(invocationService);
+        controller.setCloudEventReader(new CloudEventReader(new ArgumentBinder(invocationPlan, objectMapper), objectMapper));
+        controller.setParallelism(2);
+    }
+
+    private static InputStream createPayload(String payload) {
+        return new ByteArrayInputStream(payload.getBytes(UTF_8));
+    }
+
+    private static String createEvent(String id, String data) {
+        return "{\"specversion\": \"1.0\", \"id\": \"" + id + "\", \"source\": \"test\", \"type\": \"trigger\", \"executionid\": \"execution-" + id + "\", \"environment\": \"env\", \"datacontenttype\": \"application/json\", \"data\": " + data + "}";
+    }
+
+    private static CompletableFuture<InvocationResult> completedResult(String data, String executionId) {
+        return CompletableFuture.completedFuture(new InvocationResult(data, new PolyCustom(executionId, "apiKey", 200, TEXT_PLAIN_VALUE)));
+    }
+
+    @Test
+    public void triggerTest() {
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 1"}), eq(false), eq("execution-1"))).thenReturn(completedResult("1 esac", "execution-1"));
+        ResponseEntity<TriggerEventResult> response = controller.trigger(false, createPayload(createEvent("1", "[\"case 1\"]"))).join();
+        assertThat(response.getHeaders().getFirst("ce-id"), equalTo("1"));
+        assertThat(response.getHeaders().getFirst("ce-type"), equalTo("trigger.response"));
+        assertThat(response.getHeaders().getFirst("ce-datacontenttype"), nullValue());
+        assertThat(response.getBody().getExecutionId(), equalTo("execution-1"));
+        assertThat(response.getBody().getEnvironmentId(), equalTo("env"));
+        assertThat(response.getBody().getData(), equalTo("1 esac"));
+        assertThat(response.getBody().getMetrics().getPhaseNanos().containsKey("bind"), equalTo(true));
+    }
+
+    @Test
+    public void asyncTriggerTest() {
+        List<ResponseEntity<TriggerEventResult>> delivered = new CopyOnWriteArrayList<>();
+        TriggerResultSink sink = result -> {
+            delivered.add(result);
+            return CompletableFuture.completedFuture(null);
+        };
+        CompletableFuture<InvocationResult> execution = new CompletableFuture<>();
+        Mockito.when(invocationService.startFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 1"}), eq(false), eq("execution-1"))).thenReturn(CompletableFuture.completedFuture(execution));
+        Mockito.when(invocationService.startFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 2"}), eq(false), eq("execution-2"))).thenReturn(CompletableFuture.completedFuture(CompletableFuture.failedFuture(new IllegalStateException())));
+        try (AsyncTriggerDelivery delivery = new AsyncTriggerDelivery(sink, 10, 1, Duration.ZERO, Duration.ofSeconds(1), new SimpleMeterRegistry())) {
+            controller.setAsyncTriggerDelivery(delivery);
+            ResponseEntity<TriggerEventResult> response = controller.trigger(false, createPayload(createEvent("1", "[\"case 1\"]"))).join();
+            assertThat(response.getStatusCode().value(), equalTo(202));
+            assertThat(response.getBody(), nullValue());
+            assertThat(delivered.size(), equalTo(0));
+            execution.complete(new InvocationResult("1 esac", new PolyCustom("execution-1", "apiKey", 200, TEXT_PLAIN_VALUE)));
+            assertThat(controller.trigger(false, createPayload(createEvent("2", "[\"case 2\"]"))).join().getStatusCode().value(), equalTo(202));
+            assertThat(delivered.size(), equalTo(2));
+            assertThat(delivered.get(0).getHeaders().getFirst("ce-id"), equalTo("1"));
+            assertThat(delivered.get(0).getHeaders().getFirst("ce-type"), equalTo("trigger.response"));
+            assertThat(delivered.get(0).getBody().getData(), equalTo("1 esac"));
+            assertThat(delivered.get(0).getBody().getMetrics().getPhaseNanos().containsKey("bind"), equalTo(true));
+            assertThat(delivered.get(1).getBody().getExecutionId(), equalTo("execution-2"));
+            assertThat(delivered.get(1).getBody().getStatusCode(), equalTo(500));
+            assertThat(delivered.get(1).getBody().getError().getStatusCode(), equalTo(500));
+        }
+    }
+
+    @Test
+    public void asyncTriggerRejectedTest() {
+        List<ResponseEntity<TriggerEventResult>> delivered = new CopyOnWriteArrayList<>();
+        TriggerResultSink sink = result -> {
+            delivered.add(result);
+            return CompletableFuture.completedFuture(null);
+        };
+        Mockito.when(invocationService.startFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 1"}), eq(false), eq("execution-1"))).thenReturn(CompletableFuture.failedFuture(new ExecutionRejectedException(1, 0)));
+        try (AsyncTriggerDelivery delivery = new AsyncTriggerDelivery(sink, 10, 1, Duration.ZERO, Duration.ofSeconds(1), new SimpleMeterRegistry())) {
+            controller.setAsyncTriggerDelivery(delivery);
+            CompletionException exception = assertThrows(CompletionException.class, () -> controller.trigger(false, createPayload(createEvent("1", "[\"case 1\"]"))).join());
+            assertThat(exception.getCause(), instanceOf(ExecutionRejectedException.class));
+            assertThat(delivery.getPending(), equalTo(0));
+            assertThat(delivered.size(), equalTo(0));
+        }
+    }
+
+    @Test
+    public void triggerErrorTest() {
+        assertThrows(InvalidCloudEventException.class, () -> controller.trigger(false, createPayload("{\"id\": \"2\", \"data\": [\"case 2\"]}")));
+        assertThrows(InvalidCloudEventException.class, () -> controller.trigger(false, createPayload(createEvent("3", "[\"case 3\"]").replace("application/json", "text/plain"))));
+        assertThrows(JsonToObjectParsingException.class, () -> controller.trigger(false, createPayload("[\"case 4\"]")));
+    }
+
+    @Test
+    public void triggerBatchTest() {
+        CompletableFuture<InvocationResult> slowExecution = new CompletableFuture<>();
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 0"}), eq(true), eq("execution-0"))).thenReturn(slowExecution);
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 1"}), eq(true), eq("execution-1"))).thenReturn(CompletableFuture.failedFuture(new IllegalStateException()));
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 3"}), eq(true), eq("execution-3"))).thenReturn(completedResult("3 esac", "execution-3"));
+        CompletableFuture<List<TriggerEventResult>> result = controller.triggerBatch(true, createPayload("[" + createEvent("0", "[\"case 0\"]") + ", "
+                + createEvent("1", "{\"args\": [\"case 1\"]}") + ", "
+                + createEvent("2", "\"case 2\"") + ", "
+                + createEvent("3", "[\"case 3\"]") + "]"));
+        assertThat(result.isDone(), equalTo(false));
+        slowExecution.complete(new InvocationResult("0 esac", new PolyCustom("execution-0", "apiKey", 201, TEXT_PLAIN_VALUE)));
+        List<TriggerEventResult> results = result.join();
+        assertThat(results.size(), equalTo(4));
+        assertThat(results.get(0).getStatusCode(), equalTo(201));
+        assertThat(results.get(0).getData(), equalTo("0 esac"));
+        assertThat(results.get(0).getError(), nullValue());
+        assertThat(results.get(1).getStatusCode(), equalTo(500));
+        assertThat(results.get(1).getExecutionId(), equalTo("execution-1"));
+        assertThat(results.get(1).getError().getStatusCode(), equalTo(500));
+        assertThat(results.get(2).getStatusCode(), equalTo(400));
+        assertThat(results.get(2).getEnvironmentId(), equalTo("env"));
+        assertThat(results.get(3).getStatusCode(), equalTo(200));
+        assertThat(results.get(3).getData(), equalTo("3 esac"));
+        assertThat(results.get(3).getMetrics(), notNullValue());
+    }
+
+    @Test
+    public void triggerBatchParallelismTest() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<CompletableFuture<InvocationResult>> executions = IntStream.range(0, 10).mapToObj(i -> new CompletableFuture<InvocationResult>()).toList();
+        AtomicInteger started = new AtomicInteger();
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), any(), eq(false), anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return executions.get(started.getAndIncrement()).whenComplete((r, e) -> inFlight.decrementAndGet());
+        });
+        CompletableFuture<List<TriggerEventResult>> result = controller.triggerBatch(false, createPayload("[" + String.join(", ", IntStream.range(0, 10).mapToObj(i -> createEvent(String.valueOf(i), "[\"case\"]")).toList()) + "]"));
+        while (!result.isDone()) {
+            executions.stream().filter(execution -> !execution.isDone()).findFirst()
+                    .ifPresent(execution -> execution.complete(new InvocationResult("done", new PolyCustom("", "apiKey", 200, TEXT_PLAIN_VALUE))));
+        }
+        assertThat(maxInFlight.get(), equalTo(2));
+        assertThat(result.join().size(), equalTo(10));
+    }
+
+    @Test
+    public void triggerBatchErrorTest() {
+        assertThrows(JsonToObjectParsingException.class, () -> controller.triggerBatch(false, createPayload(createEvent("1", "[\"case 1\"]"))));
+    }
+}
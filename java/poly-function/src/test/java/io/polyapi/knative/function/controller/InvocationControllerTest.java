@@ -2,16 +2,21 @@ package io.polyapi.knative.function.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.polyapi.client.api.model.function.PolyCustom;
 import io.polyapi.commons.api.error.parse.JsonToObjectParsingException;
 import io.polyapi.commons.internal.json.JacksonJsonParser;
+import io.polyapi.knative.function.controller.binding.ArgumentBinder;
 import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import io.polyapi.knative.function.controller.streaming.StreamingResponseWriter;
 import io.polyapi.knative.function.error.PolyFunctionError;
 import io.polyapi.knative.function.error.PolyKNativeFunctionException;
+import io.polyapi.knative.function.error.function.admission.ExecutionRejectedException;
 import io.polyapi.knative.function.error.function.execution.PolyApiExecutionExceptionWrapperException;
 import io.polyapi.knative.function.error.function.state.ExecutionMethodNotFoundException;
 import io.polyapi.knative.function.error.function.state.InvalidArgumentTypeException;
 import io.polyapi.knative.function.error.function.state.PolyFunctionNotFoundException;
+import io.polyapi.knative.function.log.ExecutionContext;
 import io.polyapi.knative.function.mock.exception.MockServiceException;
 import io.polyapi.knative.function.mock.function.IntFunction;
 import io.polyapi.knative.function.mock.function.IntegerSupplier;
@@ -23,8 +28,12 @@ import io.polyapi.knative.function.mock.function.StatefulObjectConsumer;
 import io.polyapi.knative.function.mock.function.StatefulObjectSupplier;
 import io.polyapi.knative.function.mock.function.StringSupplier;
 import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import io.polyapi.knative.function.model.InvocationPlan;
 import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.InvocationPlanFactory;
 import io.polyapi.knative.function.service.InvocationService;
+import io.polyapi.knative.function.service.StreamedResult;
+import io.polyapi.knative.function.service.execution.ExecutionEngineConfiguration;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -34,7 +43,11 @@ import org.mockito.Mockito;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -43,14 +56,19 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static io.polyapi.knative.function.TestCaseDescriber.describeCase;
 import static io.polyapi.knative.function.TestCaseDescriber.describeErrorCase;
 import static io.polyapi.knative.function.mock.function.PolyCustomFunction.DEFAULT_RESULT;
+import static io.polyapi.knative.function.service.execution.ExecutionEngineType.PLATFORM_POOL;
 import static java.lang.String.join;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -59,6 +77,7 @@ import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 
 @Slf4j
 public class InvocationControllerTest {
@@ -68,6 +87,7 @@ public class InvocationControllerTest {
     private static final String DEFAULT_ERROR_MESSAGE = "Error!";
     private InvocationService invocationService;
     private static final JacksonJsonParser jsonParser = new JacksonJsonParser();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     public static List<Arguments> invokeSource() {
         return List.of(createArgumentsForInvoke(1, "Invoking function with params and Object result.", StringToStringFunction.class, List.of(String.class), "apply", "Result", "Case 1"),
@@ -98,28 +118,20 @@ public class InvocationControllerTest {
         }).toList(), new InvocationResult(expectedBody, new PolyCustom(executionId, apiKey, responseStatusCode, responseContentType)), Map.of(CONTENT_TYPE, responseContentType));
     }
 
-    private static JsonNode createArgsObjectPayload(List<JsonNode> arguments) {
-        try {
-            return jsonParser.readTree(jsonParser.toJsonString(Map.of("args", arguments)));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+    private static InputStream createArgsObjectPayload(List<JsonNode> arguments) {
+        return createPayload(Map.of("args", arguments));
     }
 
-    private static JsonNode createArgsObjectPayloadWithAuthData(List<JsonNode> arguments) {
-        try {
-            return jsonParser.readTree(jsonParser.toJsonString(Map.of("args", arguments, "authData", Map.of("tenantId", "test-tenant"))));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+    private static InputStream createArgsObjectPayloadWithAuthData(List<JsonNode> arguments) {
+        return createPayload(Map.of("args", arguments, "authData", Map.of("tenantId", "test-tenant")));
     }
 
-    private static JsonNode createArrayPayload(List<JsonNode> arguments) {
-        try {
-            return jsonParser.readTree(jsonParser.toJsonString(arguments));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+    private static InputStream createArrayPayload(List<JsonNode> arguments) {
+        return createPayload(arguments);
+    }
+
+    private static InputStream createPayload(Object payload) {
+        return new ByteArrayInputStream(jsonParser.toJsonString(payload).getBytes(UTF_8));
     }
 
 
@@ -179,23 +191,23 @@ public class InvocationControllerTest {
 
     public static List<Arguments> handleExceptionSource() {
         return List.of(Arguments.of(1, "Default 400 exception.", new PolyKNativeFunctionException(DEFAULT_ERROR_MESSAGE, BAD_REQUEST.value())),
-                Arguments.of(2, "Execution wrapped exception.", new PolyApiExecutionExceptionWrapperException(new PolyKNativeFunctionException(DEFAULT_ERROR_MESSAGE, BAD_REQUEST.value()))));
+                Arguments.of(2, "Execution wrapped exception.", new PolyApiExecutionExceptionWrapperException(new PolyKNativeFunctionException(DEFAULT_ERROR_MESSAGE, BAD_REQUEST.value()))),
+                Arguments.of(3, "Saturated function.", new ExecutionRejectedException(1, 1)));
     }
 
     @ParameterizedTest(name = "Case {0}: {1}")
     @MethodSource("invokeSource")
-    public void invokeTest(Integer caseNumber, String description, String functionId, String functionQualifiedName, List<String> parameterTypes, String methodName, boolean logsEnabled, List<JsonNode> arguments, InvocationResult invocationResult, Map<String, String> expectedHeaders) throws ClassNotFoundException {
+    public void invokeTest(Integer caseNumber, String description, String functionId, String functionQualifiedName, List<String> parameterTypes, String methodName, boolean logsEnabled, List<JsonNode> arguments, InvocationResult invocationResult, Map<String, String> expectedHeaders) {
         describeCase(caseNumber, description);
         InvocationController controller = new InvocationController();
         controller.setFunctionId(functionId);
-        controller.setFunctionQualifiedName(functionQualifiedName);
-        Optional.ofNullable(parameterTypes).map(types -> join(",", types)).ifPresent(controller::setParameterTypes);
-        controller.setMethodName(methodName);
+        InvocationPlan invocationPlan = new InvocationPlanFactory().create(functionQualifiedName, methodName, Optional.ofNullable(parameterTypes).map(types -> join(",", types)).orElse(null));
+        controller.setInvocationPlan(invocationPlan);
         invocationService = Mockito.mock(InvocationService.class);
-        Mockito.when(invocationService.invokeFunction(eq(Class.forName(Optional.ofNullable(functionQualifiedName).orElseGet(PolyCustomFunction.class::getName))), any(), any(), eq(logsEnabled), eq(invocationResult.getMetadata().getExecutionId()))).thenReturn(invocationResult);
+        Mockito.when(invocationService.invokeFunction(eq(invocationPlan), any(), eq(logsEnabled), eq(invocationResult.getMetadata().getExecutionId()))).thenReturn(invocationResult);
         controller.setInvocationService(invocationService);
-        controller.setJsonParser(jsonParser);
-        ResponseEntity<?> result = controller.invoke(logsEnabled, invocationResult.getMetadata().getExecutionId(), createArgsObjectPayload(arguments));
+        controller.setArgumentBinder(new ArgumentBinder(invocationPlan, OBJECT_MAPPER));
+        ResponseEntity<?> result = controller.invoke(logsEnabled, invocationResult.getMetadata().getExecutionId(), APPLICATION_JSON_VALUE, createArgsObjectPayload(arguments));
         assertThat(result.getBody(), equalTo(invocationResult.getData().orElse("")));
         assertThat(result.getHeaders().keySet(), equalTo(expectedHeaders.keySet()));
         if (expectedHeaders.containsKey(CONTENT_TYPE)) {
@@ -204,7 +216,7 @@ public class InvocationControllerTest {
                     .flatMap(List::stream)
                     .forEach(header -> assertThat(header, equalTo(expectedHeaders.get(CONTENT_TYPE))));
         }
-        Mockito.verify(invocationService).invokeFunction(eq(Class.forName(functionQualifiedName)), any(), any(), eq(logsEnabled), eq(invocationResult.getMetadata().getExecutionId()));
+        Mockito.verify(invocationService).invokeFunction(eq(invocationPlan), any(), eq(logsEnabled), eq(invocationResult.getMetadata().getExecutionId()));
     }
 
     @ParameterizedTest(name = "Case {0}: {1}")
@@ -213,32 +225,32 @@ public class InvocationControllerTest {
         describeErrorCase(caseNumber, description);
         InvocationController controller = new InvocationController();
         controller.setFunctionId(functionId);
-        controller.setFunctionQualifiedName(functionQualifiedName);
-        controller.setParameterTypes(parameterTypes);
-        controller.setMethodName(methodName);
         invocationService = Mockito.mock(InvocationService.class);
         if (expectedException.equals(MockServiceException.class)) {
-            Mockito.when(invocationService.invokeFunction(eq(Class.forName(Optional.ofNullable(functionQualifiedName).orElseGet(PolyCustomFunction.class::getName))), any(), any(), eq(logsEnabled), eq(executionId))).thenThrow(expectedException.getDeclaredConstructor().newInstance());
+            Mockito.when(invocationService.invokeFunction(any(), any(), eq(logsEnabled), eq(executionId))).thenThrow(expectedException.getDeclaredConstructor().newInstance());
         }
         controller.setInvocationService(invocationService);
-        controller.setJsonParser(jsonParser);
-        Throwable exception = assertThrows(expectedException, () -> controller.invoke(logsEnabled, executionId, createArgsObjectPayload(arguments)));
+        Throwable exception = assertThrows(expectedException, () -> {
+            InvocationPlan invocationPlan = new InvocationPlanFactory().create(functionQualifiedName, methodName, parameterTypes);
+            controller.setInvocationPlan(invocationPlan);
+            controller.setArgumentBinder(new ArgumentBinder(invocationPlan, OBJECT_MAPPER));
+            controller.invoke(logsEnabled, executionId, APPLICATION_JSON_VALUE, createArgsObjectPayload(arguments));
+        });
         assertThat(exception.getMessage(), equalTo(expectedMessage));
     }
 
     @ParameterizedTest(name = "Case {0}: {1}")
     @MethodSource("triggerSource")
-    public void triggerTest(Integer caseNumber, String description, String functionId, String environmentId, String functionQualifiedName, List<String> parameterTypes, String methodName, boolean logsEnabled, List<JsonNode> arguments, InvocationResult invocationResult, Map<String, String> expectedHeaders) throws ClassNotFoundException {
+    public void triggerTest(Integer caseNumber, String description, String functionId, String environmentId, String functionQualifiedName, List<String> parameterTypes, String methodName, boolean logsEnabled, List<JsonNode> arguments, InvocationResult invocationResult, Map<String, String> expectedHeaders) {
         describeCase(caseNumber, description);
         InvocationController controller = new InvocationController();
         controller.setFunctionId(functionId);
-        controller.setFunctionQualifiedName(functionQualifiedName);
-        Optional.ofNullable(parameterTypes).map(types -> join(",", types)).ifPresent(controller::setParameterTypes);
-        controller.setMethodName(methodName);
+        InvocationPlan invocationPlan = new InvocationPlanFactory().create(functionQualifiedName, methodName, Optional.ofNullable(parameterTypes).map(types -> join(",", types)).orElse(null));
+        controller.setInvocationPlan(invocationPlan);
         invocationService = Mockito.mock(InvocationService.class);
-        Mockito.when(invocationService.invokeFunction(eq(Class.forName(Optional.ofNullable(functionQualifiedName).orElseGet(PolyCustomFunction.class::getName))), any(), any(), eq(logsEnabled), eq(invocationResult.getMetadata().getExecutionId()))).thenReturn(invocationResult);
+        Mockito.when(invocationService.invokeFunction(eq(invocationPlan), any(), eq(logsEnabled), eq(invocationResult.getMetadata().getExecutionId()))).thenReturn(invocationResult);
         controller.setInvocationService(invocationService);
-        controller.setJsonParser(jsonParser);
+        controller.setArgumentBinder(new ArgumentBinder(invocationPlan, OBJECT_MAPPER));
         HttpHeaders headers = new HttpHeaders();
         headers.put("sample", List.of(UUID.randomUUID().toString()));
         headers.put(CONTENT_TYPE, List.of(invocationResult.getMetadata().getResponseContentType()));
@@ -252,6 +264,9 @@ public class InvocationControllerTest {
         assertThat(body.getFunctionId(), equalTo(functionId));
         assertThat(body.getMetrics().getStart(), notNullValue());
         assertThat(body.getMetrics().getEnd(), notNullValue());
+        assertThat(body.getMetrics().getPhaseNanos().keySet(), contains("bind"));
+        assertThat(body.getMetrics().getColdStart(), equalTo(false));
+        assertThat(body.getMetrics().getJvm().getUptimeMillis(), greaterThan(0L));
         assertThat(body.getData(), equalTo(invocationResult.getData().orElse("")));
         Map<String, String> expectedResultingHeaders = new HashMap<>(expectedHeaders);
         expectedResultingHeaders.put("ce-type", "trigger.response");
@@ -272,7 +287,30 @@ public class InvocationControllerTest {
         assertThat(wrappedBody.getExecutionId(), equalTo(invocationResult.getMetadata().getExecutionId()));
         assertThat(wrappedResult.getHeaders().getFirst("ce-type"), equalTo("trigger.response"));
 
-        Mockito.verify(invocationService, times(2)).invokeFunction(eq(Class.forName(functionQualifiedName)), any(), any(), eq(logsEnabled), eq(invocationResult.getMetadata().getExecutionId()));
+        Mockito.verify(invocationService, times(2)).invokeFunction(eq(invocationPlan), any(), eq(logsEnabled), eq(invocationResult.getMetadata().getExecutionId()));
+    }
+
+    @Test
+    public void invokeStreamingTest() throws Exception {
+        InvocationController controller = new InvocationController();
+        InvocationPlan invocationPlan = new InvocationPlanFactory().create(StringSupplier.class, StringSupplier.class.getDeclaredMethod("get"));
+        controller.setInvocationPlan(invocationPlan);
+        controller.setArgumentBinder(new ArgumentBinder(invocationPlan, OBJECT_MAPPER));
+        StreamingResponseWriter streamingResponseWriter = new StreamingResponseWriter(OBJECT_MAPPER);
+        controller.setStreamingResponseWriter(streamingResponseWriter);
+        StreamedResult streamedResult = new StreamedResult(Stream.of("a", "b"), new PolyCustom(DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, 206, APPLICATION_JSON_VALUE),
+                new ExecutionContext(DEFAULT_EXECUTION_ID, false), new ExecutionEngineConfiguration().executionEngine(PLATFORM_POOL, 4), () -> {});
+        invocationService = Mockito.mock(InvocationService.class);
+        Mockito.when(invocationService.invokeFunction(eq(invocationPlan), any(), eq(false), eq(DEFAULT_EXECUTION_ID)))
+                .thenReturn(new InvocationResult(streamedResult, new PolyCustom(DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, 206, APPLICATION_JSON_VALUE)));
+        controller.setInvocationService(invocationService);
+        ResponseEntity<?> result = controller.invoke(false, DEFAULT_EXECUTION_ID, APPLICATION_NDJSON_VALUE, createArrayPayload(List.of()));
+        assertThat(result.getStatusCode().value(), equalTo(206));
+        assertThat(result.getHeaders().getFirst(CONTENT_TYPE), equalTo(APPLICATION_NDJSON_VALUE));
+        assertThat(result.getBody(), instanceOf(ResponseBodyEmitter.class));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        streamingResponseWriter.write(streamedResult, outputStream, true).join();
+        assertThat(outputStream.toString(UTF_8), equalTo("\"a\"\n\"b\"\n"));
     }
 
     @ParameterizedTest(name = "Case {0}: {1}")
@@ -0,0 +1,124 @@
+package io.polyapi.knative.function.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.controller.binding.ArgumentBinder;
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import io.polyapi.knative.function.mock.exception.MockServiceException;
+import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import io.polyapi.knative.function.model.InvocationPlan;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.InvocationPlanFactory;
+import io.polyapi.knative.function.service.InvocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_PLAIN_VALUE;
+
+public class ReactiveInvocationControllerTest {
+    private static final String DEFAULT_EXECUTION_ID = "test-execution-id";
+    private ReactiveInvocationController controller;
+    private InvocationService invocationService;
+    private InvocationPlan invocationPlan;
+
+    @BeforeEach
+    public void setUp() throws NoSuchMethodException {
+        invocationPlan = new InvocationPlanFactory().create(StringToStringFunction.class, StringToStringFunction.class.getDeclaredMethod("apply", String.class));
+        invocationService = Mockito.mock(InvocationService.class);
+        controller = new ReactiveInvocationController();
+        controller.setFunctionId("test-function-id");
+        controller.setInvocationPlan(invocationPlan);
+        controller.setInvocationService(invocationService);
+        controller.setArgumentBinder(new ArgumentBinder(invocationPlan, new ObjectMapper()));
+        controller.setBindingScheduler(Schedulers.boundedElastic());
+    }
+
+    private static InputStream createPayload(String payload) {
+        return new ByteArrayInputStream(payload.getBytes(UTF_8));
+    }
+
+    @Test
+    public void invokeTest() {
+        CompletableFuture<InvocationResult> execution = new CompletableFuture<>();
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 1"}), eq(true), eq(DEFAULT_EXECUTION_ID))).thenReturn(execution);
+        Mono<ResponseEntity<?>> result = controller.invoke(true, DEFAULT_EXECUTION_ID, APPLICATION_JSON_VALUE, createPayload("[\"case 1\"]"));
+        execution.complete(new InvocationResult("1 esac", new PolyCustom(DEFAULT_EXECUTION_ID, "apiKey", 201, TEXT_PLAIN_VALUE)));
+        ResponseEntity<?> response = result.block();
+        assertThat(response.getStatusCode().value(), equalTo(201));
+        assertThat(response.getHeaders().getFirst(CONTENT_TYPE), equalTo(TEXT_PLAIN_VALUE));
+        assertThat(response.getBody(), equalTo("1 esac"));
+    }
+
+    @Test
+    public void bindingOffRequestThreadTest() throws Exception {
+        CountDownLatch bodyReceived = new CountDownLatch(1);
+        AtomicReference<Thread> bindingThread = new AtomicReference<>();
+        InputStream slowBody = new FilterInputStream(createPayload("[\"case 1\"]")) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                bindingThread.set(Thread.currentThread());
+                try {
+                    bodyReceived.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return super.read(b, off, len);
+            }
+        };
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), eq(new Object[]{"case 1"}), eq(false), eq(DEFAULT_EXECUTION_ID)))
+                .thenReturn(CompletableFuture.completedFuture(new InvocationResult("1 esac", new PolyCustom(DEFAULT_EXECUTION_ID, "apiKey", 200, TEXT_PLAIN_VALUE))));
+        // The request thread builds and subscribes to the response, and is released while the body is still being read.
+        CompletableFuture<ResponseEntity<?>> response = controller.invoke(false, DEFAULT_EXECUTION_ID, APPLICATION_JSON_VALUE, slowBody).toFuture();
+        assertFalse(response.isDone());
+        bodyReceived.countDown();
+        assertThat(response.get(5, SECONDS).getBody(), equalTo("1 esac"));
+        assertThat(bindingThread.get(), not(Thread.currentThread()));
+    }
+
+    @Test
+    public void invokeErrorTest() {
+        Mockito.when(invocationService.invokeFunctionAsync(any(), any(), eq(false), eq(DEFAULT_EXECUTION_ID))).thenReturn(CompletableFuture.failedFuture(new MockServiceException()));
+        Mono<ResponseEntity<?>> result = controller.invoke(false, DEFAULT_EXECUTION_ID, APPLICATION_JSON_VALUE, createPayload("{\"args\": [\"error case 1\"]}"));
+        assertThrows(MockServiceException.class, result::block);
+    }
+
+    @Test
+    public void triggerTest() {
+        Mockito.when(invocationService.invokeFunctionAsync(eq(invocationPlan), eq(new Object[]{null}), eq(false), eq(DEFAULT_EXECUTION_ID)))
+                .thenReturn(CompletableFuture.completedFuture(new InvocationResult(null, new PolyCustom(DEFAULT_EXECUTION_ID, "apiKey", 200, APPLICATION_JSON_VALUE))));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("sample", "value");
+        TriggerEventResult body = controller.trigger(headers, false, DEFAULT_EXECUTION_ID, "environment", createPayload("[]")).block().getBody();
+        assertThat(body.getStatusCode(), equalTo(200));
+        assertThat(body.getExecutionId(), equalTo(DEFAULT_EXECUTION_ID));
+        assertThat(body.getEnvironmentId(), equalTo("environment"));
+        assertThat(body.getData(), equalTo(""));
+        assertThat(body.getMetrics().getEnd(), notNullValue());
+    }
+}
@@ -0,0 +1,89 @@
+package io.polyapi.knative.function.controller.binding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.polyapi.commons.api.error.parse.JsonToObjectParsingException;
+import io.polyapi.knative.function.mock.function.IntFunction;
+import io.polyapi.knative.function.mock.function.StatefulObject;
+import io.polyapi.knative.function.mock.function.StatefulObjectConsumer;
+import io.polyapi.knative.function.mock.function.StringIntegerToStringBiFunction;
+import io.polyapi.knative.function.service.InvocationPlanFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static io.polyapi.knative.function.TestCaseDescriber.describeCase;
+import static io.polyapi.knative.function.TestCaseDescriber.describeErrorCase;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ArgumentBinderTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static List<Arguments> bindSource() throws NoSuchMethodException {
+        Method biFunction = StringIntegerToStringBiFunction.class.getDeclaredMethod("apply", String.class, Integer.class);
+        return List.of(Arguments.of(1, "Bare array.", biFunction, "[\"case \", 1]", new Object[]{"case ", 1}),
+                Arguments.of(2, "Object with 'args' array.", biFunction, "{\"args\": [\"case \", 2]}", new Object[]{"case ", 2}),
+                Arguments.of(3, "Other fields around 'args'.", biFunction, "{\"authData\": {\"tenantId\": [1, {\"args\": 0}]}, \"args\": [\"case \", 3], \"other\": null}", new Object[]{"case ", 3}),
+                Arguments.of(4, "Null payload.", biFunction, "null", new Object[]{null, null}),
+                Arguments.of(5, "Object without 'args'.", biFunction, "{\"bad\": 1}", new Object[]{null, null}),
+                Arguments.of(6, "Null 'args'.", biFunction, "{\"args\": null}", new Object[]{null, null}),
+                Arguments.of(7, "Missing arguments.", biFunction, "[\"case 7\"]", new Object[]{"case 7", null}),
+                Arguments.of(8, "Extra arguments.", biFunction, "[\"case \", 8, {\"extra\": [1, 2]}, [3]]", new Object[]{"case ", 8}),
+                Arguments.of(9, "Null argument.", biFunction, "[null, null]", new Object[]{null, null}),
+                Arguments.of(10, "Object argument.", StatefulObjectConsumer.class.getDeclaredMethod("accept", StatefulObject.class), "[{\"modified\": true}]", new Object[]{new StatefulObject(true)}),
+                Arguments.of(11, "Null primitive argument.", IntFunction.class.getDeclaredMethod("apply", int.class), "[null]", new Object[]{0}));
+    }
+
+    public static List<Arguments> bindErrorSource() throws NoSuchMethodException {
+        Method biFunction = StringIntegerToStringBiFunction.class.getDeclaredMethod("apply", String.class, Integer.class);
+        return List.of(Arguments.of(1, "Empty body.", biFunction, ""),
+                Arguments.of(2, "Scalar body.", biFunction, "\"case 2\""),
+                Arguments.of(3, "Non-array 'args'.", biFunction, "{\"args\": \"case 3\"}"),
+                Arguments.of(4, "Argument type mismatch.", biFunction, "[\"case \", {\"value\": 4}]"),
+                Arguments.of(5, "Malformed JSON.", biFunction, "[\"case 5\", "));
+    }
+
+    private static ArgumentBinder createBinder(Method method) {
+        return new ArgumentBinder(new InvocationPlanFactory().create(method.getDeclaringClass(), method), OBJECT_MAPPER);
+    }
+
+    @ParameterizedTest(name = "Case {0}: {1}")
+    @MethodSource("bindSource")
+    public void bindTest(Integer caseNumber, String description, Method method, String body, Object[] expectedArguments) {
+        describeCase(caseNumber, description);
+        assertThat(createBinder(method).bind(new ByteArrayInputStream(body.getBytes(UTF_8))), equalTo(expectedArguments));
+    }
+
+    @ParameterizedTest(name = "Error case {0}: {1}")
+    @MethodSource("bindErrorSource")
+    public void bindErrorTest(Integer caseNumber, String description, Method method, String body) {
+        describeErrorCase(caseNumber, description);
+        ArgumentBinder binder = createBinder(method);
+        assertThrows(JsonToObjectParsingException.class, () -> binder.bind(new ByteArrayInputStream(body.getBytes(UTF_8))));
+    }
+
+    @Test
+    public void bindBatchTest() throws NoSuchMethodException {
+        Method biFunction = StringIntegerToStringBiFunction.class.getDeclaredMethod("apply", String.class, Integer.class);
+        List<Supplier<Object[]>> payloads = createBinder(biFunction).bindBatch(new ByteArrayInputStream("[[\"case \", 1], {\"args\": [\"case \", {}]}, null]".getBytes(UTF_8)));
+        assertThat(payloads.size(), equalTo(3));
+        assertThat(payloads.get(0).get(), equalTo(new Object[]{"case ", 1}));
+        assertThrows(JsonToObjectParsingException.class, payloads.get(1)::get);
+        assertThat(payloads.get(2).get(), equalTo(new Object[]{null, null}));
+    }
+
+    @Test
+    public void bindBatchErrorTest() throws NoSuchMethodException {
+        ArgumentBinder binder = createBinder(StringIntegerToStringBiFunction.class.getDeclaredMethod("apply", String.class, Integer.class));
+        assertThrows(JsonToObjectParsingException.class, () -> binder.bindBatch(new ByteArrayInputStream("{\"args\": []}".getBytes(UTF_8))));
+        assertThrows(JsonToObjectParsingException.class, () -> binder.bindBatch(new ByteArrayInputStream("[[\"case \", 1], ".getBytes(UTF_8))));
+    }
+}
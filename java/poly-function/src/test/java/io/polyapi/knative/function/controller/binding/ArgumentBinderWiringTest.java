@@ -0,0 +1,38 @@
+package io.polyapi.knative.function.controller.binding;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Binds the arguments through the beans of the application, to check they are bound like the {@link ArgumentBinder}
+ * of the application is configured.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "polyapi.function.class=io.polyapi.knative.function.mock.function.StatefulObjectConsumer",
+        "polyapi.function.method=accept",
+        "polyapi.function.params=io.polyapi.knative.function.mock.function.StatefulObject"})
+public class ArgumentBinderWiringTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void knownPropertiesTest() throws Exception {
+        mockMvc.perform(post("/").contentType(APPLICATION_JSON).content("[{\"modified\":false}]"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void unknownPropertiesTest() throws Exception {
+        mockMvc.perform(post("/").contentType(APPLICATION_JSON).content("[{\"modified\":false,\"unknown\":1}]"))
+                .andExpect(status().isBadRequest());
+    }
+}
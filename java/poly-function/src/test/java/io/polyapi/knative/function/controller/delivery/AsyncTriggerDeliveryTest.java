@@ -0,0 +1,180 @@
+package io.polyapi.knative.function.controller.delivery;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import io.polyapi.knative.function.error.function.admission.DeliveryQueueFullException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncTriggerDeliveryTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static ResponseEntity<TriggerEventResult> createResult(String executionId) {
+        return ResponseEntity.ok().header("ce-id", executionId).body(new TriggerEventResult(200, executionId, "function", "environment", "text/plain", null, "data", null));
+    }
+
+    private static void awaitDelivery(AsyncTriggerDelivery delivery) throws InterruptedException {
+        for (int i = 0; i < 500 && delivery.getPending() > 0; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void disabledTest() {
+        try (AsyncTriggerDelivery delivery = new AsyncTriggerDelivery(null, 10, 3, Duration.ZERO, Duration.ofSeconds(1), meterRegistry)) {
+            assertFalse(delivery.isEnabled());
+        }
+    }
+
+    @Test
+    public void deliveryTest() throws InterruptedException {
+        StubSink sink = new StubSink(0);
+        try (AsyncTriggerDelivery delivery = new AsyncTriggerDelivery(sink, 10, 3, Duration.ZERO, Duration.ofSeconds(1), meterRegistry)) {
+            assertTrue(delivery.isEnabled());
+            CompletableFuture<ResponseEntity<TriggerEventResult>> execution = new CompletableFuture<>();
+            delivery.deliver(delivery.reserve(), execution);
+            assertThat(delivery.getPending(), equalTo(1));
+            assertThat(sink.getResults().size(), equalTo(0));
+            execution.complete(createResult("execution-1"));
+            awaitDelivery(delivery);
+            assertThat(delivery.getPending(), equalTo(0));
+            assertThat(sink.getResults().size(), equalTo(1));
+            assertThat(sink.getResults().get(0).getBody().getExecutionId(), equalTo("execution-1"));
+            assertThat(meterRegistry.get("polyapi.function.trigger.delivery.results").tag("outcome", "delivered").counter().count(), equalTo(1.0));
+        }
+    }
+
+    @Test
+    public void queueFullTest() {
+        try (AsyncTriggerDelivery delivery = new AsyncTriggerDelivery(new StubSink(0), 2, 3, Duration.ZERO, Duration.ofSeconds(1), meterRegistry)) {
+            delivery.reserve();
+            delivery.reserve();
+            DeliveryQueueFullException exception = assertThrows(DeliveryQueueFullException.class, delivery::reserve);
+            assertThat(exception.getStatusCode(), equalTo(429));
+            assertThat(delivery.getPending(), equalTo(2));
+            assertThat(meterRegistry.get("polyapi.function.trigger.delivery.pending").gauge().value(), equalTo(2.0));
+            assertThat(meterRegistry.get("polyapi.function.trigger.delivery.rejections").counter().count(), equalTo(1.0));
+        }
+    }
+
+    @Test
+    public void cancelTest() {
+        try (AsyncTriggerDelivery delivery = new AsyncTriggerDelivery(new StubSink(0), 1, 3, Duration.ZERO, Duration.ofSeconds(1), meterRegistry)) {
+            delivery.cancel(delivery.reserve());
+            assertThat(delivery.getPending(), equalTo(0));
+            delivery.reserve();
+            assertThat(delivery.getPending(), equalTo(1));
+            assertThat(meterRegistry.get("polyapi.function.trigger.delivery.results").tag("outcome", "dropped").counter().count(), equalTo(0.0));
+        }
+    }
+
+    @Test
+    public void retryTest() throws InterruptedException {
+        StubSink sink = new StubSink(2);
+        try (AsyncTriggerDelivery delivery = new AsyncTriggerDelivery(sink, 10, 3, Duration.ofMillis(1), Duration.ofSeconds(1), meterRegistry)) {
+            delivery.deliver(delivery.reserve(), CompletableFuture.completedFuture(createResult("execution-2")));
+            awaitDelivery(delivery);
+            assertThat(sink.getAttempts().get(), equalTo(3));
+            assertThat(sink.getResults().size(), equalTo(1));
+            assertThat(meterRegistry.get("polyapi.function.trigger.delivery.retries").counter().count(), equalTo(2.0));
+        }
+    }
+
+    @Test
+    public void dropTest() throws InterruptedException {
+        StubSink sink = new StubSink(5);
+        try (AsyncTriggerDelivery delivery = new AsyncTriggerDelivery(sink, 10, 2, Duration.ofMillis(1), Duration.ofSeconds(1), meterRegistry)) {
+            delivery.deliver(delivery.reserve(), CompletableFuture.completedFuture(createResult("execution-3")));
+            delivery.deliver(delivery.reserve(), CompletableFuture.failedFuture(new IllegalStateException()));
+            awaitDelivery(delivery);
+            assertThat(delivery.getPending(), equalTo(0));
+            assertThat(sink.getAttempts().get(), equalTo(2));
+            assertThat(sink.getResults().size(), equalTo(0));
+            assertThat(meterRegistry.get("polyapi.function.trigger.delivery.results").tag("outcome", "dropped").counter().count(), equalTo(2.0));
+        }
+    }
+
+    @Test
+    public void checkpointTest() throws InterruptedException {
+        StubSink sink = new StubSink(1);
+        try (AsyncTriggerDelivery delivery = new AsyncTriggerDelivery(sink, 10, 3, Duration.ofMillis(1), Duration.ofSeconds(1), meterRegistry)) {
+            delivery.deliver(delivery.reserve(), CompletableFuture.completedFuture(createResult("execution-4")));
+            delivery.beforeCheckpoint();
+            assertThat(delivery.getPending(), equalTo(0));
+            assertThat(sink.getResults().size(), equalTo(1));
+            delivery.afterRestore();
+            delivery.deliver(delivery.reserve(), CompletableFuture.completedFuture(createResult("execution-5")));
+            awaitDelivery(delivery);
+            assertThat(sink.getResults().size(), equalTo(2));
+        }
+    }
+
+    @Test
+    public void checkpointTimeoutTest() {
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        try (AsyncTriggerDelivery delivery = new AsyncTriggerDelivery(result -> sent, 10, 3, Duration.ZERO, Duration.ofMillis(50), meterRegistry)) {
+            delivery.deliver(delivery.reserve(), CompletableFuture.completedFuture(createResult("execution-6")));
+            delivery.beforeCheckpoint();
+            assertThat(delivery.getPending(), equalTo(0));
+            assertThat(meterRegistry.get("polyapi.function.trigger.delivery.results").tag("outcome", "dropped").counter().count(), equalTo(1.0));
+            sent.complete(null);
+            assertThat(delivery.getPending(), equalTo(0));
+            assertThat(meterRegistry.get("polyapi.function.trigger.delivery.results").tag("outcome", "delivered").counter().count(), equalTo(0.0));
+        }
+    }
+
+    @Test
+    public void retryAfterCloseTest() {
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        AsyncTriggerDelivery delivery = new AsyncTriggerDelivery(result -> sent, 10, 3, Duration.ZERO, Duration.ofSeconds(1), meterRegistry);
+        delivery.deliver(delivery.reserve(), CompletableFuture.completedFuture(createResult("execution-7")));
+        delivery.close();
+        sent.completeExceptionally(new IOException("Sink unavailable."));
+        assertThat(delivery.getPending(), equalTo(0));
+        assertThat(meterRegistry.get("polyapi.function.trigger.delivery.results").tag("outcome", "dropped").counter().count(), equalTo(1.0));
+    }
+
+    /**
+     * Sink that fails the given number of first deliveries and keeps the rest.
+     */
+    private static class StubSink implements TriggerResultSink {
+        private final int failures;
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final List<ResponseEntity<TriggerEventResult>> results = new CopyOnWriteArrayList<>();
+
+        private StubSink(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public CompletableFuture<Void> send(ResponseEntity<TriggerEventResult> result) {
+            if (attempts.incrementAndGet() <= failures) {
+                return CompletableFuture.failedFuture(new IOException("Sink unavailable."));
+            }
+            results.add(result);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        private AtomicInteger getAttempts() {
+            return attempts;
+        }
+
+        private List<ResponseEntity<TriggerEventResult>> getResults() {
+            return results;
+        }
+    }
+}
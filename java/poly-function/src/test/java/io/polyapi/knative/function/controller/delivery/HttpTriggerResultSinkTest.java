@@ -0,0 +1,93 @@
+package io.polyapi.knative.function.controller.delivery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import io.polyapi.knative.function.controller.dto.TriggerEventResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HttpTriggerResultSinkTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Map<String, Object>> bodies = new CopyOnWriteArrayList<>();
+    private final List<Headers> headers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger status = new AtomicInteger(202);
+    private HttpServer server;
+    private HttpTriggerResultSink sink;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                headers.add(exchange.getRequestHeaders());
+                bodies.add(objectMapper.readValue(body, Map.class));
+            }
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+        sink = new HttpTriggerResultSink(URI.create("http://localhost:" + server.getAddress().getPort() + "/"), Duration.ofSeconds(5), objectMapper);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sink.close();
+        server.stop(0);
+    }
+
+    private static ResponseEntity<TriggerEventResult> createResult() {
+        return ResponseEntity.ok()
+                .header("ce-id", "1")
+                .header("ce-type", "trigger.response")
+                .header("x-poly-do-log", "true")
+                .body(new TriggerEventResult(200, "execution-1", "function", "environment", "text/plain", null, "data", null));
+    }
+
+    @Test
+    public void sendTest() {
+        sink.send(createResult()).join();
+        assertThat(bodies.size(), equalTo(1));
+        assertThat(bodies.get(0).get("executionId"), equalTo("execution-1"));
+        assertThat(bodies.get(0).get("data"), equalTo("data"));
+        assertThat(headers.get(0).getFirst("ce-id"), equalTo("1"));
+        assertThat(headers.get(0).getFirst("ce-type"), equalTo("trigger.response"));
+        assertThat(headers.get(0).getFirst("x-poly-do-log"), nullValue());
+        assertThat(headers.get(0).getFirst("Content-Type"), equalTo("application/json"));
+    }
+
+    @Test
+    public void errorStatusTest() {
+        status.set(503);
+        CompletionException exception = assertThrows(CompletionException.class, () -> sink.send(createResult()).join());
+        assertThat(exception.getCause(), instanceOf(IOException.class));
+    }
+
+    @Test
+    public void closeTest() {
+        sink.send(createResult()).join();
+        sink.close();
+        sink.send(createResult()).join();
+        assertThat(bodies.size(), equalTo(2));
+    }
+}
@@ -0,0 +1,159 @@
+package io.polyapi.knative.function.controller.streaming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.log.ExecutionContext;
+import io.polyapi.knative.function.mock.function.StatefulObject;
+import io.polyapi.knative.function.service.StreamedResult;
+import io.polyapi.knative.function.service.execution.ExecutionEngine;
+import io.polyapi.knative.function.service.execution.ExecutionEngineConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static io.polyapi.knative.function.TestCaseDescriber.describeCase;
+import static io.polyapi.knative.function.service.execution.ExecutionEngineType.PLATFORM_POOL;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+public class StreamingResponseWriterTest {
+    private static final StreamingResponseWriter WRITER = new StreamingResponseWriter(new ObjectMapper());
+    private static final ExecutionEngine EXECUTION_ENGINE = new ExecutionEngineConfiguration().executionEngine(PLATFORM_POOL, 4);
+
+    public static List<Arguments> toResponseSource() {
+        return List.of(Arguments.of(1, "Stream as JSON array.", Stream.of(1, 2, 3), APPLICATION_JSON_VALUE, null, APPLICATION_JSON_VALUE, "[1,2,3]"),
+                Arguments.of(2, "NDJSON requested by Accept header.", Stream.of(1, 2, 3), APPLICATION_JSON_VALUE, "application/x-ndjson, application/json;q=0.5", APPLICATION_NDJSON_VALUE, "1\n2\n3\n"),
+                Arguments.of(3, "NDJSON set on PolyCustom.", Stream.of(1, 2, 3), APPLICATION_NDJSON_VALUE, APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE, "1\n2\n3\n"),
+                Arguments.of(4, "Wildcard Accept header.", Stream.of(1, 2, 3), APPLICATION_JSON_VALUE, "*/*", APPLICATION_JSON_VALUE, "[1,2,3]"),
+                Arguments.of(5, "Iterator of objects.", List.of(new StatefulObject(true), new StatefulObject(false)).iterator(), APPLICATION_JSON_VALUE, null, APPLICATION_JSON_VALUE, "[{\"modified\":true},{\"modified\":false}]"),
+                Arguments.of(6, "Iterable.", (Iterable<String>) () -> List.of("a", "b").iterator(), APPLICATION_JSON_VALUE, null, APPLICATION_JSON_VALUE, "[\"a\",\"b\"]"),
+                Arguments.of(7, "Publisher.", Flux.range(1, 3), APPLICATION_JSON_VALUE, null, APPLICATION_JSON_VALUE, "[1,2,3]"),
+                Arguments.of(8, "Empty stream.", Stream.empty(), APPLICATION_JSON_VALUE, null, APPLICATION_JSON_VALUE, "[]"),
+                Arguments.of(9, "Empty NDJSON stream.", Stream.empty(), APPLICATION_NDJSON_VALUE, null, APPLICATION_NDJSON_VALUE, ""));
+    }
+
+    @ParameterizedTest(name = "Case {0}: {1}")
+    @MethodSource("toResponseSource")
+    public void toResponseTest(Integer caseNumber, String description, Object items, String polyCustomContentType, String accept, String expectedContentType, String expectedBody) throws Exception {
+        describeCase(caseNumber, description);
+        AtomicBoolean released = new AtomicBoolean();
+        PolyCustom polyCustom = new PolyCustom("executionId", "apiKey", 201, polyCustomContentType);
+        MockMvc mockMvc = standaloneSetup(new StreamingController(WRITER.toResponse(polyCustom, streamed(items, released), accept)))
+                .setCustomReturnValueHandlers(new StreamingReturnValueHandler())
+                .build();
+        MockHttpServletRequestBuilder requestBuilder = get("/");
+        if (accept != null) {
+            requestBuilder.header(ACCEPT, accept);
+        }
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().is(201))
+                .andExpect(header().string(CONTENT_TYPE, expectedContentType))
+                .andExpect(content().string(expectedBody));
+        assertTrue(released.get());
+    }
+
+    @Test
+    public void streamClosedTest() {
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicBoolean released = new AtomicBoolean();
+        WRITER.write(streamed(Stream.of(1).onClose(() -> closed.set(true)), released), OutputStream.nullOutputStream(), false).join();
+        assertTrue(closed.get());
+        assertTrue(released.get());
+    }
+
+    @Test
+    public void streamFailedTest() {
+        AtomicBoolean released = new AtomicBoolean();
+        Stream<Integer> items = Stream.of(1, 2).map(item -> {
+            throw new IllegalStateException("Failed item " + item + ".");
+        });
+        CompletionException exception = assertThrows(CompletionException.class, () -> WRITER.write(streamed(items, released), new ByteArrayOutputStream(), false).join());
+        assertThat(exception.getCause().getCause(), instanceOf(IllegalStateException.class));
+        assertTrue(released.get());
+    }
+
+    @Test
+    public void largeStreamTest() {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        Integer count = WRITER.write(streamed(IntStream.range(0, 1_000_000).mapToObj(i -> new StatefulObject(i % 2 == 0)), new AtomicBoolean()), outputStream, true).join();
+        assertThat(count, equalTo(1_000_000));
+        assertThat(outputStream.lines, equalTo(1_000_000L));
+        assertTrue(outputStream.flushes > 1);
+    }
+
+    private static StreamedResult streamed(Object items, AtomicBoolean released) {
+        return new StreamedResult(items, new PolyCustom("executionId", "apiKey", 200, APPLICATION_JSON_VALUE), new ExecutionContext("executionId", false), EXECUTION_ENGINE, () -> released.set(true));
+    }
+
+    @RestController
+    private static class StreamingController {
+        private final ResponseEntity<?> response;
+
+        private StreamingController(ResponseEntity<?> response) {
+            this.response = response;
+        }
+
+        @GetMapping("/")
+        public ResponseEntity<?> stream() {
+            return response;
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long lines;
+        private int flushes;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
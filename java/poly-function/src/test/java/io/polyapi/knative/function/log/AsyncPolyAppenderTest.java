@@ -0,0 +1,199 @@
+package io.polyapi.knative.function.log;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncPolyAppenderTest {
+    private LoggerContext loggerContext;
+    private Logger logger;
+    private AsyncPolyAppender asyncAppender;
+
+    private static class BlockingAppender extends AppenderBase<ILoggingEvent> {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void append(ILoggingEvent eventObject) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(eventObject.getFormattedMessage());
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logger = loggerContext.getLogger(AsyncPolyAppenderTest.class);
+        logger.setAdditive(false);
+        logger.setLevel(Level.DEBUG);
+        asyncAppender = new AsyncPolyAppender();
+        asyncAppender.setContext(loggerContext);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.detachAndStopAllAppenders();
+    }
+
+    private PolyAppender createAppender(PolyAppender appender, ByteArrayOutputStream outputStream) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setImmediateFlush(false);
+        appender.start();
+        appender.setOutputStream(outputStream);
+        return appender;
+    }
+
+    private BlockingAppender startWithBlockingAppender(OverflowPolicy overflowPolicy) {
+        BlockingAppender blockingAppender = new BlockingAppender();
+        blockingAppender.setContext(loggerContext);
+        blockingAppender.start();
+        asyncAppender.addAppender(blockingAppender);
+        asyncAppender.setBufferSize(2);
+        asyncAppender.setOverflowPolicy(overflowPolicy);
+        asyncAppender.start();
+        logger.addAppender(asyncAppender);
+        return blockingAppender;
+    }
+
+    @Test
+    public void routingTest() throws Exception {
+        ByteArrayOutputStream polyLogs = new ByteArrayOutputStream();
+        ByteArrayOutputStream standardLogs = new ByteArrayOutputStream();
+        asyncAppender.addAppender(createAppender(new PolyDefaultAppender(), polyLogs));
+        asyncAppender.addAppender(createAppender(new PolyReverseAppender(), standardLogs));
+        asyncAppender.setBufferSize(16);
+        asyncAppender.start();
+        logger.addAppender(asyncAppender);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> executions = IntStream.range(0, 8)
+                    .<Future<?>>mapToObj(execution -> executor.submit(() -> {
+                        try (ExecutionContext.Scope scope = new ExecutionContext(String.valueOf(execution), execution % 2 == 0).open()) {
+                            IntStream.range(0, 100).forEach(line -> logger.info("{}-{}", execution, line));
+                        }
+                    }))
+                    .toList();
+            for (Future<?> execution : executions) {
+                execution.get(10, SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        asyncAppender.flush();
+        List<String> polyLines = polyLogs.toString(UTF_8).lines().toList();
+        List<String> standardLines = standardLogs.toString(UTF_8).lines().toList();
+        assertThat(polyLines.size(), equalTo(400));
+        assertThat(standardLines.size(), equalTo(400));
+        for (int execution = 0; execution < 8; execution++) {
+            String prefix = execution + "-";
+            List<String> lines = (execution % 2 == 0 ? polyLines : standardLines).stream().filter(line -> line.startsWith(prefix)).toList();
+            assertThat(lines, equalTo(IntStream.range(0, 100).mapToObj(line -> prefix + line).toList()));
+        }
+        assertThat(asyncAppender.getDroppedEvents(), equalTo(0L));
+    }
+
+    @Test
+    public void blockTest() throws Exception {
+        BlockingAppender blockingAppender = startWithBlockingAppender(OverflowPolicy.BLOCK);
+        Thread producer = new Thread(() -> IntStream.range(0, 10).forEach(i -> logger.info("{}", i)));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        blockingAppender.latch.countDown();
+        producer.join(SECONDS.toMillis(5));
+        asyncAppender.flush();
+        assertThat(blockingAppender.messages, equalTo(IntStream.range(0, 10).mapToObj(String::valueOf).toList()));
+        assertThat(asyncAppender.getDroppedEvents(), equalTo(0L));
+    }
+
+    @Test
+    public void afterFlushTest() throws Exception {
+        BlockingAppender blockingAppender = startWithBlockingAppender(OverflowPolicy.BLOCK);
+        logger.info("execution");
+        CompletableFuture<String> response = AsyncPolyAppender.afterFlush(CompletableFuture.completedFuture("response"));
+        Thread.sleep(50);
+        assertFalse(response.isDone());
+        blockingAppender.latch.countDown();
+        assertThat(response.get(5, SECONDS), equalTo("response"));
+        assertThat(blockingAppender.messages, equalTo(List.of("execution")));
+    }
+
+    @Test
+    public void dropOldestTest() {
+        BlockingAppender blockingAppender = startWithBlockingAppender(OverflowPolicy.DROP_OLDEST);
+        IntStream.range(0, 10).forEach(i -> logger.info("{}", i));
+        assertThat(asyncAppender.getDroppedEvents(), greaterThan(0L));
+        blockingAppender.latch.countDown();
+        asyncAppender.flush();
+        assertThat(blockingAppender.messages.size() + asyncAppender.getDroppedEvents(), equalTo(10L));
+        assertThat(blockingAppender.messages, hasItems("8", "9"));
+    }
+
+    @Test
+    public void dropDebugTest() throws Exception {
+        BlockingAppender blockingAppender = startWithBlockingAppender(OverflowPolicy.DROP_DEBUG);
+        IntStream.range(0, 10).forEach(i -> logger.debug("{}", i));
+        assertThat(asyncAppender.getDroppedEvents(), greaterThan(0L));
+        Thread producer = new Thread(() -> IntStream.range(0, 5).forEach(i -> logger.info("info {}", i)));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        blockingAppender.latch.countDown();
+        producer.join(SECONDS.toMillis(5));
+        asyncAppender.flush();
+        assertThat(blockingAppender.messages.size() + asyncAppender.getDroppedEvents(), equalTo(15L));
+        assertThat(blockingAppender.messages, hasItems("info 0", "info 1", "info 2", "info 3", "info 4"));
+    }
+
+    @Test
+    public void suspendTest() {
+        ByteArrayOutputStream standardLogs = new ByteArrayOutputStream();
+        asyncAppender.addAppender(createAppender(new PolyReverseAppender(), standardLogs));
+        asyncAppender.start();
+        logger.addAppender(asyncAppender);
+        logger.info("before");
+        AsyncPolyAppender.suspendAll();
+        assertThat(standardLogs.toString(UTF_8).lines().toList(), equalTo(List.of("before")));
+        logger.info("suspended");
+        assertThat(standardLogs.toString(UTF_8).lines().toList(), equalTo(List.of("before", "suspended")));
+        AsyncPolyAppender.resumeAll();
+        logger.info("after");
+        asyncAppender.flush();
+        assertThat(standardLogs.toString(UTF_8).lines().toList(), equalTo(List.of("before", "suspended", "after")));
+    }
+}
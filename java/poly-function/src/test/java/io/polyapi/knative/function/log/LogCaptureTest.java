@@ -0,0 +1,85 @@
+package io.polyapi.knative.function.log;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.polyapi.knative.function.model.CapturedLogs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LogCaptureTest {
+    private Logger logger;
+
+    @BeforeEach
+    public void setUp() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logger = loggerContext.getLogger(LogCaptureTest.class);
+        logger.setAdditive(false);
+        LogCaptureAppender appender = new LogCaptureAppender();
+        appender.setContext(loggerContext);
+        appender.setPattern("[%level] %msg");
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.detachAndStopAllAppenders();
+    }
+
+    private CapturedLogs capture(LogCapture logCapture, boolean logsEnabled, String... messages) {
+        ExecutionContext context = new ExecutionContext("1", logsEnabled, logCapture);
+        try (ExecutionContext.Scope scope = context.open()) {
+            for (String message : messages) {
+                logger.info(message);
+            }
+        }
+        context.end();
+        return logCapture.finish();
+    }
+
+    @Test
+    public void captureTest() {
+        LogCaptureBudget budget = new LogCaptureBudget(true, 1024, 4096);
+        logger.info("outside");
+        assertThat(capture(budget.open(), true, "first", "second"), equalTo(new CapturedLogs(List.of("[INFO] first", "[INFO] second"), 0)));
+        assertThat(capture(budget.open(), false, "not captured"), equalTo(new CapturedLogs(List.of(), 0)));
+        assertThat(budget.getAvailableBytes(), equalTo(4096L));
+    }
+
+    @Test
+    public void executionLimitTest() {
+        LogCaptureBudget budget = new LogCaptureBudget(true, 20, 4096);
+        assertThat(capture(budget.open(), true, "0123456789", "012345", "0"), equalTo(new CapturedLogs(List.of("[INFO] 0123456789"), 2)));
+        assertThat(budget.getAvailableBytes(), equalTo(4096L));
+    }
+
+    @Test
+    public void totalLimitTest() {
+        LogCaptureBudget budget = new LogCaptureBudget(true, 1024, 20);
+        LogCapture first = budget.open();
+        LogCapture second = budget.open();
+        try (ExecutionContext.Scope scope = new ExecutionContext("1", true, first).open()) {
+            logger.info("0123456789");
+        }
+        assertThat(budget.getAvailableBytes(), equalTo(3L));
+        assertThat(capture(second, true, "0123456789"), equalTo(new CapturedLogs(List.of(), 1)));
+        CapturedLogs firstLogs = first.finish();
+        assertThat(firstLogs.getLines(), equalTo(List.of("[INFO] 0123456789")));
+        assertThat(first.finish(), sameInstance(firstLogs));
+        assertThat(budget.getAvailableBytes(), equalTo(20L));
+    }
+
+    @Test
+    public void disabledTest() {
+        assertThat(new LogCaptureBudget(false, 1024, 4096).open(), nullValue());
+    }
+}
@@ -0,0 +1,148 @@
+package io.polyapi.knative.function.log;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PolyAppenderTest {
+    private LoggerContext loggerContext;
+    private Logger logger;
+    private ByteArrayOutputStream polyLogs;
+    private ByteArrayOutputStream standardLogs;
+
+    @BeforeEach
+    public void setUp() {
+        loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logger = loggerContext.getLogger(PolyAppenderTest.class);
+        logger.setAdditive(false);
+        polyLogs = new ByteArrayOutputStream();
+        standardLogs = new ByteArrayOutputStream();
+        logger.addAppender(createAppender(new PolyDefaultAppender(), polyLogs));
+        logger.addAppender(createAppender(new PolyReverseAppender(), standardLogs));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.detachAndStopAllAppenders();
+    }
+
+    private PolyAppender createAppender(PolyAppender appender, ByteArrayOutputStream outputStream) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.start();
+        appender.setOutputStream(outputStream);
+        return appender;
+    }
+
+    private List<String> lines(ByteArrayOutputStream outputStream) {
+        return outputStream.toString(UTF_8).lines().toList();
+    }
+
+    @Test
+    public void routingTest() {
+        logger.info("outside");
+        try (ExecutionContext.Scope scope = new ExecutionContext("1", true).open()) {
+            logger.info("enabled");
+            try (ExecutionContext.Scope nested = new ExecutionContext("2", false).open()) {
+                logger.info("disabled");
+            }
+            logger.info("enabled again");
+        }
+        logger.info("outside again");
+        assertThat(lines(polyLogs), equalTo(List.of("enabled", "enabled again")));
+        assertThat(lines(standardLogs), equalTo(List.of("outside", "disabled", "outside again")));
+    }
+
+    @Test
+    public void threadReuseTest() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 10; i++) {
+                ExecutionContext context = new ExecutionContext(String.valueOf(i), i % 2 == 0);
+                int execution = i;
+                executor.submit(() -> {
+                    try (ExecutionContext.Scope scope = context.open()) {
+                        logger.info("execution {}", execution);
+                    }
+                }).get();
+                executor.submit(() -> logger.info("after execution {}", execution)).get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(lines(polyLogs), equalTo(List.of("execution 0", "execution 2", "execution 4", "execution 6", "execution 8")));
+        assertThat(lines(standardLogs).size(), equalTo(15));
+    }
+
+    @Test
+    public void childThreadTest() throws Exception {
+        ExecutionContext context = new ExecutionContext("1", true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (ExecutionContext.Scope scope = context.open()) {
+            Thread child = new Thread(() -> logger.info("child"));
+            child.start();
+            child.join();
+            executor.submit(() -> logger.info("pool thread created by the execution")).get();
+            context.end();
+            executor.submit(() -> logger.info("pool thread after the execution")).get();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        assertThat(lines(polyLogs), equalTo(List.of("child", "pool thread created by the execution")));
+        assertThat(lines(standardLogs), equalTo(List.of("pool thread after the execution")));
+    }
+
+    @Test
+    public void endTest() throws Exception {
+        ExecutionContext context = new ExecutionContext("1", true, new LogCaptureBudget(true, 1024, 4096).open());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (ExecutionContext.Scope scope = context.open()) {
+            logger.info("execution");
+            context.end();
+            assertThat(ExecutionContext.current(), nullValue());
+            assertThat(context.getLogCapture(), nullValue());
+            executor.submit(() -> logger.info("pool thread created after the execution")).get();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        assertThat(lines(polyLogs), equalTo(List.of("execution")));
+        assertThat(lines(standardLogs), equalTo(List.of("pool thread created after the execution")));
+    }
+
+    @Test
+    public void wrapTest() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> logger.info("warm up")).get();
+            try (ExecutionContext.Scope scope = new ExecutionContext("1", true).open()) {
+                executor.submit(ExecutionContext.wrap(() -> logger.info("wrapped"))).get();
+                executor.submit(() -> logger.info("not wrapped")).get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(lines(polyLogs), equalTo(List.of("wrapped")));
+        assertThat(lines(standardLogs), equalTo(List.of("warm up", "not wrapped")));
+    }
+}
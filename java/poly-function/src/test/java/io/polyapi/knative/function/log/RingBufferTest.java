@@ -0,0 +1,71 @@
+package io.polyapi.knative.function.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RingBufferTest {
+
+    @Test
+    public void offerPollTest() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        assertThat(buffer.capacity(), equalTo(4));
+        IntStream.range(0, 4).forEach(i -> assertTrue(buffer.offer(i)));
+        assertFalse(buffer.offer(4));
+        assertThat(buffer.poll(), equalTo(0));
+        assertTrue(buffer.offer(4));
+        IntStream.range(1, 5).forEach(i -> assertThat(buffer.poll(), equalTo(i)));
+        assertThat(buffer.poll(), nullValue());
+        assertThat(buffer.producerPosition(), equalTo(5L));
+        assertThat(buffer.consumerPosition(), equalTo(5L));
+    }
+
+    @Test
+    public void concurrentProducersTest() throws Exception {
+        int producers = 4;
+        int elementsPerProducer = 10_000;
+        RingBuffer<int[]> buffer = new RingBuffer<>(256);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int producer = 0; producer < producers; producer++) {
+                int id = producer;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < elementsPerProducer; i++) {
+                        int[] element = {id, i};
+                        while (!buffer.offer(element)) {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+            int[] next = new int[producers];
+            for (int received = 0; received < producers * elementsPerProducer; ) {
+                int[] element = buffer.poll();
+                if (element != null) {
+                    assertThat(element[1], equalTo(next[element[0]]++));
+                    received++;
+                } else {
+                    Thread.yield();
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertTrue(buffer.isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.polyapi.knative.function.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class InvocationMetricsTest {
+    private static final String METRIC_NAME = "polyapi.function.invocation.phase";
+
+    @Test
+    public void recordTest() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InvocationMetrics invocationMetrics = new InvocationMetrics(meterRegistry, "test-function-id");
+        InvocationTimings executionTimings = new InvocationTimings();
+        executionTimings.record(InvocationPhase.EXECUTE, 1000);
+        executionTimings.record(InvocationPhase.EXECUTE, 500);
+        InvocationTimings timings = new InvocationTimings(InvocationEndpoint.TRIGGER);
+        timings.record(InvocationPhase.BIND, 200);
+        timings.merge(executionTimings);
+        timings.markHandled();
+        invocationMetrics.record(timings, 201);
+        invocationMetrics.record(new InvocationTimings(InvocationEndpoint.TRIGGER), 500);
+        Timer execute = meterRegistry.get(METRIC_NAME).tags("function", "test-function-id", "endpoint", "trigger", "phase", "execute", "outcome", "SUCCESS").timer();
+        assertThat(execute.count(), equalTo(1L));
+        assertThat(execute.totalTime(NANOSECONDS), equalTo(1500.0));
+        assertThat(meterRegistry.get(METRIC_NAME).tags("phase", "bind").timer().totalTime(NANOSECONDS), equalTo(200.0));
+        assertThat(meterRegistry.get(METRIC_NAME).tags("phase", "serialize").timer().count(), equalTo(1L));
+        assertThat(meterRegistry.get(METRIC_NAME).tags("phase", "total", "outcome", "SUCCESS").timer().count(), equalTo(1L));
+        assertThat(meterRegistry.get(METRIC_NAME).tags("phase", "total", "outcome", "SERVER_ERROR").timer().count(), equalTo(1L));
+        assertThat(meterRegistry.find(METRIC_NAME).tags("phase", "queue").timer(), nullValue());
+    }
+
+    @Test
+    public void filterTest() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InvocationMetricsFilter filter = new InvocationMetricsFilter();
+        filter.setInvocationMetrics(new InvocationMetrics(meterRegistry, ""));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(429);
+        filter.doFilter(request, response, new MockFilterChain());
+        assertThat(meterRegistry.find(METRIC_NAME).timer(), nullValue());
+        request = new MockHttpServletRequest("POST", "/");
+        request.setAttribute(InvocationTimings.REQUEST_ATTRIBUTE, new InvocationTimings(InvocationEndpoint.INVOKE));
+        filter.doFilter(request, response, new MockFilterChain());
+        Timer total = meterRegistry.get(METRIC_NAME).tags("endpoint", "invoke", "phase", "total", "outcome", "CLIENT_ERROR").timer();
+        assertThat(total.count(), equalTo(1L));
+        assertThat(total.totalTime(NANOSECONDS), greaterThan(0.0));
+    }
+}
@@ -0,0 +1,10 @@
+package io.polyapi.knative.function.mock.function;
+
+import java.util.function.Consumer;
+
+public class ClassCastExceptionThrowingStringConsumer implements Consumer<String> {
+    @Override
+    public void accept(String value) {
+        throw new ClassCastException();
+    }
+}
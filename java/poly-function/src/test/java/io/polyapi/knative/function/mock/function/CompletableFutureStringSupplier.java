@@ -0,0 +1,14 @@
+package io.polyapi.knative.function.mock.function;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static io.polyapi.knative.function.mock.function.StringSupplier.DEFAULT_RESULT;
+
+public class CompletableFutureStringSupplier implements Supplier<CompletableFuture<String>> {
+
+    @Override
+    public CompletableFuture<String> get() {
+        return CompletableFuture.supplyAsync(() -> DEFAULT_RESULT);
+    }
+}
@@ -0,0 +1,19 @@
+package io.polyapi.knative.function.mock.function;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+
+import java.util.function.Consumer;
+
+public class ConstructorPolyCustomIntegerConsumer implements Consumer<Integer> {
+
+    private final PolyCustom polyCustom;
+
+    public ConstructorPolyCustomIntegerConsumer(PolyCustom polyCustom) {
+        this.polyCustom = polyCustom;
+    }
+
+    @Override
+    public void accept(Integer value) {
+        polyCustom.setResponseStatusCode(value);
+    }
+}
@@ -0,0 +1,14 @@
+package io.polyapi.knative.function.mock.function;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+public class FailedCompletableFutureStringSupplier implements Supplier<CompletableFuture<String>> {
+
+    @Override
+    public CompletableFuture<String> get() {
+        return CompletableFuture.supplyAsync(() -> {
+            throw new RuntimeException();
+        });
+    }
+}
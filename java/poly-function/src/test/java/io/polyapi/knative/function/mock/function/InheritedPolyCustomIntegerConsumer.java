@@ -0,0 +1,4 @@
+package io.polyapi.knative.function.mock.function;
+
+public class InheritedPolyCustomIntegerConsumer extends PolyCustomIntegerConsumer {
+}
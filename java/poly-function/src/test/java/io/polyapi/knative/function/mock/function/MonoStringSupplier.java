@@ -0,0 +1,16 @@
+package io.polyapi.knative.function.mock.function;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static io.polyapi.knative.function.mock.function.StringSupplier.DEFAULT_RESULT;
+
+public class MonoStringSupplier implements Supplier<Mono<String>> {
+
+    @Override
+    public Mono<String> get() {
+        return Mono.just(DEFAULT_RESULT).delayElement(Duration.ofMillis(10));
+    }
+}
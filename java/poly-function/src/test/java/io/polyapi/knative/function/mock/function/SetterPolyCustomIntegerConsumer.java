@@ -0,0 +1,23 @@
+package io.polyapi.knative.function.mock.function;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import lombok.Getter;
+
+import java.util.function.Consumer;
+
+@Getter
+public class SetterPolyCustomIntegerConsumer implements Consumer<Integer> {
+
+    public PolyCustom polyCustom;
+    private int injections;
+
+    public void setPolyCustom(PolyCustom polyCustom) {
+        this.polyCustom = polyCustom;
+        injections++;
+    }
+
+    @Override
+    public void accept(Integer value) {
+        polyCustom.setResponseStatusCode(value);
+    }
+}
@@ -0,0 +1,18 @@
+package io.polyapi.knative.function.mock.function;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.lifecycle.FunctionLifecycle;
+
+import java.util.function.Consumer;
+
+import static io.polyapi.knative.function.lifecycle.LifecycleMode.SINGLETON;
+
+@FunctionLifecycle(SINGLETON)
+public class SingletonPolyCustomIntegerConsumer implements Consumer<Integer> {
+    private PolyCustom polyCustom;
+
+    @Override
+    public void accept(Integer value) {
+        polyCustom.setResponseStatusCode(value);
+    }
+}
@@ -0,0 +1,25 @@
+package io.polyapi.knative.function.mock.function;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.lifecycle.FunctionLifecycle;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static io.polyapi.knative.function.lifecycle.LifecycleMode.SINGLETON;
+
+@Slf4j
+@FunctionLifecycle(SINGLETON)
+public class SingletonPolyCustomStreamFunction implements Function<Integer, Stream<String>> {
+    private PolyCustom polyCustom;
+
+    @Override
+    public Stream<String> apply(Integer count) {
+        return IntStream.range(0, count).mapToObj(index -> {
+            log.info("Producing item {}.", index);
+            return polyCustom.getExecutionId() + "-" + index;
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package io.polyapi.knative.function.mock.function;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+
+import java.util.function.Consumer;
+
+public class StaticPolyCustomIntegerConsumer implements Consumer<Integer> {
+
+    private static PolyCustom polyCustom;
+
+    @Override
+    public void accept(Integer value) {
+        polyCustom.setResponseStatusCode(value);
+    }
+}
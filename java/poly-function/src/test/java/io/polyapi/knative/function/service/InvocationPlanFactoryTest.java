@@ -0,0 +1,60 @@
+package io.polyapi.knative.function.service;
+
+import io.polyapi.knative.function.error.PolyKNativeFunctionException;
+import io.polyapi.knative.function.error.function.state.ExecutionMethodNotFoundException;
+import io.polyapi.knative.function.error.function.state.InvalidArgumentTypeException;
+import io.polyapi.knative.function.error.function.state.PolyFunctionNotFoundException;
+import io.polyapi.knative.function.mock.function.IntFunction;
+import io.polyapi.knative.function.mock.function.MockRunnable;
+import io.polyapi.knative.function.mock.function.PolyCustomFunction;
+import io.polyapi.knative.function.mock.function.StringIntegerToStringBiFunction;
+import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import io.polyapi.knative.function.model.InvocationPlan;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+
+import static io.polyapi.knative.function.TestCaseDescriber.describeCase;
+import static io.polyapi.knative.function.TestCaseDescriber.describeErrorCase;
+import static java.lang.String.join;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InvocationPlanFactoryTest {
+
+    public static List<Arguments> createSource() {
+        return List.of(Arguments.of(1, "Method with object parameter.", StringToStringFunction.class, "apply", String.class.getName(), List.of(String.class)),
+                Arguments.of(2, "Method with several parameters.", StringIntegerToStringBiFunction.class, "apply", join(",", String.class.getName(), Integer.class.getName()), List.of(String.class, Integer.class)),
+                Arguments.of(3, "Method with primitive parameter.", IntFunction.class, "apply", "int", List.of(int.class)),
+                Arguments.of(4, "Method without parameters.", MockRunnable.class, "run", "", List.of()),
+                Arguments.of(5, "Null parameter types.", PolyCustomFunction.class, "execute", null, List.of(String.class)));
+    }
+
+    public static List<Arguments> createErrorSource() {
+        return List.of(Arguments.of(1, "Function class is not present.", "Missing", "execute", null, PolyFunctionNotFoundException.class),
+                Arguments.of(2, "Missing execution method.", StringToStringFunction.class.getName(), "missing", String.class.getName(), ExecutionMethodNotFoundException.class),
+                Arguments.of(3, "Missing execution method without parameter types.", StringToStringFunction.class.getName(), "missing", null, ExecutionMethodNotFoundException.class),
+                Arguments.of(4, "Non-existing argument type.", StringToStringFunction.class.getName(), "apply", "Missing", InvalidArgumentTypeException.class));
+    }
+
+    @ParameterizedTest(name = "Case {0}: {1}")
+    @MethodSource("createSource")
+    public void createTest(Integer caseNumber, String description, Class<?> functionClass, String methodName, String parameterTypes, List<Class<?>> expectedParameterClasses) {
+        describeCase(caseNumber, description);
+        InvocationPlan plan = new InvocationPlanFactory().create(functionClass.getName(), methodName, parameterTypes);
+        assertThat(plan.getFunctionClass(), equalTo(functionClass));
+        assertThat(plan.getMethod().getName(), equalTo(methodName));
+        assertThat(plan.getParameterClasses(), equalTo(expectedParameterClasses));
+        assertThat(plan.getParameterCount(), equalTo(expectedParameterClasses.size()));
+    }
+
+    @ParameterizedTest(name = "Error case {0}: {1}")
+    @MethodSource("createErrorSource")
+    public void createErrorTest(Integer caseNumber, String description, String functionQualifiedName, String methodName, String parameterTypes, Class<? extends PolyKNativeFunctionException> expectedException) {
+        describeErrorCase(caseNumber, description);
+        assertThrows(expectedException, () -> new InvocationPlanFactory().create(functionQualifiedName, methodName, parameterTypes));
+    }
+}
@@ -1,7 +1,9 @@
 package io.polyapi.knative.function.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.polyapi.client.api.model.function.PolyCustom;
 import io.polyapi.knative.function.error.PolyKNativeFunctionException;
+import io.polyapi.knative.function.error.function.admission.ExecutionRejectedException;
 import io.polyapi.knative.function.error.function.creation.FunctionCreationException;
 import io.polyapi.knative.function.error.function.execution.PolyApiExecutionExceptionWrapperException;
 import io.polyapi.knative.function.error.function.execution.PolyCustomInjectionException;
@@ -13,36 +15,62 @@ import io.polyapi.knative.function.error.function.state.ConstructorNotFoundExcep
 import io.polyapi.knative.function.error.function.state.ExecutionMethodNotAccessibleException;
 import io.polyapi.knative.function.mock.function.AbstractStringSupplier;
 import io.polyapi.knative.function.mock.function.BiPolyCustomIntegerBiConsumer;
+import io.polyapi.knative.function.mock.function.CompletableFutureStringSupplier;
+import io.polyapi.knative.function.mock.function.ConstructorPolyCustomIntegerConsumer;
 import io.polyapi.knative.function.mock.function.ErrorPolyCustomIntegerConsumer;
 import io.polyapi.knative.function.mock.function.ExceptionInConstructorStringSupplier;
+import io.polyapi.knative.function.mock.function.FailedCompletableFutureStringSupplier;
+import io.polyapi.knative.function.mock.function.InheritedPolyCustomIntegerConsumer;
 import io.polyapi.knative.function.mock.function.MockRunnable;
+import io.polyapi.knative.function.mock.function.MonoStringSupplier;
 import io.polyapi.knative.function.mock.function.NoDefaultConstructorStringSupplier;
 import io.polyapi.knative.function.mock.function.PolyCustomIntegerConsumer;
 import io.polyapi.knative.function.mock.function.PolyKNativeFunctionExceptionThrowingStringConsumer;
 import io.polyapi.knative.function.mock.function.PrivateConstructorStringConsumer;
 import io.polyapi.knative.function.mock.function.PrivateMethodClass;
 import io.polyapi.knative.function.mock.function.RuntimeExceptionThrowingStringConsumer;
+import io.polyapi.knative.function.mock.function.SetterPolyCustomIntegerConsumer;
+import io.polyapi.knative.function.mock.function.SingletonPolyCustomIntegerConsumer;
+import io.polyapi.knative.function.mock.function.SingletonPolyCustomStreamFunction;
 import io.polyapi.knative.function.mock.function.StatefulObject;
 import io.polyapi.knative.function.mock.function.StatefulObjectConsumer;
 import io.polyapi.knative.function.mock.function.StringIntegerToStringBiFunction;
 import io.polyapi.knative.function.mock.function.StringSupplier;
 import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import io.polyapi.knative.function.log.LogCaptureBudget;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import io.polyapi.knative.function.model.CapturedLogs;
+import io.polyapi.knative.function.model.InvocationPlan;
 import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.admission.AdmissionGate;
+import io.polyapi.knative.function.service.execution.ExecutionEngine;
+import io.polyapi.knative.function.service.execution.ExecutionEngineConfiguration;
+import io.polyapi.knative.function.service.idempotency.IdempotencyCache;
+import io.polyapi.knative.function.service.instance.FunctionInstanceProviderRegistry;
+import io.polyapi.knative.function.warmup.FunctionWarmUp;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.test.context.TestPropertySource;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 import static io.polyapi.knative.function.TestCaseDescriber.describeCase;
 import static io.polyapi.knative.function.TestCaseDescriber.describeErrorCase;
 import static io.polyapi.knative.function.mock.function.StringSupplier.DEFAULT_RESULT;
+import static io.polyapi.knative.function.service.execution.ExecutionEngineType.PLATFORM_POOL;
+import static org.hamcrest.CoreMatchers.endsWith;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -53,6 +81,11 @@ import static org.springframework.http.MediaType.APPLICATION_XML_VALUE;
 public class InvocationServiceImplTest {
     private static final String DEFAULT_EXECUTION_ID = UUID.randomUUID().toString();
     private static final String DEFAULT_API_KEY = UUID.randomUUID().toString();
+    private static final ExecutionEngine EXECUTION_ENGINE = new ExecutionEngineConfiguration().executionEngine(PLATFORM_POOL, 4);
+    private static final AdmissionGate ADMISSION_GATE = new AdmissionGate(0, 0, Duration.ZERO, new SimpleMeterRegistry());
+    private static final FunctionInstanceProviderRegistry INSTANCE_PROVIDER_REGISTRY = createInstanceProviderRegistry();
+    private static final LogCaptureBudget LOG_CAPTURE_BUDGET = new LogCaptureBudget(false, 0, 0);
+    private static final IdempotencyCache IDEMPOTENCY_CACHE = new IdempotencyCache(0, Duration.ZERO, new SimpleMeterRegistry());
 
     public static List<Arguments> invokeFunctionSource() throws NoSuchMethodException {
         return List.of(createArguments(1, "Function invocation.", StringToStringFunction.class, getMethod(StringToStringFunction.class,"apply", String.class), true, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, OK.value(), APPLICATION_JSON_VALUE, "1 esac", "case 1"),
@@ -63,7 +96,14 @@ public class InvocationServiceImplTest {
                 createArguments(6, "Poly logs disabled.", StringToStringFunction.class, getMethod(StringToStringFunction.class,"apply", String.class), false, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, OK.value(), APPLICATION_JSON_VALUE, "6 esac", "case 6"),
                 createArguments(7, "Poly custom function.", PolyCustomIntegerConsumer.class, getMethod(PolyCustomIntegerConsumer.class,"accept", Integer.class), false, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, 500, APPLICATION_JSON_VALUE, null, 500),
                 createArguments(8, "Function with 2 Poly custom objects.", BiPolyCustomIntegerBiConsumer.class, getMethod(BiPolyCustomIntegerBiConsumer.class,"accept", Integer.class, String.class), false, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, 500, APPLICATION_XML_VALUE, null, 500, APPLICATION_XML_VALUE),
-                createArguments(9, "Extra arguments on method invocation.", StringToStringFunction.class, getMethod(StringToStringFunction.class,"apply", String.class), false, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, OK.value(), APPLICATION_JSON_VALUE, "9 esac", "case 9", 1));
+                createArguments(9, "Extra arguments on method invocation.", StringToStringFunction.class, getMethod(StringToStringFunction.class,"apply", String.class), false, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, OK.value(), APPLICATION_JSON_VALUE, "9 esac", "case 9", 1),
+                createArguments(10, "Final PolyCustom field.", ErrorPolyCustomIntegerConsumer.class, getMethod(ErrorPolyCustomIntegerConsumer.class,"accept", Integer.class), false, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, 10, APPLICATION_JSON_VALUE, null, 10),
+                createArguments(11, "Singleton function with scoped PolyCustom.", SingletonPolyCustomIntegerConsumer.class, getMethod(SingletonPolyCustomIntegerConsumer.class,"accept", Integer.class), false, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, 11, APPLICATION_JSON_VALUE, null, 11),
+                createArguments(12, "PolyCustom field declared on superclass.", InheritedPolyCustomIntegerConsumer.class, getMethod(PolyCustomIntegerConsumer.class,"accept", Integer.class), false, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, 12, APPLICATION_JSON_VALUE, null, 12),
+                createArguments(13, "PolyCustom constructor injection.", ConstructorPolyCustomIntegerConsumer.class, getMethod(ConstructorPolyCustomIntegerConsumer.class,"accept", Integer.class), false, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, 13, APPLICATION_JSON_VALUE, null, 13),
+                createArguments(14, "PolyCustom setter injection.", SetterPolyCustomIntegerConsumer.class, getMethod(SetterPolyCustomIntegerConsumer.class,"accept", Integer.class), false, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, 14, APPLICATION_JSON_VALUE, null, 14),
+                createArguments(15, "CompletableFuture result.", CompletableFutureStringSupplier.class, getMethod(CompletableFutureStringSupplier.class, "get"), true, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, OK.value(), APPLICATION_JSON_VALUE, DEFAULT_RESULT),
+                createArguments(16, "Mono result.", MonoStringSupplier.class, getMethod(MonoStringSupplier.class, "get"), true, DEFAULT_EXECUTION_ID, DEFAULT_API_KEY, OK.value(), APPLICATION_JSON_VALUE, DEFAULT_RESULT));
     }
 
     private static Arguments createArguments(Integer caseNumber, String description, Class<?> clazz, Method method, boolean logsEnabled, String executionId, String apiKey, Integer responseStatusCode, String responseContentType, Object expectedResult, Object... arguments) {
@@ -81,14 +121,34 @@ public class InvocationServiceImplTest {
                 createArguments(8, "Exception thrown in constructor.", ExceptionInConstructorStringSupplier.class, getMethod(ExceptionInConstructorStringSupplier.class,"get"), FunctionCreationException.class, "An error occurred while creating the server function."),
                 createArguments(9, "Abstract class.", AbstractStringSupplier.class, getMethod(AbstractStringSupplier.class,"get"), ClassNotInstantiableException.class, "Class 'io.polyapi.knative.function.mock.function.AbstractStringSupplier' cannot be instantiated."),
                 createArguments(10, "Private execution method.", PrivateMethodClass.class, getMethod(PrivateMethodClass.class,"get"), ExecutionMethodNotAccessibleException.class, "The execution method 'private java.lang.String io.polyapi.knative.function.mock.function.PrivateMethodClass.get()' is not accessible is not accessible for the application. Please review the access modifier."),
-                createArguments(11, "Null execution method.", StringToStringFunction.class, null, UnexpectedFunctionExecutionException.class, "An unexpected exception occurred while executing the server function.", "case 12"),
-                createArguments(12, "Final PolyCustom field.", ErrorPolyCustomIntegerConsumer.class, null, UnexpectedFunctionExecutionException.class, "An unexpected exception occurred while executing the server function.", 13));
+                createArguments(11, "Failed CompletableFuture result.", FailedCompletableFutureStringSupplier.class, getMethod(FailedCompletableFutureStringSupplier.class,"get"), UnexpectedFunctionExecutionException.class, "An unexpected exception occurred while executing the server function."));
     }
 
     private static Arguments createArguments(Integer caseNumber, String description, Class<?> clazz, Method method, Class<? extends PolyKNativeFunctionException> expectedException, String expectedErrorMessage, Object... arguments) {
         return Arguments.of(caseNumber, description, clazz, method, arguments, expectedException, expectedErrorMessage);
     }
 
+    private static FunctionInstanceProviderRegistry createInstanceProviderRegistry() {
+        FunctionInstanceProviderRegistry instanceProviderRegistry = new FunctionInstanceProviderRegistry();
+        instanceProviderRegistry.setPoolSize(2);
+        instanceProviderRegistry.setMeterRegistry(new SimpleMeterRegistry());
+        return instanceProviderRegistry;
+    }
+
+    private static InvocationServiceImpl createService() {
+        return createService(ADMISSION_GATE, INSTANCE_PROVIDER_REGISTRY, IDEMPOTENCY_CACHE, LOG_CAPTURE_BUDGET);
+    }
+
+    private static InvocationServiceImpl createService(AdmissionGate admissionGate, FunctionInstanceProviderRegistry instanceProviderRegistry, IdempotencyCache idempotencyCache, LogCaptureBudget logCaptureBudget) {
+        InvocationServiceImpl invocationService = new InvocationServiceImpl();
+        invocationService.setExecutionEngine(EXECUTION_ENGINE);
+        invocationService.setAdmissionGate(admissionGate);
+        invocationService.setInstanceProviderRegistry(instanceProviderRegistry);
+        invocationService.setIdempotencyCache(idempotencyCache);
+        invocationService.setLogCaptureBudget(logCaptureBudget);
+        return invocationService;
+    }
+
     private static Method getMethod(Class<?> clazz, String method, Class<?>... argumentTypes) throws NoSuchMethodException {
         return clazz.getDeclaredMethod(method, argumentTypes);
     }
@@ -97,7 +157,7 @@ public class InvocationServiceImplTest {
     @MethodSource("invokeFunctionSource")
     public void invokeFunctionTest(Integer caseNumber, String description, Class<?> clazz, Method method, Object[] arguments, boolean logsEnabled, InvocationResult expectedResult) {
         describeCase(caseNumber, description);
-        InvocationServiceImpl invocationService = new InvocationServiceImpl();
+        InvocationServiceImpl invocationService = createService();
         invocationService.setFunctionId("Test function " + method);
         invocationService.setApiKey(expectedResult.getMetadata().getExecutionApiKey());
         for (Object object : arguments) {
@@ -105,7 +165,7 @@ public class InvocationServiceImplTest {
                 assertFalse(statefulObject.isModified());
             }
         }
-        assertThat(invocationService.invokeFunction(clazz, method, arguments, logsEnabled, expectedResult.getMetadata().getExecutionId()), equalTo(expectedResult));
+        assertThat(invocationService.invokeFunction(new InvocationPlanFactory().create(clazz, method), arguments, logsEnabled, expectedResult.getMetadata().getExecutionId()), equalTo(expectedResult));
         for (Object object : arguments) {
             if (object instanceof StatefulObject statefulObject) {
                 assertTrue(statefulObject.isModified());
@@ -117,9 +177,79 @@ public class InvocationServiceImplTest {
     @MethodSource("invokeFunctionErrorSource")
     public void invokeFunctionErrorTest(Integer caseNumber, String description, Class<?> clazz, Method method, Object[] arguments, Class<? extends PolyKNativeFunctionException> expectedException, String expectedErrorMessage) {
         describeErrorCase(caseNumber, description);
-        InvocationServiceImpl invocationService = new InvocationServiceImpl();
+        InvocationServiceImpl invocationService = createService();
         invocationService.setFunctionId("Error Test function " + method);
-        PolyKNativeFunctionException exception = assertThrows(expectedException, () -> invocationService.invokeFunction(clazz, method, arguments, true, UUID.randomUUID().toString()));
+        PolyKNativeFunctionException exception = assertThrows(expectedException, () -> invocationService.invokeFunction(new InvocationPlanFactory().create(clazz, method), arguments, true, UUID.randomUUID().toString()));
         assertThat(exception.getMessage(), equalTo(expectedErrorMessage));
     }
+
+    @Test
+    public void logCaptureTest() throws NoSuchMethodException {
+        InvocationServiceImpl invocationService = createService(ADMISSION_GATE, INSTANCE_PROVIDER_REGISTRY, IDEMPOTENCY_CACHE, new LogCaptureBudget(true, 1024, 4096));
+        invocationService.setFunctionId("captured");
+        InvocationPlan plan = new InvocationPlanFactory().create(StringToStringFunction.class, getMethod(StringToStringFunction.class, "apply", String.class));
+        CapturedLogs logs = invocationService.invokeFunction(plan, new Object[]{"capture"}, true, DEFAULT_EXECUTION_ID).getLogs();
+        assertThat(logs.getLines().size(), equalTo(2));
+        assertThat(logs.getLines().get(0), endsWith("[INFO] Executing function 'captured'."));
+        assertThat(logs.getTruncatedLines(), equalTo(0));
+        assertThat(invocationService.invokeFunction(plan, new Object[]{"capture"}, false, DEFAULT_EXECUTION_ID).getLogs(), nullValue());
+    }
+
+    @Test
+    public void timingsTest() throws NoSuchMethodException {
+        InvocationServiceImpl invocationService = createService();
+        InvocationPlan plan = new InvocationPlanFactory().create(StringToStringFunction.class, getMethod(StringToStringFunction.class, "apply", String.class));
+        InvocationTimings timings = invocationService.invokeFunction(plan, new Object[]{"timed"}, false, DEFAULT_EXECUTION_ID).getTimings();
+        assertTrue(timings.isColdStart());
+        assertThat(timings.getRecordedPhases().keySet(), contains("queue", "construct", "inject", "execute"));
+        assertFalse(invocationService.invokeFunction(plan, new Object[]{"timed"}, false, DEFAULT_EXECUTION_ID).getTimings().isColdStart());
+    }
+
+    @Test
+    public void idempotencyTest() throws NoSuchMethodException {
+        InvocationServiceImpl invocationService = createService(ADMISSION_GATE, INSTANCE_PROVIDER_REGISTRY, new IdempotencyCache(10, Duration.ofMinutes(1), new SimpleMeterRegistry()), LOG_CAPTURE_BUDGET);
+        InvocationPlan plan = new InvocationPlanFactory().create(StatefulObjectConsumer.class, getMethod(StatefulObjectConsumer.class, "accept", StatefulObject.class));
+        StatefulObject first = new StatefulObject();
+        StatefulObject duplicate = new StatefulObject();
+        StatefulObject other = new StatefulObject();
+        StatefulObject warmUp = new StatefulObject();
+        invocationService.invokeFunction(plan, new Object[]{first}, false, DEFAULT_EXECUTION_ID);
+        invocationService.invokeFunction(plan, new Object[]{duplicate}, false, DEFAULT_EXECUTION_ID);
+        invocationService.invokeFunction(plan, new Object[]{other}, false, "other");
+        invocationService.invokeFunction(plan, new Object[]{new StatefulObject()}, false, FunctionWarmUp.EXECUTION_ID);
+        invocationService.invokeFunction(plan, new Object[]{warmUp}, false, FunctionWarmUp.EXECUTION_ID);
+        assertTrue(first.isModified());
+        assertFalse(duplicate.isModified());
+        assertTrue(other.isModified());
+        assertTrue(warmUp.isModified());
+    }
+
+    @Test
+    public void streamedResultTest() throws NoSuchMethodException {
+        InvocationServiceImpl invocationService = createService(new AdmissionGate(1, 0, Duration.ZERO, new SimpleMeterRegistry()), createInstanceProviderRegistry(), IDEMPOTENCY_CACHE, new LogCaptureBudget(true, 1024, 4096));
+        InvocationPlan plan = new InvocationPlanFactory().create(SingletonPolyCustomStreamFunction.class, getMethod(SingletonPolyCustomStreamFunction.class, "apply", Integer.class));
+        InvocationPlan otherPlan = new InvocationPlanFactory().create(StringToStringFunction.class, getMethod(StringToStringFunction.class, "apply", String.class));
+        InvocationResult invocationResult = invocationService.invokeFunction(plan, new Object[]{2}, true, DEFAULT_EXECUTION_ID);
+        assertThat(invocationResult.getData().orElse(null), instanceOf(StreamedResult.class));
+        assertThat(invocationResult.getLogs(), nullValue());
+        // The execution keeps its admission slot until its items are read.
+        assertThrows(ExecutionRejectedException.class, () -> invocationService.invokeFunction(otherPlan, new Object[]{"other"}, false, "other"));
+        InvocationResult collected = StreamedResult.collected(invocationResult).join();
+        assertThat(collected.getData().orElse(null), equalTo(List.of(DEFAULT_EXECUTION_ID + "-0", DEFAULT_EXECUTION_ID + "-1")));
+        assertThat(collected.getLogs().getLines().stream().filter(line -> line.contains("Producing item")).count(), equalTo(2L));
+        assertThat(invocationService.invokeFunction(otherPlan, new Object[]{"other"}, false, "other").getData().orElse(null), equalTo("rehto"));
+    }
+
+    @Test
+    public void startFunctionTest() throws NoSuchMethodException {
+        InvocationServiceImpl invocationService = createService(new AdmissionGate(1, 0, Duration.ZERO, new SimpleMeterRegistry()), createInstanceProviderRegistry(), IDEMPOTENCY_CACHE, LOG_CAPTURE_BUDGET);
+        InvocationPlan plan = new InvocationPlanFactory().create(SingletonPolyCustomStreamFunction.class, getMethod(SingletonPolyCustomStreamFunction.class, "apply", Integer.class));
+        InvocationPlan otherPlan = new InvocationPlanFactory().create(StringToStringFunction.class, getMethod(StringToStringFunction.class, "apply", String.class));
+        InvocationResult invocationResult = invocationService.startFunctionAsync(plan, new Object[]{1}, false, DEFAULT_EXECUTION_ID).join().join();
+        // The rejection is reported when the execution is started, not with its result.
+        CompletionException exception = assertThrows(CompletionException.class, () -> invocationService.startFunctionAsync(otherPlan, new Object[]{"other"}, false, "other").join());
+        assertThat(exception.getCause(), instanceOf(ExecutionRejectedException.class));
+        StreamedResult.collected(invocationResult).join();
+        assertThat(invocationService.startFunctionAsync(otherPlan, new Object[]{"other"}, false, "other").join().join().getData().orElse(null), equalTo("rehto"));
+    }
 }
@@ -0,0 +1,67 @@
+package io.polyapi.knative.function.service;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.log.ExecutionContext;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.execution.ExecutionEngine;
+import io.polyapi.knative.function.service.execution.ExecutionEngineConfiguration;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static io.polyapi.knative.function.service.execution.ExecutionEngineType.PLATFORM_POOL;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+public class StreamedResultTest {
+    private static final ExecutionEngine EXECUTION_ENGINE = new ExecutionEngineConfiguration().executionEngine(PLATFORM_POOL, 4);
+    private static final PolyCustom POLY_CUSTOM = new PolyCustom("executionId", "apiKey", 200, APPLICATION_JSON_VALUE);
+
+    @Test
+    public void isStreamableTest() {
+        assertTrue(StreamedResult.isStreamable(Stream.of(1)));
+        assertTrue(StreamedResult.isStreamable(Flux.just(1)));
+        assertFalse(StreamedResult.isStreamable(List.of(1)));
+        assertFalse(StreamedResult.isStreamable(Mono.just(1)));
+        assertFalse(StreamedResult.isStreamable("result"));
+    }
+
+    @Test
+    public void collectedTest() {
+        AtomicBoolean released = new AtomicBoolean();
+        InvocationResult collected = StreamedResult.collected(new InvocationResult(new StreamedResult(Flux.just("a", "b"), POLY_CUSTOM, new ExecutionContext("executionId", false), EXECUTION_ENGINE, () -> released.set(true)), POLY_CUSTOM)).join();
+        assertThat(collected.getData().orElse(null), equalTo(List.of("a", "b")));
+        assertThat(collected.getMetadata(), equalTo(POLY_CUSTOM));
+        assertTrue(released.get());
+        InvocationResult notStreamed = new InvocationResult("result", POLY_CUSTOM);
+        assertThat(StreamedResult.collected(notStreamed).join(), equalTo(notStreamed));
+    }
+
+    @Test
+    public void readOnceTest() {
+        StreamedResult streamedResult = new StreamedResult(Stream.of(1), POLY_CUSTOM, new ExecutionContext("executionId", false), EXECUTION_ENGINE, () -> {});
+        streamedResult.collect().join();
+        CompletionException exception = assertThrows(CompletionException.class, () -> streamedResult.collect().join());
+        assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    public void closeTest() {
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicBoolean released = new AtomicBoolean();
+        StreamedResult streamedResult = new StreamedResult(Stream.of(1).onClose(() -> closed.set(true)), POLY_CUSTOM, new ExecutionContext("executionId", false), EXECUTION_ENGINE, () -> released.set(true));
+        streamedResult.close();
+        assertTrue(closed.get());
+        assertTrue(released.get());
+    }
+}
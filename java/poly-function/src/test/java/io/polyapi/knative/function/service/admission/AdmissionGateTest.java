@@ -0,0 +1,91 @@
+package io.polyapi.knative.function.service.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.polyapi.knative.function.error.function.admission.ExecutionQueueTimeoutException;
+import io.polyapi.knative.function.error.function.admission.ExecutionRejectedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionGateTest {
+
+    @Test
+    public void unlimitedTest() {
+        try (AdmissionGate gate = new AdmissionGate(0, 0, Duration.ZERO, new SimpleMeterRegistry())) {
+            assertTrue(IntStream.range(0, 1000).mapToObj(i -> gate.acquire()).allMatch(CompletableFuture::isDone));
+        }
+    }
+
+    @Test
+    public void queueFullTest() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (AdmissionGate gate = new AdmissionGate(1, 1, Duration.ofMinutes(1), meterRegistry)) {
+            assertTrue(gate.acquire().isDone());
+            assertFalse(gate.acquire().isDone());
+            assertThat(meterRegistry.get("polyapi.function.admission.queue.depth").gauge().value(), equalTo(1.0));
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> gate.acquire().get());
+            assertThat(exception.getCause(), instanceOf(ExecutionRejectedException.class));
+            assertThat(((ExecutionRejectedException) exception.getCause()).getStatusCode(), equalTo(429));
+            assertThat(meterRegistry.get("polyapi.function.admission.rejections").tag("reason", "queue_full").counter().count(), equalTo(1.0));
+        }
+    }
+
+    @Test
+    public void releaseTest() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (AdmissionGate gate = new AdmissionGate(1, 2, Duration.ofMinutes(1), meterRegistry)) {
+            AdmissionGate.Permit first = gate.acquire().get();
+            List<CompletableFuture<AdmissionGate.Permit>> queued = List.of(gate.acquire(), gate.acquire());
+            assertFalse(queued.get(0).isDone());
+            first.close();
+            first.close();
+            assertTrue(queued.get(0).isDone());
+            assertFalse(queued.get(1).isDone());
+            queued.get(0).get().close();
+            queued.get(1).get(1, SECONDS).close();
+            assertThat(meterRegistry.get("polyapi.function.admission.in.flight").gauge().value(), equalTo(0.0));
+            assertThat(meterRegistry.get("polyapi.function.admission.queue.wait").timer().count(), equalTo(2L));
+        }
+    }
+
+    @Test
+    public void queueTimeoutTest() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (AdmissionGate gate = new AdmissionGate(1, 1, Duration.ofMillis(50), meterRegistry)) {
+            AdmissionGate.Permit permit = gate.acquire().get();
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> gate.acquire().get(5, SECONDS));
+            assertThat(exception.getCause(), instanceOf(ExecutionQueueTimeoutException.class));
+            assertThat(((ExecutionQueueTimeoutException) exception.getCause()).getStatusCode(), equalTo(503));
+            assertThat(meterRegistry.get("polyapi.function.admission.rejections").tag("reason", "queue_timeout").counter().count(), equalTo(1.0));
+            permit.close();
+            assertTrue(gate.acquire().isDone());
+        }
+    }
+
+    @Test
+    public void checkpointTest() throws Exception {
+        try (AdmissionGate gate = new AdmissionGate(1, 1, Duration.ofMillis(50), new SimpleMeterRegistry())) {
+            gate.acquire().get();
+            CompletableFuture<AdmissionGate.Permit> queued = gate.acquire();
+            gate.beforeCheckpoint();
+            Thread.sleep(200);
+            assertFalse(queued.isDone());
+            gate.afterRestore();
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> queued.get(5, SECONDS));
+            assertThat(exception.getCause(), instanceOf(ExecutionQueueTimeoutException.class));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package io.polyapi.knative.function.service.execution;
+
+import io.polyapi.knative.function.checkpoint.CheckpointAware;
+import io.polyapi.knative.function.log.ExecutionContext;
+import io.polyapi.knative.function.mock.exception.MockServiceException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
+
+import static io.polyapi.knative.function.service.execution.ExecutionEngineType.VIRTUAL;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ExecutionEngineTest {
+
+    private static ExecutionEngine createEngine(ExecutionEngineType engineType) {
+        assumeTrue(engineType != VIRTUAL || ExecutionEngineConfiguration.defaultEngineType() == VIRTUAL, "Virtual threads are not supported by this JVM.");
+        return new ExecutionEngineConfiguration().executionEngine(engineType, 2);
+    }
+
+    @Test
+    public void defaultEngineTest() throws Exception {
+        try (ExecutionEngine engine = new ExecutionEngineConfiguration().executionEngine(null, 2)) {
+            assertThat(engine.execute(() -> "result", new ExecutionContext("1", false)).get(), equalTo("result"));
+        }
+    }
+
+    @Test
+    public void virtualUnsupportedTest() {
+        assumeFalse(ExecutionEngineConfiguration.defaultEngineType() == VIRTUAL, "Virtual threads are supported by this JVM.");
+        assertThrows(IllegalStateException.class, () -> new ExecutionEngineConfiguration().executionEngine(VIRTUAL, 2));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(value = ExecutionEngineType.class, names = {"PLATFORM_POOL", "THREAD_PER_EXECUTION"})
+    public void threadNameTest(ExecutionEngineType engineType) throws Exception {
+        try (ExecutionEngine engine = createEngine(engineType)) {
+            assertThat(engine.execute(() -> Thread.currentThread().getName(), new ExecutionContext("1", false)).get(), startsWith("Poly-execution-"));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(ExecutionEngineType.class)
+    public void executeTest(ExecutionEngineType engineType) throws Exception {
+        try (ExecutionEngine engine = createEngine(engineType)) {
+            assertThat(engine.execute(() -> "result", new ExecutionContext("1", false)).get(), equalTo("result"));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(ExecutionEngineType.class)
+    public void executeErrorTest(ExecutionEngineType engineType) {
+        try (ExecutionEngine engine = createEngine(engineType)) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> engine.execute(() -> {
+                throw new MockServiceException();
+            }, new ExecutionContext("1", false)).get());
+            assertThat(exception.getCause(), instanceOf(MockServiceException.class));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(ExecutionEngineType.class)
+    public void logRoutingTest(ExecutionEngineType engineType) throws Exception {
+        try (ExecutionEngine engine = createEngine(engineType)) {
+            List<CompletableFuture<Boolean>> executions = IntStream.range(0, 20)
+                    .mapToObj(i -> engine.execute(ExecutionContext::isPolyLoggingEnabled, new ExecutionContext(String.valueOf(i), i % 2 == 0)))
+                    .toList();
+            for (int i = 0; i < executions.size(); i++) {
+                assertThat(executions.get(i).get(), equalTo(i % 2 == 0));
+            }
+            assertThat(engine.execute(() -> ExecutionContext.current().getExecutionId(), new ExecutionContext("last", false)).get(), equalTo("last"));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(ExecutionEngineType.class)
+    public void contextUnboundOnCompletionTest(ExecutionEngineType engineType) throws Exception {
+        try (ExecutionEngine engine = createEngine(engineType)) {
+            CompletableFuture<Void> started = new CompletableFuture<>();
+            CompletableFuture<String> execution = engine.execute(() -> started.thenApply(ignored -> "done").get(), new ExecutionContext("1", true));
+            // Runs on the thread completing the execution.
+            CompletableFuture<ExecutionContext> dependent = execution.thenApply(result -> ExecutionContext.current());
+            started.complete(null);
+            assertThat(dependent.get(), nullValue());
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(ExecutionEngineType.class)
+    public void checkpointTest(ExecutionEngineType engineType) throws Exception {
+        try (ExecutionEngine engine = createEngine(engineType)) {
+            CompletableFuture<String> running = engine.execute(() -> {
+                Thread.sleep(50);
+                return "running";
+            }, new ExecutionContext("1", false));
+            if (engine instanceof CheckpointAware checkpointAware) {
+                checkpointAware.beforeCheckpoint();
+                assertTrue(running.isDone());
+                checkpointAware.afterRestore();
+            }
+            assertThat(running.get(), equalTo("running"));
+            assertThat(engine.execute(() -> "restored", new ExecutionContext("2", false)).get(), equalTo("restored"));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package io.polyapi.knative.function.service.idempotency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.log.ExecutionContext;
+import io.polyapi.knative.function.model.InvocationResult;
+import io.polyapi.knative.function.service.StreamedResult;
+import io.polyapi.knative.function.service.execution.ExecutionEngineConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static io.polyapi.knative.function.service.execution.ExecutionEngineType.PLATFORM_POOL;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+public class IdempotencyCacheTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private static InvocationResult createResult(Object data) {
+        return new InvocationResult(data, new PolyCustom("execution", "apiKey", 200, APPLICATION_JSON_VALUE));
+    }
+
+    private Supplier<CompletableFuture<InvocationResult>> execution(CompletableFuture<InvocationResult> result) {
+        return () -> {
+            executions.incrementAndGet();
+            return result;
+        };
+    }
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.get("polyapi.function.idempotency." + name).tag(tag, value).counter().count();
+    }
+
+    @Test
+    public void disabledTest() {
+        IdempotencyCache cache = new IdempotencyCache(0, Duration.ofMinutes(1), meterRegistry);
+        assertFalse(cache.isEnabled());
+        cache.execute("1", new CompletableFuture<>(), execution(completedFuture(createResult("a")))).join();
+        cache.execute("1", new CompletableFuture<>(), execution(completedFuture(createResult("a")))).join();
+        assertThat(executions.get(), equalTo(2));
+        assertThat(cache.size(), equalTo(0));
+    }
+
+    @Test
+    public void inFlightTest() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), meterRegistry);
+        assertTrue(cache.isEnabled());
+        CompletableFuture<InvocationResult> running = new CompletableFuture<>();
+        CompletableFuture<InvocationResult> first = cache.execute("1", new CompletableFuture<>(), execution(running));
+        CompletableFuture<InvocationResult> duplicate = cache.execute("1", new CompletableFuture<>(), execution(new CompletableFuture<>()));
+        assertFalse(duplicate.isDone());
+        InvocationResult result = createResult("a");
+        running.complete(result);
+        assertThat(first.join(), sameInstance(result));
+        assertThat(duplicate.join(), sameInstance(result));
+        assertThat(executions.get(), equalTo(1));
+        assertThat(count("hits", "state", "in_flight"), equalTo(1.0));
+        assertThat(meterRegistry.get("polyapi.function.idempotency.misses").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    public void replayTest() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), meterRegistry);
+        InvocationResult result = createResult("a");
+        cache.execute("1", new CompletableFuture<>(), execution(completedFuture(result))).join();
+        assertThat(cache.execute("1", new CompletableFuture<>(), execution(completedFuture(createResult("b")))).join(), sameInstance(result));
+        cache.execute("", new CompletableFuture<>(), execution(completedFuture(result))).join();
+        cache.execute(null, new CompletableFuture<>(), execution(completedFuture(result))).join();
+        assertThat(executions.get(), equalTo(3));
+        assertThat(count("hits", "state", "completed"), equalTo(1.0));
+        assertThat(meterRegistry.get("polyapi.function.idempotency.entries").gauge().value(), equalTo(1.0));
+    }
+
+    @Test
+    public void failureTest() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), meterRegistry);
+        CompletableFuture<InvocationResult> running = new CompletableFuture<>();
+        CompletableFuture<InvocationResult> first = cache.execute("1", new CompletableFuture<>(), execution(running));
+        CompletableFuture<InvocationResult> duplicate = cache.execute("1", new CompletableFuture<>(), execution(completedFuture(createResult("b"))));
+        running.completeExceptionally(new IllegalStateException());
+        assertThrows(CompletionException.class, first::join);
+        CompletionException exception = assertThrows(CompletionException.class, duplicate::join);
+        assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+        assertThat(cache.size(), equalTo(0));
+        assertThat(cache.execute("1", new CompletableFuture<>(), execution(completedFuture(createResult("c")))).join().getData().orElse(null), equalTo("c"));
+        assertThat(executions.get(), equalTo(2));
+    }
+
+    @Test
+    public void streamTest() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), meterRegistry);
+        CompletableFuture<InvocationResult> running = new CompletableFuture<>();
+        cache.execute("1", new CompletableFuture<>(), execution(running));
+        CompletableFuture<InvocationResult> duplicate = cache.execute("1", new CompletableFuture<>(), execution(completedFuture(createResult(streamed(Stream.of("b"))))));
+        running.complete(createResult(streamed(Stream.of("a"))));
+        assertThat(executions.get(), equalTo(2));
+        assertTrue(duplicate.isDone());
+        assertThat(cache.size(), equalTo(0));
+    }
+
+    @Test
+    public void expirationTest() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ZERO, meterRegistry);
+        CompletableFuture<InvocationResult> running = new CompletableFuture<>();
+        cache.execute("1", new CompletableFuture<>(), execution(running));
+        cache.execute("2", new CompletableFuture<>(), execution(completedFuture(createResult("b")))).join();
+        cache.execute("2", new CompletableFuture<>(), execution(completedFuture(createResult("b")))).join();
+        assertThat(executions.get(), equalTo(3));
+        assertThat(count("evictions", "cause", "expired"), equalTo(1.0));
+        cache.execute("1", new CompletableFuture<>(), execution(completedFuture(createResult("a"))));
+        assertThat(executions.get(), equalTo(3));
+    }
+
+    @Test
+    public void sizeTest() {
+        IdempotencyCache cache = new IdempotencyCache(2, Duration.ofMinutes(1), meterRegistry);
+        cache.execute("1", new CompletableFuture<>(), execution(completedFuture(createResult("a")))).join();
+        cache.execute("2", new CompletableFuture<>(), execution(completedFuture(createResult("b")))).join();
+        cache.execute("3", new CompletableFuture<>(), execution(completedFuture(createResult("c")))).join();
+        assertThat(cache.size(), equalTo(2));
+        assertThat(count("evictions", "cause", "size"), equalTo(1.0));
+        cache.execute("2", new CompletableFuture<>(), execution(completedFuture(createResult("b")))).join();
+        cache.execute("3", new CompletableFuture<>(), execution(completedFuture(createResult("c")))).join();
+        assertThat(executions.get(), equalTo(3));
+        cache.execute("1", new CompletableFuture<>(), execution(completedFuture(createResult("a")))).join();
+        assertThat(executions.get(), equalTo(4));
+    }
+
+    @Test
+    public void sizeInFlightTest() {
+        IdempotencyCache cache = new IdempotencyCache(1, Duration.ofMinutes(1), meterRegistry);
+        CompletableFuture<InvocationResult> running = new CompletableFuture<>();
+        cache.execute("1", new CompletableFuture<>(), execution(running));
+        cache.execute("2", new CompletableFuture<>(), execution(completedFuture(createResult("b")))).join();
+        cache.execute("3", new CompletableFuture<>(), execution(completedFuture(createResult("c")))).join();
+        // The running execution is kept over the max entries, and the finished ones are evicted instead.
+        assertThat(cache.size(), equalTo(2));
+        assertThat(count("evictions", "cause", "size"), equalTo(1.0));
+        CompletableFuture<InvocationResult> duplicate = cache.execute("1", new CompletableFuture<>(), execution(completedFuture(createResult("b"))));
+        InvocationResult result = createResult("a");
+        running.complete(result);
+        assertThat(duplicate.join(), sameInstance(result));
+        assertThat(executions.get(), equalTo(3));
+    }
+
+    @Test
+    public void admissionTest() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), meterRegistry);
+        CompletableFuture<Void> admitted = new CompletableFuture<>();
+        CompletableFuture<Void> duplicateAdmitted = new CompletableFuture<>();
+        CompletableFuture<InvocationResult> running = new CompletableFuture<>();
+        cache.execute("1", admitted, execution(running));
+        cache.execute("1", duplicateAdmitted, execution(new CompletableFuture<>()));
+        // The duplicate is admitted with the execution it joins, not before.
+        assertFalse(duplicateAdmitted.isDone());
+        admitted.completeExceptionally(new IllegalStateException());
+        CompletionException exception = assertThrows(CompletionException.class, duplicateAdmitted::join);
+        assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+    }
+
+    private static StreamedResult streamed(Stream<?> items) {
+        return new StreamedResult(items, new PolyCustom("1", "apiKey", 200, APPLICATION_JSON_VALUE), new ExecutionContext("1", false), new ExecutionEngineConfiguration().executionEngine(PLATFORM_POOL, 4), () -> {});
+    }
+}
@@ -0,0 +1,145 @@
+package io.polyapi.knative.function.service.instance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.error.function.creation.FunctionCreationException;
+import io.polyapi.knative.function.error.function.execution.UnexpectedFunctionExecutionException;
+import io.polyapi.knative.function.error.function.state.ConstructorNotFoundException;
+import io.polyapi.knative.function.metrics.InvocationTimings;
+import io.polyapi.knative.function.mock.function.ExceptionInConstructorStringSupplier;
+import io.polyapi.knative.function.mock.function.NoDefaultConstructorStringSupplier;
+import io.polyapi.knative.function.mock.function.PolyCustomIntegerConsumer;
+import io.polyapi.knative.function.mock.function.SingletonPolyCustomIntegerConsumer;
+import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FunctionInstanceProviderTest {
+
+    private static PolyCustom createPolyCustom(int statusCode) {
+        return new PolyCustom("execution-" + statusCode, "apiKey", statusCode, "application/json");
+    }
+
+    @Test
+    public void prototypeTest() {
+        FunctionInstanceProvider provider = new PrototypeFunctionInstanceProvider(StringToStringFunction.class);
+        assertThat(provider.getInstance(createPolyCustom(200), new InvocationTimings()), not(sameInstance(provider.getInstance(createPolyCustom(200), new InvocationTimings()))));
+    }
+
+    @Test
+    public void singletonTest() {
+        FunctionInstanceProvider provider = new SingletonFunctionInstanceProvider(StringToStringFunction.class);
+        assertThat(provider.getInstance(createPolyCustom(200), new InvocationTimings()), sameInstance(provider.getInstance(createPolyCustom(200), new InvocationTimings())));
+    }
+
+    @Test
+    public void pooledTest() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (FunctionInstanceProvider provider = new PooledFunctionInstanceProvider(PolyCustomIntegerConsumer.class, 2, meterRegistry)) {
+            Gauge poolSize = meterRegistry.get("polyapi.function.instance.pool.size").gauge();
+            waitFor(() -> poolSize.value() == 2);
+            Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = 0; i < 10; i++) {
+                PolyCustom polyCustom = createPolyCustom(i);
+                PolyCustomIntegerConsumer function = (PolyCustomIntegerConsumer) provider.getInstance(polyCustom, new InvocationTimings());
+                function.accept(200 + i);
+                assertThat(polyCustom.getResponseStatusCode(), equalTo(200 + i));
+                assertTrue(instances.add(function));
+                waitFor(() -> poolSize.value() == 2);
+            }
+            assertThat(meterRegistry.get("polyapi.function.instance.pool.checkouts").tag("result", "hit").counter().count(), equalTo(10.0));
+            assertThat(meterRegistry.get("polyapi.function.instance.pool.refill.lag").timer().count(), equalTo(12L));
+        }
+    }
+
+    @Test
+    public void pooledMissTest() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (FunctionInstanceProvider provider = new PooledFunctionInstanceProvider(ExceptionInConstructorStringSupplier.class, 1, meterRegistry)) {
+            Counter refillFailures = meterRegistry.get("polyapi.function.instance.pool.refill.failures").counter();
+            waitFor(() -> refillFailures.count() == 1);
+            assertThrows(FunctionCreationException.class, () -> provider.getInstance(createPolyCustom(200), new InvocationTimings()));
+            assertThat(meterRegistry.get("polyapi.function.instance.pool.checkouts").tag("result", "miss").counter().count(), equalTo(1.0));
+            waitFor(() -> refillFailures.count() == 2);
+        }
+    }
+
+    @Test
+    public void constructorNotFoundTest() {
+        assertThrows(ConstructorNotFoundException.class, () -> new PooledFunctionInstanceProvider(NoDefaultConstructorStringSupplier.class, 1, new SimpleMeterRegistry()));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the instance pool.");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void singletonConcurrentPolyCustomTest() throws Exception {
+        FunctionInstanceProvider provider = new SingletonFunctionInstanceProvider(SingletonPolyCustomIntegerConsumer.class);
+        int executions = 16;
+        CyclicBarrier barrier = new CyclicBarrier(executions);
+        ExecutorService executor = Executors.newFixedThreadPool(executions);
+        try {
+            List<CompletableFuture<PolyCustom>> results = IntStream.range(0, executions)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        PolyCustom polyCustom = createPolyCustom(0);
+                        SingletonPolyCustomIntegerConsumer function = (SingletonPolyCustomIntegerConsumer) provider.getInstance(polyCustom, new InvocationTimings());
+                        try (PolyCustomScope scope = PolyCustomScope.open(polyCustom)) {
+                            barrier.await();
+                            function.accept(i);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                        return polyCustom;
+                    }, executor))
+                    .toList();
+            for (int i = 0; i < executions; i++) {
+                assertThat(results.get(i).get().getResponseStatusCode(), equalTo(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void scopedPolyCustomOutsideExecutionTest() {
+        assertThrows(UnexpectedFunctionExecutionException.class, () -> new ScopedPolyCustom().setResponseStatusCode(500));
+    }
+
+    @Test
+    public void scopeRestoresPreviousTest() {
+        PolyCustom outer = createPolyCustom(1);
+        try (PolyCustomScope outerScope = PolyCustomScope.open(outer)) {
+            try (PolyCustomScope innerScope = PolyCustomScope.open(createPolyCustom(2))) {
+                assertThat(PolyCustomScope.current().getResponseStatusCode(), equalTo(2));
+            }
+            assertThat(PolyCustomScope.current(), sameInstance(outer));
+        }
+        assertThat(PolyCustomScope.current(), equalTo(null));
+    }
+}
@@ -0,0 +1,57 @@
+package io.polyapi.knative.function.service.instance;
+
+import io.polyapi.client.api.model.function.PolyCustom;
+import io.polyapi.knative.function.mock.function.BiPolyCustomIntegerBiConsumer;
+import io.polyapi.knative.function.mock.function.InheritedPolyCustomIntegerConsumer;
+import io.polyapi.knative.function.mock.function.SetterPolyCustomIntegerConsumer;
+import io.polyapi.knative.function.mock.function.StaticPolyCustomIntegerConsumer;
+import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PolyCustomInjectorTest {
+    private static final PolyCustom POLY_CUSTOM = new PolyCustom("executionId", "apiKey", 200, "application/json");
+
+    @Test
+    public void noTargetsTest() {
+        assertTrue(PolyCustomInjector.of(StringToStringFunction.class).isEmpty());
+    }
+
+    @Test
+    public void fieldsTest() {
+        BiPolyCustomIntegerBiConsumer function = new BiPolyCustomIntegerBiConsumer();
+        PolyCustomInjector.of(BiPolyCustomIntegerBiConsumer.class).inject(function, POLY_CUSTOM);
+        function.accept(201, "text/plain");
+        assertThat(POLY_CUSTOM.getResponseStatusCode(), equalTo(201));
+        assertThat(POLY_CUSTOM.getResponseContentType(), equalTo("text/plain"));
+    }
+
+    @Test
+    public void superclassFieldTest() {
+        PolyCustom polyCustom = new PolyCustom("executionId", "apiKey", 200, "application/json");
+        InheritedPolyCustomIntegerConsumer function = new InheritedPolyCustomIntegerConsumer();
+        PolyCustomInjector.of(InheritedPolyCustomIntegerConsumer.class).inject(function, polyCustom);
+        function.accept(202);
+        assertThat(polyCustom.getResponseStatusCode(), equalTo(202));
+    }
+
+    @Test
+    public void setterInjectedOnceTest() {
+        SetterPolyCustomIntegerConsumer function = new SetterPolyCustomIntegerConsumer();
+        PolyCustomInjector.of(SetterPolyCustomIntegerConsumer.class).inject(function, POLY_CUSTOM);
+        assertThat(function.getInjections(), equalTo(1));
+        assertThat(function.getPolyCustom(), equalTo(POLY_CUSTOM));
+    }
+
+    @Test
+    public void staticFieldTest() {
+        PolyCustom polyCustom = new PolyCustom("executionId", "apiKey", 200, "application/json");
+        StaticPolyCustomIntegerConsumer function = new StaticPolyCustomIntegerConsumer();
+        PolyCustomInjector.of(StaticPolyCustomIntegerConsumer.class).inject(function, polyCustom);
+        function.accept(203);
+        assertThat(polyCustom.getResponseStatusCode(), equalTo(203));
+    }
+}
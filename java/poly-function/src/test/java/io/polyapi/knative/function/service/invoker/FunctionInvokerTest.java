@@ -0,0 +1,86 @@
+package io.polyapi.knative.function.service.invoker;
+
+import io.polyapi.knative.function.mock.function.ClassCastExceptionThrowingStringConsumer;
+import io.polyapi.knative.function.mock.function.IntFunction;
+import io.polyapi.knative.function.mock.function.MockRunnable;
+import io.polyapi.knative.function.mock.function.RuntimeExceptionThrowingStringConsumer;
+import io.polyapi.knative.function.mock.function.StatefulObjectConsumer;
+import io.polyapi.knative.function.mock.function.StringIntegerToStringBiFunction;
+import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static io.polyapi.knative.function.TestCaseDescriber.describeCase;
+import static io.polyapi.knative.function.TestCaseDescriber.describeErrorCase;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FunctionInvokerTest {
+
+    public static Stream<Arguments> invokeSource() throws NoSuchMethodException {
+        return withInvokerTypes(List.of(Arguments.of(1, "Single argument function.", new StringToStringFunction(), getMethod(StringToStringFunction.class, "apply", String.class), new Object[]{"case 1"}, "1 esac"),
+                Arguments.of(2, "Two argument function.", new StringIntegerToStringBiFunction(), getMethod(StringIntegerToStringBiFunction.class, "apply", String.class, Integer.class), new Object[]{"case ", 2}, "case 2"),
+                Arguments.of(3, "Primitive argument function.", new IntFunction(), getMethod(IntFunction.class, "apply", int.class), new Object[]{3}, "3"),
+                Arguments.of(4, "Void function without arguments.", new MockRunnable(), getMethod(MockRunnable.class, "run"), new Object[]{}, null),
+                Arguments.of(5, "Extra arguments are ignored.", new StringToStringFunction(), getMethod(StringToStringFunction.class, "apply", String.class), new Object[]{"case 5", 1}, "5 esac"),
+                Arguments.of(6, "Null object argument.", new StringIntegerToStringBiFunction(), getMethod(StringIntegerToStringBiFunction.class, "apply", String.class, Integer.class), new Object[]{"case ", null}, "case null")));
+    }
+
+    public static Stream<Arguments> invokeErrorSource() throws NoSuchMethodException {
+        return withInvokerTypes(List.of(Arguments.of(1, "Wrong instance for method.", new StatefulObjectConsumer(), getMethod(StringToStringFunction.class, "apply", String.class), new Object[]{"error case 1"}, IllegalArgumentException.class),
+                Arguments.of(2, "Too few arguments.", new StringIntegerToStringBiFunction(), getMethod(StringIntegerToStringBiFunction.class, "apply", String.class, Integer.class), new Object[]{"error case 2"}, IllegalArgumentException.class),
+                Arguments.of(3, "Argument type mismatch.", new StringToStringFunction(), getMethod(StringToStringFunction.class, "apply", String.class), new Object[]{3}, IllegalArgumentException.class),
+                Arguments.of(4, "Null primitive argument.", new IntFunction(), getMethod(IntFunction.class, "apply", int.class), new Object[]{null}, IllegalArgumentException.class),
+                Arguments.of(5, "Exception thrown by the function.", new RuntimeExceptionThrowingStringConsumer(), getMethod(RuntimeExceptionThrowingStringConsumer.class, "accept", String.class), new Object[]{"error case 5"}, InvocationTargetException.class),
+                Arguments.of(6, "Class cast exception thrown by the function.", new ClassCastExceptionThrowingStringConsumer(), getMethod(ClassCastExceptionThrowingStringConsumer.class, "accept", String.class), new Object[]{"error case 6"}, InvocationTargetException.class)));
+    }
+
+    private static Stream<Arguments> withInvokerTypes(List<Arguments> arguments) {
+        return Stream.of(FunctionInvokerType.values())
+                .flatMap(invokerType -> arguments.stream()
+                        .map(Arguments::get)
+                        .map(values -> {
+                            Object[] result = new Object[values.length + 1];
+                            result[0] = invokerType;
+                            System.arraycopy(values, 0, result, 1, values.length);
+                            return Arguments.of(result);
+                        }));
+    }
+
+    private static Method getMethod(Class<?> clazz, String method, Class<?>... argumentTypes) throws NoSuchMethodException {
+        return clazz.getDeclaredMethod(method, argumentTypes);
+    }
+
+    private static FunctionInvoker createInvoker(FunctionInvokerType invokerType, Method method) throws IllegalAccessException {
+        return switch (invokerType) {
+            case METHOD_HANDLE -> new MethodHandleFunctionInvoker(method);
+            case REFLECTION -> new ReflectionFunctionInvoker(method);
+        };
+    }
+
+    @ParameterizedTest(name = "{0} case {1}: {2}")
+    @MethodSource("invokeSource")
+    public void invokeTest(FunctionInvokerType invokerType, Integer caseNumber, String description, Object function, Method method, Object[] arguments, Object expectedResult) throws Exception {
+        describeCase(caseNumber, description);
+        assertThat(createInvoker(invokerType, method).invoke(function, arguments), equalTo(expectedResult));
+    }
+
+    @ParameterizedTest(name = "{0} error case {1}: {2}")
+    @MethodSource("invokeErrorSource")
+    public void invokeErrorTest(FunctionInvokerType invokerType, Integer caseNumber, String description, Object function, Method method, Object[] arguments, Class<? extends Exception> expectedException) throws Exception {
+        describeErrorCase(caseNumber, description);
+        FunctionInvoker invoker = createInvoker(invokerType, method);
+        Exception exception = assertThrows(expectedException, () -> invoker.invoke(function, arguments));
+        if (exception instanceof InvocationTargetException invocationTargetException) {
+            assertThat(invocationTargetException.getTargetException(), instanceOf(RuntimeException.class));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.polyapi.knative.function.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.polyapi.knative.function.controller.binding.ArgumentBinder;
+import io.polyapi.knative.function.log.LogCaptureBudget;
+import io.polyapi.knative.function.mock.function.RuntimeExceptionThrowingStringConsumer;
+import io.polyapi.knative.function.mock.function.StringToStringFunction;
+import io.polyapi.knative.function.model.InvocationPlan;
+import io.polyapi.knative.function.service.InvocationPlanFactory;
+import io.polyapi.knative.function.service.InvocationServiceImpl;
+import io.polyapi.knative.function.service.admission.AdmissionGate;
+import io.polyapi.knative.function.service.execution.ExecutionEngineConfiguration;
+import io.polyapi.knative.function.service.idempotency.IdempotencyCache;
+import io.polyapi.knative.function.service.instance.FunctionInstanceProviderRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+
+import static io.polyapi.knative.function.service.execution.ExecutionEngineType.PLATFORM_POOL;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class FunctionWarmUpTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FunctionWarmUp createWarmUp(Method method, String sample, int iterations) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        InvocationPlan plan = new InvocationPlanFactory().create(method.getDeclaringClass(), method);
+        FunctionInstanceProviderRegistry instanceProviderRegistry = new FunctionInstanceProviderRegistry();
+        instanceProviderRegistry.setPoolSize(2);
+        instanceProviderRegistry.setMeterRegistry(meterRegistry);
+        InvocationServiceImpl invocationService = new InvocationServiceImpl();
+        invocationService.setExecutionEngine(new ExecutionEngineConfiguration().executionEngine(PLATFORM_POOL, 4));
+        invocationService.setAdmissionGate(new AdmissionGate(0, 0, Duration.ZERO, meterRegistry));
+        invocationService.setInstanceProviderRegistry(instanceProviderRegistry);
+        invocationService.setLogCaptureBudget(new LogCaptureBudget(false, 0, 0));
+        invocationService.setIdempotencyCache(new IdempotencyCache(0, Duration.ZERO, meterRegistry));
+        FunctionWarmUp warmUp = new FunctionWarmUp();
+        warmUp.setInvocationPlan(plan);
+        warmUp.setArgumentBinder(new ArgumentBinder(plan, objectMapper));
+        warmUp.setObjectMapper(objectMapper);
+        warmUp.setInvocationService(invocationService);
+        warmUp.setInstanceProviderRegistry(instanceProviderRegistry);
+        warmUp.setMeterRegistry(meterRegistry);
+        warmUp.setSample(sample == null ? null : new ByteArrayResource(sample.getBytes(UTF_8)));
+        warmUp.setIterations(iterations);
+        return warmUp;
+    }
+
+    @Test
+    public void warmUpTest() throws NoSuchMethodException {
+        FunctionWarmUp warmUp = createWarmUp(StringToStringFunction.class.getDeclaredMethod("apply", String.class), "[[\"a\"], {\"args\": [\"b\"]}]", 5);
+        assertThat(warmUp.health().getStatus(), equalTo(Status.DOWN));
+        warmUp.warmUp();
+        assertThat(warmUp.health().getStatus(), equalTo(Status.UP));
+        assertThat(warmUp.health().getDetails().get("executions"), equalTo(5));
+        assertThat(warmUp.health().getDetails().get("failures"), equalTo(0));
+        assertThat(meterRegistry.get("polyapi.function.warm-up.executions").gauge().value(), equalTo(5.0));
+    }
+
+    @Test
+    public void noSampleTest() throws NoSuchMethodException {
+        FunctionWarmUp warmUp = createWarmUp(StringToStringFunction.class.getDeclaredMethod("apply", String.class), null, 5);
+        warmUp.warmUp();
+        assertThat(warmUp.health().getStatus(), equalTo(Status.UP));
+        assertThat(warmUp.getExecutions(), equalTo(0));
+    }
+
+    @Test
+    public void failedExecutionsTest() throws NoSuchMethodException {
+        FunctionWarmUp warmUp = createWarmUp(RuntimeExceptionThrowingStringConsumer.class.getDeclaredMethod("accept", String.class), "[[\"a\"]]", 3);
+        warmUp.warmUp();
+        assertThat(warmUp.health().getStatus(), equalTo(Status.UP));
+        assertThat(warmUp.getExecutions(), equalTo(3));
+        assertThat(warmUp.getFailures(), equalTo(3));
+    }
+
+    @Test
+    public void invalidSampleTest() throws NoSuchMethodException {
+        FunctionWarmUp warmUp = createWarmUp(StringToStringFunction.class.getDeclaredMethod("apply", String.class), "{\"args\": [\"a\"]}", 3);
+        warmUp.warmUp();
+        assertThat(warmUp.health().getStatus(), equalTo(Status.UP));
+        assertThat(warmUp.getExecutions(), equalTo(0));
+    }
+}